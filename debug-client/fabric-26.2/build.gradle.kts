@@ -9,6 +9,7 @@ val grapheneProject = project(":packages:fabric-26.2")
 val grapheneMainSourceSet = grapheneProject.extensions.getByType<SourceSetContainer>().named("main")
 val commonProject = project(":packages:common")
 val commonMainSourceSet = commonProject.extensions.getByType<SourceSetContainer>().named("main")
+val commonVectorSourceSet = commonProject.extensions.getByType<SourceSetContainer>().named("vector")
 val jcefGithubVersion = libs.versions.jcefgithub.get()
 val resourceProperties =
     mapOf(
@@ -57,6 +58,7 @@ dependencies {
   implementation("net.fabricmc.fabric-api:fabric-api:$fabricApiVersion")
   implementation(files(grapheneMainSourceSet.map { it.output }))
   implementation(files(commonMainSourceSet.map { it.output }))
+  implementation(files(commonVectorSourceSet.map { it.output }))
   implementation(libs.gson)
   runtimeOnly("io.github.trethore:jcefgithub:${jcefGithubVersion}:all-relocated") {
     isTransitive = false
@@ -4,6 +4,7 @@ plugins {
   `java-library`
   `maven-publish`
   id("io.github.trethore.architecture-check")
+  alias(libs.plugins.jmh)
 }
 
 val jcefGithubVersion = libs.versions.jcefgithub.get()
@@ -66,10 +67,45 @@ architectureChecks {
   }
 }
 
+val vectorModule = "--add-modules=jdk.incubator.vector"
+
+// The incubator vector kernel compiles on its own so the rest of the module stays warning-free. The
+// main code loads it reflectively, and it ships in the same jar.
+val vector by
+    sourceSets.creating {
+      compileClasspath += sourceSets.main.get().output
+    }
+
+dependencies {
+  testRuntimeOnly(vector.output)
+  "jmhRuntimeOnly"(vector.output)
+}
+
 tasks.withType<JavaCompile>().configureEach {
   options.release = 21
 }
 
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+  options.compilerArgs.add(vectorModule)
+}
+
+tasks.jar {
+  from(vector.output)
+}
+
+tasks.named<Jar>("sourcesJar") {
+  from(vector.allSource)
+}
+
+tasks.withType<Test>().configureEach {
+  jvmArgs(vectorModule)
+}
+
+jmh {
+  jmhVersion = libs.versions.jmh
+  jvmArgsAppend.add(vectorModule)
+}
+
 java {
   withSourcesJar()
 
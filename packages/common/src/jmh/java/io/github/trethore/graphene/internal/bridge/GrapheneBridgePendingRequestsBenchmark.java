@@ -0,0 +1,102 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Registers and answers bridge requests from several threads, comparing a per-request {@code
+ * orTimeout} task with the shared timing wheel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class GrapheneBridgePendingRequestsBenchmark {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Param({"orTimeout", "timerWheel"})
+  public String timeouts;
+
+  private final AtomicLong requestSequence = new AtomicLong();
+  private PendingRequests pendingRequests;
+
+  @Setup
+  public void setUp() {
+    pendingRequests =
+        switch (timeouts) {
+          case "orTimeout" -> new OrTimeoutPendingRequests();
+          case "timerWheel" -> new WheelPendingRequests();
+          default -> throw new IllegalArgumentException("Unknown timeouts: " + timeouts);
+        };
+  }
+
+  @Benchmark
+  public CompletableFuture<String> registerAndAnswer() {
+    String requestId = "java-" + requestSequence.incrementAndGet();
+    CompletableFuture<String> response = pendingRequests.register(requestId);
+    pendingRequests.complete(requestId);
+    return response;
+  }
+
+  private interface PendingRequests {
+    CompletableFuture<String> register(String requestId);
+
+    void complete(String requestId);
+  }
+
+  /** The registration previously used by {@link GrapheneBridgePendingRequests}. */
+  private static final class OrTimeoutPendingRequests implements PendingRequests {
+    private final Map<String, CompletableFuture<String>> pendingById = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<String> register(String requestId) {
+      CompletableFuture<String> responseFuture = new CompletableFuture<>();
+      pendingById.put(requestId, responseFuture);
+      responseFuture.orTimeout(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      responseFuture.whenComplete((ignoredResult, ignoredError) -> pendingById.remove(requestId));
+      return responseFuture;
+    }
+
+    @Override
+    public void complete(String requestId) {
+      CompletableFuture<String> responseFuture = pendingById.remove(requestId);
+      if (responseFuture != null) {
+        responseFuture.complete("null");
+      }
+    }
+  }
+
+  private static final class WheelPendingRequests implements PendingRequests {
+    private final GrapheneBridgePendingRequests pendingRequests =
+        new GrapheneBridgePendingRequests();
+
+    @Override
+    public CompletableFuture<String> register(String requestId) {
+      return pendingRequests.register(requestId, TIMEOUT);
+    }
+
+    @Override
+    public void complete(String requestId) {
+      pendingRequests.completeSuccess(requestId, "null");
+    }
+  }
+}
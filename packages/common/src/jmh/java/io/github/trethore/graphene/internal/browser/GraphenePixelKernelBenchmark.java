@@ -0,0 +1,70 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Converts one full-HD BGRA frame row by row, the way a full capture or upload does. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GraphenePixelKernelBenchmark {
+  private static final int WIDTH = 1920;
+  private static final int HEIGHT = 1080;
+
+  @Param({"scalar", "intLane", "vector"})
+  public String kernel;
+
+  @Param({"false", "true"})
+  public boolean opaque;
+
+  private GraphenePixelKernel pixelKernel;
+  private ByteBuffer source;
+  private ByteBuffer target;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    pixelKernel =
+        switch (kernel) {
+          case "scalar" -> new GrapheneScalarPixelKernel();
+          case "intLane" -> new GrapheneIntLanePixelKernel();
+          case "vector" ->
+              (GraphenePixelKernel)
+                  Class.forName(
+                          "io.github.trethore.graphene.internal.browser.GrapheneVectorPixelKernel")
+                      .getDeclaredConstructor()
+                      .newInstance();
+          default -> throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        };
+    byte[] pixels = new byte[WIDTH * HEIGHT * 4];
+    ThreadLocalRandom.current().nextBytes(pixels);
+    source = ByteBuffer.allocateDirect(pixels.length);
+    source.put(0, pixels);
+    target = ByteBuffer.allocateDirect(pixels.length);
+  }
+
+  @Benchmark
+  public void convertFrame(Blackhole blackhole) {
+    int strideBytes = WIDTH * 4;
+    for (int row = 0; row < HEIGHT; row++) {
+      pixelKernel.convertRow(
+          source, row * strideBytes, target, row * strideBytes, WIDTH, true, opaque);
+    }
+    blackhole.consume(target);
+  }
+}
@@ -1,6 +1,7 @@
 package io.github.trethore.graphene.api.bridge;
 
 import io.github.trethore.graphene.api.GrapheneSubscription;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -22,15 +23,85 @@ public interface GrapheneBridge {
   /** Subscribes to transitions into the ready state, invoking the listener immediately if ready. */
   GrapheneSubscription onReady(Runnable listener);
 
-  GrapheneSubscription onEvent(String channel, GrapheneBridgeEventListener listener);
+  /**
+   * Returns whether the outbound queue has room for bulk traffic. The bridge stops being writable
+   * once three quarters of its queue budget is in use and becomes writable again when the queue
+   * drains below half, so producers can pause before events are dropped.
+   */
+  boolean isWritable();
+
+  /** Subscribes to changes of {@link #isWritable()}; the listener runs on the main thread. */
+  GrapheneSubscription onWritabilityChanged(GrapheneBridgeWritabilityListener listener);
+
+  /** Returns a snapshot of this bridge's per-channel counters and outbound queue state. */
+  GrapheneBridgeMetrics metrics();
+
+  /** Subscribes to events on a channel; the listener runs on the platform main thread. */
+  default GrapheneSubscription onEvent(String channel, GrapheneBridgeEventListener listener) {
+    return onEvent(channel, GrapheneBridgeExecution.MAIN_THREAD, listener);
+  }
+
+  GrapheneSubscription onEvent(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeEventListener listener);
 
-  GrapheneSubscription onRequest(String channel, GrapheneBridgeRequestHandler handler);
+  /**
+   * Subscribes to the newest event on a channel. When several events arrive before the listener
+   * runs, the older payloads are skipped and the listener only receives the latest one.
+   */
+  default GrapheneSubscription onLatestEvent(String channel, GrapheneBridgeEventListener listener) {
+    return onEvent(channel, listener);
+  }
+
+  /** Handles requests on a channel; the handler runs on the platform main thread. */
+  default GrapheneSubscription onRequest(String channel, GrapheneBridgeRequestHandler handler) {
+    return onRequest(channel, GrapheneBridgeExecution.MAIN_THREAD, handler);
+  }
+
+  /**
+   * Handles requests on a channel with the given execution. The response is sent from whichever
+   * thread completes the handler's future.
+   */
+  GrapheneSubscription onRequest(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeRequestHandler handler);
+
+  /** Handles streaming requests on a channel; the handler runs on the platform main thread. */
+  default GrapheneSubscription onStream(String channel, GrapheneBridgeStreamHandler handler) {
+    return onStream(channel, GrapheneBridgeExecution.MAIN_THREAD, handler);
+  }
+
+  /**
+   * Handles streaming requests on a channel with the given execution. The page reads the chunks
+   * pushed into the handler's sink as an async iterator, and stopping that iteration cancels the
+   * sink.
+   */
+  GrapheneSubscription onStream(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeStreamHandler handler);
 
   default <T> GrapheneSubscription onEventJson(
       String channel, Class<T> payloadType, GrapheneBridgeJsonEventListener<T> listener) {
+    return onEventJson(channel, payloadType, GrapheneBridgeExecution.MAIN_THREAD, listener);
+  }
+
+  default <T> GrapheneSubscription onEventJson(
+      String channel,
+      Class<T> payloadType,
+      GrapheneBridgeExecution execution,
+      GrapheneBridgeJsonEventListener<T> listener) {
     Objects.requireNonNull(payloadType, "payloadType");
     Objects.requireNonNull(listener, "listener");
     return onEvent(
+        channel,
+        execution,
+        (receivedChannel, payloadJson) ->
+            listener.onEvent(
+                receivedChannel, GrapheneBridgeJson.fromJson(payloadJson, payloadType)));
+  }
+
+  default <T> GrapheneSubscription onLatestEventJson(
+      String channel, Class<T> payloadType, GrapheneBridgeJsonEventListener<T> listener) {
+    Objects.requireNonNull(payloadType, "payloadType");
+    Objects.requireNonNull(listener, "listener");
+    return onLatestEvent(
         channel,
         (receivedChannel, payloadJson) ->
             listener.onEvent(
@@ -39,10 +110,19 @@ public interface GrapheneBridge {
 
   default <T, U> GrapheneSubscription onRequestJson(
       String channel, Class<T> requestType, GrapheneBridgeJsonRequestHandler<T, U> handler) {
+    return onRequestJson(channel, requestType, GrapheneBridgeExecution.MAIN_THREAD, handler);
+  }
+
+  default <T, U> GrapheneSubscription onRequestJson(
+      String channel,
+      Class<T> requestType,
+      GrapheneBridgeExecution execution,
+      GrapheneBridgeJsonRequestHandler<T, U> handler) {
     Objects.requireNonNull(requestType, "requestType");
     Objects.requireNonNull(handler, "handler");
     return onRequest(
         channel,
+        execution,
         (requestChannel, payloadJson) -> {
           T requestPayload = GrapheneBridgeJson.fromJson(payloadJson, requestType);
           CompletableFuture<U> responseFuture = handler.handle(requestChannel, requestPayload);
@@ -57,10 +137,46 @@ public interface GrapheneBridge {
   /** Emits an event to the current document. */
   void emit(String channel, String payloadJson);
 
+  /**
+   * Emits an event only while the bridge is writable. Returns {@code false} without queueing the
+   * event when the outbound queue is above its high-water mark.
+   */
+  boolean offer(String channel, String payloadJson);
+
   default void emitJson(String channel, Object payload) {
     emit(channel, GrapheneBridgeJson.toJson(payload));
   }
 
+  /**
+   * Emits a state snapshot to the current document. A pending unsent event from an earlier {@code
+   * emitLatest} call on the same channel is replaced instead of being delivered.
+   */
+  default void emitLatest(String channel, String payloadJson) {
+    emit(channel, payloadJson);
+  }
+
+  default void emitLatestJson(String channel, Object payload) {
+    emitLatest(channel, GrapheneBridgeJson.toJson(payload));
+  }
+
+  /**
+   * Emits the remaining bytes of {@code payload} to the current document, whose listeners receive
+   * them as an {@code ArrayBuffer}. The bytes are copied, and the buffer's position is unchanged.
+   */
+  void emitBinary(String channel, ByteBuffer payload);
+
+  default CompletableFuture<String> requestBinary(String channel, ByteBuffer payload) {
+    return requestBinary(channel, payload, DEFAULT_REQUEST_TIMEOUT);
+  }
+
+  /**
+   * Sends a request whose payload reaches the page handler as an {@code ArrayBuffer} and completes
+   * with its JSON response payload.
+   *
+   * @throws GrapheneBridgeRequestException if the remote request fails
+   */
+  CompletableFuture<String> requestBinary(String channel, ByteBuffer payload, Duration timeout);
+
   default CompletableFuture<String> request(String channel, String payloadJson) {
     return request(channel, payloadJson, DEFAULT_REQUEST_TIMEOUT);
   }
@@ -0,0 +1,25 @@
+package io.github.trethore.graphene.api.bridge;
+
+import java.util.Objects;
+
+/**
+ * Counters for one bridge channel. Payload sizes count JSON characters, or bytes for binary
+ * payloads.
+ *
+ * @param requestLatency round trips of Java requests answered by the page
+ * @param handlerLatency time Java handlers took to answer page requests
+ */
+public record GrapheneBridgeChannelMetrics(
+    long inboundMessages,
+    long inboundPayloadSize,
+    long outboundMessages,
+    long outboundPayloadSize,
+    long requestFailures,
+    long requestTimeouts,
+    GrapheneBridgeLatency requestLatency,
+    GrapheneBridgeLatency handlerLatency) {
+  public GrapheneBridgeChannelMetrics {
+    Objects.requireNonNull(requestLatency, "requestLatency");
+    Objects.requireNonNull(handlerLatency, "handlerLatency");
+  }
+}
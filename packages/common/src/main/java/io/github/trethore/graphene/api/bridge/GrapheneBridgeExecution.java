@@ -0,0 +1,14 @@
+package io.github.trethore.graphene.api.bridge;
+
+/** Thread on which a bridge event listener or request handler runs. */
+public enum GrapheneBridgeExecution {
+  /** Runs on the platform main thread, in the order messages arrived. */
+  MAIN_THREAD,
+  /**
+   * Runs on a small pool of worker threads shared by all browsers. Messages may be handled
+   * concurrently and out of order, and are rejected while the pool's queue is full.
+   */
+  WORKER_POOL,
+  /** Runs each message on its own virtual thread, for handlers that block on I/O. */
+  VIRTUAL_THREAD
+}
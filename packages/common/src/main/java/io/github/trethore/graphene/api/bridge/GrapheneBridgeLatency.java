@@ -0,0 +1,24 @@
+package io.github.trethore.graphene.api.bridge;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Summary of a latency distribution. Percentiles are bucketed, so they may overstate the true value
+ * by up to an eighth.
+ */
+public record GrapheneBridgeLatency(
+    long count, Duration p50, Duration p90, Duration p99, Duration max) {
+  public static final GrapheneBridgeLatency EMPTY =
+      new GrapheneBridgeLatency(0, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
+  public GrapheneBridgeLatency {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative");
+    }
+    Objects.requireNonNull(p50, "p50");
+    Objects.requireNonNull(p90, "p90");
+    Objects.requireNonNull(p99, "p99");
+    Objects.requireNonNull(max, "max");
+  }
+}
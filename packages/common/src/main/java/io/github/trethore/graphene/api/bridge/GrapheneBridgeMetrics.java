@@ -0,0 +1,23 @@
+package io.github.trethore.graphene.api.bridge;
+
+import java.util.Map;
+
+/**
+ * Point-in-time snapshot of a bridge's counters. Counters accumulate for the bridge's lifetime and
+ * are not reset by navigation.
+ *
+ * @param queuedOutboundMessages messages waiting for the page to become ready or for the next flush
+ * @param droppedOutboundMessages messages dropped because the outbound queue was full
+ * @param channels counters by channel; channels beyond the tracking limit share the {@link
+ *     #OTHER_CHANNELS} entry
+ */
+public record GrapheneBridgeMetrics(
+    int queuedOutboundMessages,
+    long droppedOutboundMessages,
+    Map<String, GrapheneBridgeChannelMetrics> channels) {
+  public static final String OTHER_CHANNELS = "*";
+
+  public GrapheneBridgeMetrics {
+    channels = Map.copyOf(channels);
+  }
+}
@@ -0,0 +1,11 @@
+package io.github.trethore.graphene.api.bridge;
+
+/** Handles a streaming bridge request by pushing JSON chunks into a sink. */
+@FunctionalInterface
+public interface GrapheneBridgeStreamHandler {
+  /**
+   * Starts the stream. The sink may keep being used after this method returns; a thrown exception
+   * fails the stream.
+   */
+  void handle(String channel, String payloadJson, GrapheneBridgeStreamSink sink);
+}
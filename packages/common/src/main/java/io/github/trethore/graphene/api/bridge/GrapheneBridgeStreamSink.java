@@ -0,0 +1,26 @@
+package io.github.trethore.graphene.api.bridge;
+
+/**
+ * Receives the chunks of a streaming bridge response. Methods may be called from any thread, and
+ * calls made after the stream has ended or been cancelled are ignored.
+ */
+public interface GrapheneBridgeStreamSink {
+  /**
+   * Sends a JSON chunk to the page's async iterator. Chunks are never dropped when the outbound
+   * queue is full, so producers that can outpace the page should wait for {@link
+   * GrapheneBridge#isWritable()}.
+   */
+  void next(String chunkJson);
+
+  /** Ends the stream normally. */
+  void complete();
+
+  /** Ends the stream with an error that rejects the page's pending iteration. */
+  void error(Throwable failure);
+
+  /** Returns whether the page cancelled the stream or went away. */
+  boolean isCancelled();
+
+  /** Runs {@code listener} once the stream is cancelled, immediately if it already was. */
+  void onCancel(Runnable listener);
+}
@@ -0,0 +1,7 @@
+package io.github.trethore.graphene.api.bridge;
+
+/** Receives changes of a bridge's outbound writability; see {@link GrapheneBridge#isWritable()}. */
+@FunctionalInterface
+public interface GrapheneBridgeWritabilityListener {
+  void onWritabilityChanged(boolean writable);
+}
@@ -3,15 +3,26 @@ package io.github.trethore.graphene.api.browser;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * An immutable, self-contained CPU snapshot of the composited browser view.
+ * A read-only CPU snapshot of the composited browser view.
  *
- * <p>Pixels use {@link BrowserPixelFormat#BGRA_8888_PREMULTIPLIED_SRGB}, begin at the upper-left
- * corner, proceed left-to-right and top-to-bottom, and use tightly packed rows. Dirty regions are
- * relative to the immediately preceding frame sequence. Consumers may apply them as partial updates
- * only when they hold sequence {@code sequence() - 1} with matching dimensions; otherwise they must
- * consume the complete pixel buffer.
+ * <p>Pixels use the layout reported by {@link #pixelFormat()}, which is {@link
+ * BrowserPixelFormat#BGRA_8888_PREMULTIPLIED_SRGB} unless the session was created with another
+ * {@link BrowserOptions#pixelFormat()}. They begin at the upper-left corner, proceed left-to-right
+ * and top-to-bottom, and use tightly packed rows. Dirty regions are relative to the immediately
+ * preceding frame sequence. Consumers may apply them as partial updates only when they hold
+ * sequence {@code sequence() - 1} with matching dimensions; otherwise they must consume the
+ * complete pixel buffer.
+ *
+ * <p>Frames built with the public constructor own a private copy of their pixels. Frames produced
+ * by a {@link BrowserSession} may instead borrow pooled storage that is recycled once nothing
+ * references the frame any longer: their pixels stay valid for the duration of a {@link
+ * BrowserFrameListener} callback, until the reference returned by {@link
+ * BrowserSession#latestFrame()} is released, and between a successful {@link #retain()} and its
+ * matching {@link #release()}. Reading the pixels of a recycled frame fails instead of returning
+ * storage that a newer paint is overwriting.
  */
 @SuppressWarnings("java:S6206")
 public final class BrowserFrame {
@@ -19,14 +30,47 @@ public final class BrowserFrame {
   private final int height;
   private final long sequence;
   private final List<BrowserDirtyRegion> dirtyRegions;
+  private final BrowserPixelFormat pixelFormat;
   private final ByteBuffer pixels;
+  private final Runnable releaseAction;
+  private final AtomicInteger references = new AtomicInteger(1);
 
+  /** Creates a BGRA frame that owns a copy of the remaining bytes of {@code pixels}. */
   public BrowserFrame(
       int width,
       int height,
       long sequence,
       List<BrowserDirtyRegion> dirtyRegions,
       ByteBuffer pixels) {
+    this(
+        width,
+        height,
+        sequence,
+        dirtyRegions,
+        pixels,
+        BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB);
+  }
+
+  /** Creates a frame that owns a copy of the remaining bytes of {@code pixels}. */
+  public BrowserFrame(
+      int width,
+      int height,
+      long sequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer pixels,
+      BrowserPixelFormat pixelFormat) {
+    this(width, height, sequence, dirtyRegions, pixels, pixelFormat, true, null);
+  }
+
+  private BrowserFrame(
+      int width,
+      int height,
+      long sequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer pixels,
+      BrowserPixelFormat pixelFormat,
+      boolean copyPixels,
+      Runnable releaseAction) {
     if (width <= 0 || height <= 0) {
       throw new IllegalArgumentException("Frame dimensions must be positive");
     }
@@ -36,18 +80,68 @@ public final class BrowserFrame {
     int expectedBytes = Math.multiplyExact(Math.multiplyExact(width, height), 4);
     List<BrowserDirtyRegion> validatedDirtyRegions =
         validateDirtyRegions(width, height, dirtyRegions);
+    BrowserPixelFormat validatedPixelFormat = Objects.requireNonNull(pixelFormat, "pixelFormat");
     ByteBuffer source = Objects.requireNonNull(pixels, "pixels").duplicate();
     if (source.remaining() != expectedBytes) {
       throw new IllegalArgumentException("Frame pixel buffer size does not match its dimensions");
     }
-    ByteBuffer copy = ByteBuffer.allocateDirect(expectedBytes);
-    copy.put(source);
-    copy.flip();
+    ByteBuffer storage;
+    if (copyPixels) {
+      storage = ByteBuffer.allocateDirect(expectedBytes);
+      storage.put(source);
+      storage.flip();
+    } else {
+      storage = source.slice();
+    }
     this.width = width;
     this.height = height;
     this.sequence = sequence;
     this.dirtyRegions = validatedDirtyRegions;
-    this.pixels = copy.asReadOnlyBuffer();
+    this.pixelFormat = validatedPixelFormat;
+    this.pixels = storage.asReadOnlyBuffer();
+    this.releaseAction = releaseAction;
+  }
+
+  /**
+   * Creates a BGRA frame that borrows the remaining bytes of {@code pixels} without copying them.
+   * The caller holds the initial reference; {@code releaseAction} runs once, on the thread that
+   * releases the last reference, after which the storage may be reused.
+   */
+  public static BrowserFrame wrap(
+      int width,
+      int height,
+      long sequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer pixels,
+      Runnable releaseAction) {
+    return wrap(
+        width,
+        height,
+        sequence,
+        dirtyRegions,
+        pixels,
+        BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB,
+        releaseAction);
+  }
+
+  /** Creates a frame like {@link #wrap(int, int, long, List, ByteBuffer, Runnable)} in a layout. */
+  public static BrowserFrame wrap(
+      int width,
+      int height,
+      long sequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer pixels,
+      BrowserPixelFormat pixelFormat,
+      Runnable releaseAction) {
+    return new BrowserFrame(
+        width,
+        height,
+        sequence,
+        dirtyRegions,
+        pixels,
+        pixelFormat,
+        false,
+        Objects.requireNonNull(releaseAction, "releaseAction"));
   }
 
   public int width() {
@@ -67,18 +161,57 @@ public final class BrowserFrame {
   }
 
   public BrowserPixelFormat pixelFormat() {
-    return BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB;
+    return pixelFormat;
   }
 
   public int rowStrideBytes() {
     return Math.multiplyExact(width, 4);
   }
 
-  /** Returns a read-only buffer positioned at zero with one complete tightly packed frame. */
+  /**
+   * Returns a read-only buffer positioned at zero with one complete tightly packed frame. Throws
+   * {@link IllegalStateException} once the frame's borrowed storage has been recycled.
+   */
   public ByteBuffer pixels() {
+    if (releaseAction != null && references.get() <= 0) {
+      throw new IllegalStateException("Frame pixels have already been recycled");
+    }
     return pixels.asReadOnlyBuffer();
   }
 
+  /**
+   * Adds a reference that keeps this frame's pixels valid until {@link #release()}. Returns {@code
+   * false} when the frame's borrowed storage has already been recycled; the caller must then obtain
+   * a newer frame. Frames that own their pixels can always be retained.
+   */
+  public boolean retain() {
+    if (releaseAction == null) {
+      return true;
+    }
+    int count;
+    do {
+      count = references.get();
+      if (count <= 0) {
+        return false;
+      }
+    } while (!references.compareAndSet(count, count + 1));
+    return true;
+  }
+
+  /** Releases one reference obtained from {@link #retain()} or from the frame's creator. */
+  public void release() {
+    if (releaseAction == null) {
+      return;
+    }
+    int remaining = references.decrementAndGet();
+    if (remaining == 0) {
+      releaseAction.run();
+    } else if (remaining < 0) {
+      references.incrementAndGet();
+      throw new IllegalStateException("Frame was released more often than it was retained");
+    }
+  }
+
   private static List<BrowserDirtyRegion> validateDirtyRegions(
       int width, int height, List<BrowserDirtyRegion> dirtyRegions) {
     List<BrowserDirtyRegion> validatedDirtyRegions =
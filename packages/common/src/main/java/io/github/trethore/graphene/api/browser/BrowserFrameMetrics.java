@@ -0,0 +1,14 @@
+package io.github.trethore.graphene.api.browser;
+
+/**
+ * Point-in-time snapshot of the pooled pixel storage behind a session's frames. Counters accumulate
+ * for the session's lifetime; steady-state rendering reuses pooled buffers, so {@code
+ * allocatedBuffers} stops increasing once the working set has been allocated.
+ *
+ * @param borrowedBuffers buffers held by frames that have not been released yet
+ * @param idleBuffers buffers waiting in the pool for the next paint
+ * @param allocatedBuffers buffers allocated because none could be reused
+ * @param reusedBuffers paints written into a recycled buffer
+ */
+public record BrowserFrameMetrics(
+    int borrowedBuffers, int idleBuffers, long allocatedBuffers, long reusedBuffers) {}
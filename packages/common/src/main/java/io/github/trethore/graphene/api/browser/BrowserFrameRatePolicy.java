@@ -0,0 +1,48 @@
+package io.github.trethore.graphene.api.browser;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Selects how a session's off-screen frame rate follows page activity. The frame rate never exceeds
+ * {@link BrowserOptions#maximumFrameRate()}.
+ */
+public sealed interface BrowserFrameRatePolicy
+    permits BrowserFrameRatePolicy.Fixed, BrowserFrameRatePolicy.Adaptive {
+  /** Keeps the frame rate at the configured maximum. */
+  static BrowserFrameRatePolicy fixed() {
+    return Fixed.INSTANCE;
+  }
+
+  /** Drops to {@code idleFrameRate} after one second without input or animation. */
+  static BrowserFrameRatePolicy adaptive(int idleFrameRate) {
+    return new Adaptive(idleFrameRate, Adaptive.DEFAULT_IDLE_DELAY);
+  }
+
+  static BrowserFrameRatePolicy adaptive(int idleFrameRate, Duration idleDelay) {
+    return new Adaptive(idleFrameRate, idleDelay);
+  }
+
+  /** Paints at the configured maximum frame rate. */
+  enum Fixed implements BrowserFrameRatePolicy {
+    INSTANCE
+  }
+
+  /**
+   * Paints at the configured maximum while the page receives input or keeps repainting faster than
+   * the idle rate, and at {@code idleFrameRate} once neither happened for {@code idleDelay}.
+   */
+  record Adaptive(int idleFrameRate, Duration idleDelay) implements BrowserFrameRatePolicy {
+    private static final Duration DEFAULT_IDLE_DELAY = Duration.ofSeconds(1);
+
+    public Adaptive {
+      if (idleFrameRate < 1 || idleFrameRate > 60) {
+        throw new IllegalArgumentException("idleFrameRate must be between 1 and 60");
+      }
+      Objects.requireNonNull(idleDelay, "idleDelay");
+      if (idleDelay.isNegative() || idleDelay.isZero()) {
+        throw new IllegalArgumentException("idleDelay must be positive");
+      }
+    }
+  }
+}
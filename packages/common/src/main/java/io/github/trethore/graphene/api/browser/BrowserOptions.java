@@ -12,8 +12,9 @@ import java.util.Optional;
 
 /**
  * Immutable options controlling browser behavior, policies, and presentation hooks. Defaults use a
- * transparent 60 FPS browser with JavaScript enabled, expose the bridge only to Graphene-owned
- * documents, cancel downloads, allow ordinary same-session navigation, and disable context menus.
+ * transparent 60 FPS browser with JavaScript enabled and BGRA frames, expose the bridge only to
+ * Graphene-owned documents, cancel downloads, allow ordinary same-session navigation, and disable
+ * context menus.
  */
 @SuppressWarnings("unused")
 public final class BrowserOptions {
@@ -22,8 +23,10 @@ public final class BrowserOptions {
   private static final BrowserOptions DEFAULT = builder().build();
 
   private final int maximumFrameRate;
+  private final BrowserFrameRatePolicy frameRatePolicy;
   private final boolean transparent;
   private final int backgroundColor;
+  private final BrowserPixelFormat pixelFormat;
   private final boolean javascriptEnabled;
   private final BrowserBridgePolicy bridgePolicy;
   private final BrowserNavigationPolicy navigationPolicy;
@@ -35,8 +38,10 @@ public final class BrowserOptions {
 
   private BrowserOptions(Builder builder) {
     this.maximumFrameRate = requireFrameRate(builder.maximumFrameRate);
+    this.frameRatePolicy = Objects.requireNonNull(builder.frameRatePolicy, "frameRatePolicy");
     this.transparent = builder.transparent;
     this.backgroundColor = requireBackgroundColor(builder.backgroundColor);
+    this.pixelFormat = requirePixelFormat(builder.pixelFormat, builder.transparent);
     this.javascriptEnabled = builder.javascriptEnabled;
     this.bridgePolicy = Objects.requireNonNull(builder.bridgePolicy, "bridgePolicy");
     this.navigationPolicy = Objects.requireNonNull(builder.navigationPolicy, "navigationPolicy");
@@ -59,6 +64,10 @@ public final class BrowserOptions {
     return maximumFrameRate;
   }
 
+  public BrowserFrameRatePolicy frameRatePolicy() {
+    return frameRatePolicy;
+  }
+
   public boolean transparent() {
     return transparent;
   }
@@ -67,6 +76,11 @@ public final class BrowserOptions {
     return backgroundColor;
   }
 
+  /** Returns the layout of frames published by sessions created with these options. */
+  public BrowserPixelFormat pixelFormat() {
+    return pixelFormat;
+  }
+
   public boolean javascriptEnabled() {
     return javascriptEnabled;
   }
@@ -113,11 +127,22 @@ public final class BrowserOptions {
     return backgroundColor;
   }
 
+  private static BrowserPixelFormat requirePixelFormat(
+      BrowserPixelFormat pixelFormat, boolean transparent) {
+    Objects.requireNonNull(pixelFormat, "pixelFormat");
+    if (transparent && pixelFormat == BrowserPixelFormat.RGBX_8888_SRGB) {
+      throw new IllegalArgumentException("RGBX_8888_SRGB requires an opaque browser");
+    }
+    return pixelFormat;
+  }
+
   /** Builds immutable browser options. */
   public static final class Builder {
     private int maximumFrameRate = DEFAULT_FRAME_RATE;
+    private BrowserFrameRatePolicy frameRatePolicy = BrowserFrameRatePolicy.fixed();
     private boolean transparent = true;
     private int backgroundColor = DEFAULT_BACKGROUND_COLOR;
+    private BrowserPixelFormat pixelFormat = BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB;
     private boolean javascriptEnabled = true;
     private BrowserBridgePolicy bridgePolicy = BrowserBridgePolicy.defaultPolicy();
     private BrowserNavigationPolicy navigationPolicy = BrowserNavigationPolicy.defaultPolicy();
@@ -135,6 +160,16 @@ public final class BrowserOptions {
       return this;
     }
 
+    /**
+     * Selects how the frame rate follows page activity. {@link
+     * BrowserFrameRatePolicy#adaptive(int)} idles static pages at a low rate and returns to {@code
+     * maximumFrameRate} on input or animation.
+     */
+    public Builder frameRatePolicy(BrowserFrameRatePolicy frameRatePolicy) {
+      this.frameRatePolicy = Objects.requireNonNull(frameRatePolicy, "frameRatePolicy");
+      return this;
+    }
+
     public Builder transparent(boolean transparent) {
       this.transparent = transparent;
       return this;
@@ -146,6 +181,16 @@ public final class BrowserOptions {
       return this;
     }
 
+    /**
+     * Sets the layout of published frames. Pixels are converted once when the browser paints, so
+     * renderers can upload frames in their native texture layout. {@link
+     * BrowserPixelFormat#RGBX_8888_SRGB} is only valid together with {@code transparent(false)}.
+     */
+    public Builder pixelFormat(BrowserPixelFormat pixelFormat) {
+      this.pixelFormat = Objects.requireNonNull(pixelFormat, "pixelFormat");
+      return this;
+    }
+
     public Builder javascriptEnabled(boolean javascriptEnabled) {
       this.javascriptEnabled = javascriptEnabled;
       return this;
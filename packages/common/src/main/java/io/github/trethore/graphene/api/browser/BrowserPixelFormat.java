@@ -3,5 +3,11 @@ package io.github.trethore.graphene.api.browser;
 /** Pixel layout used by CPU browser frames. */
 public enum BrowserPixelFormat {
   /** Eight-bit BGRA channels with premultiplied alpha and sRGB color encoding. */
-  BGRA_8888_PREMULTIPLIED_SRGB
+  BGRA_8888_PREMULTIPLIED_SRGB,
+  /** Eight-bit RGBA channels with premultiplied alpha and sRGB color encoding. */
+  RGBA_8888_PREMULTIPLIED_SRGB,
+  /**
+   * Eight-bit RGB channels in sRGB color encoding followed by an unused byte that is always 255.
+   */
+  RGBX_8888_SRGB
 }
@@ -71,6 +71,12 @@ public interface BrowserSession extends AutoCloseable {
 
   void setFocused(boolean focused);
 
+  /**
+   * Shows or hides the browser. Hidden browsers stop producing frames and throttle page timers
+   * until they are shown again. New sessions are visible.
+   */
+  void setVisible(boolean visible);
+
   void sendPointerInput(BrowserPointerInput input);
 
   void sendScrollInput(BrowserScrollInput input);
@@ -81,10 +87,14 @@ public interface BrowserSession extends AutoCloseable {
 
   /**
    * Returns the latest complete frame snapshot, or an empty value before the first paint and after
-   * session closure.
+   * session closure. The frame is retained for the caller, who should {@link
+   * BrowserFrame#release()} it when done so its pooled storage can be reused.
    */
   Optional<BrowserFrame> latestFrame();
 
+  /** Returns a snapshot of the pooled storage behind this session's frames. */
+  BrowserFrameMetrics frameMetrics();
+
   /**
    * Subscribes to frame snapshots delivered on the platform thread. Notifications are latest-only:
    * at most one is queued per session and intermediate frames may be coalesced. The returned
@@ -3,10 +3,13 @@ package io.github.trethore.graphene.api.config;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Configuration for a consumer-scoped HTTP asset mount. By default the shared server binds to
- * {@code 127.0.0.1} using an available port from {@code 20000} through {@code 21000}.
+ * {@code 127.0.0.1} using an available port from {@code 20000} through {@code 21000} and serves up
+ * to {@code 64} requests at once on virtual threads.
  */
 @SuppressWarnings("unused")
 public final class GrapheneHttpConfig {
@@ -14,12 +17,19 @@ public final class GrapheneHttpConfig {
   private static final int MIN_PORT = 1024;
   private static final int MAX_PORT = 65535;
   private static final String FILE_ROOT_NAME = "fileRoot";
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+  private static final int MAX_CONCURRENT_REQUESTS = 1024;
+  private static final String DEFAULT_CACHE_CONTROL = "no-cache";
 
   private final String bindHost;
   private final Integer fixedPort;
   private final PortRange randomPortRange;
   private final Path fileRoot;
   private final String spaFallback;
+  private final RequestExecution requestExecution;
+  private final int maxConcurrentRequests;
+  private final String cacheControl;
+  private final String immutableResourcePattern;
 
   private GrapheneHttpConfig(Builder builder) {
     this.bindHost = normalizeBindHost(builder.bindHost);
@@ -27,6 +37,10 @@ public final class GrapheneHttpConfig {
     this.randomPortRange = builder.randomPortRange;
     this.fileRoot = normalizeFileRoot(builder.fileRoot);
     this.spaFallback = normalizeSpaFallback(builder.spaFallback);
+    this.requestExecution = builder.requestExecution;
+    this.maxConcurrentRequests = builder.maxConcurrentRequests;
+    this.cacheControl = builder.cacheControl;
+    this.immutableResourcePattern = builder.immutableResourcePattern;
   }
 
   public static Builder builder() {
@@ -59,6 +73,33 @@ public final class GrapheneHttpConfig {
     return normalizedSpaFallback;
   }
 
+  private static String normalizeCacheControl(String cacheControl) {
+    String normalizedCacheControl = Objects.requireNonNull(cacheControl, "cacheControl").trim();
+    if (normalizedCacheControl.isBlank()) {
+      throw new IllegalArgumentException("cacheControl must not be blank");
+    }
+
+    for (int index = 0; index < normalizedCacheControl.length(); index++) {
+      if (Character.isISOControl(normalizedCacheControl.charAt(index))) {
+        throw new IllegalArgumentException("cacheControl must not contain control characters");
+      }
+    }
+
+    return normalizedCacheControl;
+  }
+
+  private static String requireValidPattern(String immutableResourcePattern) {
+    Objects.requireNonNull(immutableResourcePattern, "immutableResourcePattern");
+    try {
+      Pattern.compile(immutableResourcePattern);
+    } catch (PatternSyntaxException exception) {
+      throw new IllegalArgumentException(
+          "immutableResourcePattern is not a valid regular expression", exception);
+    }
+
+    return immutableResourcePattern;
+  }
+
   private static Path normalizeFileRoot(Path fileRoot) {
     if (fileRoot == null) {
       return null;
@@ -101,6 +142,22 @@ public final class GrapheneHttpConfig {
     return Optional.ofNullable(fileRoot);
   }
 
+  public RequestExecution requestExecution() {
+    return requestExecution;
+  }
+
+  public int maxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public String cacheControl() {
+    return cacheControl;
+  }
+
+  public Optional<String> immutableResourcePattern() {
+    return Optional.ofNullable(immutableResourcePattern);
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -115,12 +172,25 @@ public final class GrapheneHttpConfig {
         && Objects.equals(fixedPort, other.fixedPort)
         && Objects.equals(randomPortRange, other.randomPortRange)
         && Objects.equals(fileRoot, other.fileRoot)
-        && Objects.equals(spaFallback, other.spaFallback);
+        && Objects.equals(spaFallback, other.spaFallback)
+        && requestExecution == other.requestExecution
+        && maxConcurrentRequests == other.maxConcurrentRequests
+        && Objects.equals(cacheControl, other.cacheControl)
+        && Objects.equals(immutableResourcePattern, other.immutableResourcePattern);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(bindHost, fixedPort, randomPortRange, fileRoot, spaFallback);
+    return Objects.hash(
+        bindHost,
+        fixedPort,
+        randomPortRange,
+        fileRoot,
+        spaFallback,
+        requestExecution,
+        maxConcurrentRequests,
+        cacheControl,
+        immutableResourcePattern);
   }
 
   /** Builds consumer-scoped HTTP server configuration. */
@@ -130,6 +200,10 @@ public final class GrapheneHttpConfig {
     private PortRange randomPortRange = new PortRange(20_000, 21_000);
     private Path fileRoot;
     private String spaFallback;
+    private RequestExecution requestExecution = RequestExecution.VIRTUAL_THREADS;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private String cacheControl = DEFAULT_CACHE_CONTROL;
+    private String immutableResourcePattern;
 
     private Builder() {}
 
@@ -174,6 +248,50 @@ public final class GrapheneHttpConfig {
       return fileRoot(Path.of(Objects.requireNonNull(fileRoot, FILE_ROOT_NAME)));
     }
 
+    /** Selects the threads that serve requests on the shared server. */
+    public Builder requestExecution(RequestExecution requestExecution) {
+      this.requestExecution = Objects.requireNonNull(requestExecution, "requestExecution");
+      return this;
+    }
+
+    /**
+     * Limits how many requests the shared server handles at once, from {@code 1} through {@code
+     * 1024}. Further requests wait until a running one finishes.
+     */
+    public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+      if (maxConcurrentRequests < 1 || maxConcurrentRequests > MAX_CONCURRENT_REQUESTS) {
+        throw new IllegalArgumentException(
+            "maxConcurrentRequests must be between 1 and " + MAX_CONCURRENT_REQUESTS);
+      }
+
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Sets the {@code Cache-Control} value sent with this mount's resources. The default, {@code
+     * no-cache}, lets the browser keep a copy but revalidate it with a conditional request.
+     */
+    public Builder cacheControl(String cacheControl) {
+      this.cacheControl = normalizeCacheControl(cacheControl);
+      return this;
+    }
+
+    /**
+     * Marks mount-relative resource paths that fully match the regular expression as immutable, so
+     * they are cached for a year without revalidation. Use it for content-hashed bundle names such
+     * as {@code "assets/.+-[0-9a-zA-Z_-]{8}\\.(js|css)"}.
+     */
+    public Builder immutableResourcePattern(String immutableResourcePattern) {
+      this.immutableResourcePattern = requireValidPattern(immutableResourcePattern);
+      return this;
+    }
+
+    public Builder clearImmutableResourcePattern() {
+      this.immutableResourcePattern = null;
+      return this;
+    }
+
     public Builder clearFileRoot() {
       this.fileRoot = null;
       return this;
@@ -189,6 +307,14 @@ public final class GrapheneHttpConfig {
     }
   }
 
+  /** Threads on which the shared HTTP server handles requests. */
+  public enum RequestExecution {
+    /** Handles each request on its own virtual thread. */
+    VIRTUAL_THREADS,
+    /** Handles requests on a fixed pool with one platform thread per allowed concurrent request. */
+    THREAD_POOL
+  }
+
   /** Inclusive port range used for random HTTP server port selection. */
   public record PortRange(int minPort, int maxPort) {
     public PortRange {
@@ -0,0 +1,170 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tracks page-initiated streams by request id until they end or are cancelled. */
+final class GrapheneBridgeActiveStreams {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgeActiveStreams.class);
+
+  private final GrapheneBridgeMessageCodec codec;
+  private final GrapheneBridgeOutboundQueue outboundQueue;
+  private final GrapheneBridgeMetricsRecorder metrics;
+  private final Map<String, Stream> activeById = new ConcurrentHashMap<>();
+
+  GrapheneBridgeActiveStreams(
+      GrapheneBridgeMessageCodec codec,
+      GrapheneBridgeOutboundQueue outboundQueue,
+      GrapheneBridgeMetricsRecorder metrics) {
+    this.codec = Objects.requireNonNull(codec, "codec");
+    this.outboundQueue = Objects.requireNonNull(outboundQueue, "outboundQueue");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+  }
+
+  /** Registers a stream, or returns {@code null} when the id is already in use. */
+  GrapheneBridgeStreamSink open(String streamId, String channel) {
+    Stream stream = new Stream(streamId, channel);
+    if (activeById.putIfAbsent(streamId, stream) != null) {
+      return null;
+    }
+
+    LOGGER.debug(
+        "Opened bridge stream id={} channel={} activeCount={}",
+        streamId,
+        channel,
+        activeById.size());
+    return stream;
+  }
+
+  void cancel(String streamId) {
+    Stream stream = activeById.get(streamId);
+    if (stream != null) {
+      stream.cancel();
+    }
+  }
+
+  void cancelAll() {
+    List<Stream> streams = new ArrayList<>(activeById.values());
+    LOGGER.debug("Cancelling all bridge streams count={}", streams.size());
+    for (Stream stream : streams) {
+      stream.cancel();
+    }
+  }
+
+  private enum State {
+    OPEN,
+    ENDED,
+    CANCELLED
+  }
+
+  private final class Stream implements GrapheneBridgeStreamSink {
+    private final String streamId;
+    private final String channel;
+    private final AtomicReference<State> state = new AtomicReference<>(State.OPEN);
+    private final CopyOnWriteArrayList<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+
+    private Stream(String streamId, String channel) {
+      this.streamId = streamId;
+      this.channel = channel;
+    }
+
+    @Override
+    public void next(String chunkJson) {
+      String chunk = codec.requirePayloadJson(chunkJson);
+      if (state.get() != State.OPEN) {
+        return;
+      }
+
+      outboundQueue.queueOrDispatch(
+          codec.createOutboundPacketJson(
+              GrapheneBridgeProtocol.KIND_STREAM_NEXT, streamId, channel, chunk),
+          GrapheneBridgeOutboundQueue.Priority.STREAM);
+      metrics.recordOutbound(channel, chunk.length());
+    }
+
+    @Override
+    public void complete() {
+      if (end()) {
+        outboundQueue.queueOrDispatch(
+            codec.createStreamEndJson(streamId, channel),
+            GrapheneBridgeOutboundQueue.Priority.STREAM);
+        LOGGER.debug("Completed bridge stream id={} channel={}", streamId, channel);
+      }
+    }
+
+    @Override
+    public void error(Throwable failure) {
+      Objects.requireNonNull(failure, "failure");
+      if (end()) {
+        outboundQueue.queueOrDispatch(
+            codec.createStreamErrorJson(
+                streamId, channel, "java_handler_error", failure.getMessage()),
+            GrapheneBridgeOutboundQueue.Priority.STREAM);
+        LOGGER.debug(
+            "Failed bridge stream id={} channel={} message={}",
+            streamId,
+            channel,
+            failure.getMessage());
+      }
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return state.get() == State.CANCELLED;
+    }
+
+    @Override
+    public void onCancel(Runnable listener) {
+      Objects.requireNonNull(listener, "listener");
+      if (state.get() == State.ENDED) {
+        return;
+      }
+
+      cancelListeners.add(listener);
+      if (isCancelled() && cancelListeners.remove(listener)) {
+        runCancelListener(listener);
+      }
+    }
+
+    private boolean end() {
+      if (!state.compareAndSet(State.OPEN, State.ENDED)) {
+        return false;
+      }
+
+      activeById.remove(streamId, this);
+      cancelListeners.clear();
+      return true;
+    }
+
+    private void cancel() {
+      if (!state.compareAndSet(State.OPEN, State.CANCELLED)) {
+        return;
+      }
+
+      activeById.remove(streamId, this);
+      LOGGER.debug("Cancelled bridge stream id={} channel={}", streamId, channel);
+      for (Runnable listener : cancelListeners) {
+        if (cancelListeners.remove(listener)) {
+          runCancelListener(listener);
+        }
+      }
+    }
+
+    private void runCancelListener(Runnable listener) {
+      try {
+        listener.run();
+      } catch (RuntimeException exception) {
+        LOGGER.warn(
+            "Graphene bridge stream cancel listener failed for channel {}", channel, exception);
+      }
+    }
+  }
+}
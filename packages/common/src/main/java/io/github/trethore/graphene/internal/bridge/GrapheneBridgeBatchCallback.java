@@ -0,0 +1,68 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Answers a batched query once every packet in it has been answered. Each packet gets its own
+ * callback, and the query response lists the packet results in batch order so the page can settle
+ * each packet's promise individually. Batches only carry packets that are answered as soon as they
+ * are routed; requests are rejected inside a batch so no handler can hold the query open.
+ */
+final class GrapheneBridgeBatchCallback {
+  private final GrapheneBridgeMessageCodec codec;
+  private final BridgeQueryCallback callback;
+  private final AtomicReferenceArray<Result> results;
+  private final AtomicInteger remaining;
+
+  GrapheneBridgeBatchCallback(
+      GrapheneBridgeMessageCodec codec, BridgeQueryCallback callback, int packetCount) {
+    this.codec = Objects.requireNonNull(codec, "codec");
+    this.callback = Objects.requireNonNull(callback, "callback");
+    this.results = new AtomicReferenceArray<>(packetCount);
+    this.remaining = new AtomicInteger(packetCount);
+    if (packetCount == 0) {
+      callback.success(codec.createBatchResponseJson(List.of()));
+    }
+  }
+
+  BridgeQueryCallback packetCallback(int index) {
+    Objects.checkIndex(index, results.length());
+    return new BridgeQueryCallback() {
+      @Override
+      public void success(String response) {
+        complete(index, new Result(response, 0, null));
+      }
+
+      @Override
+      public void failure(int errorCode, String errorMessage) {
+        complete(index, new Result(null, errorCode, errorMessage));
+      }
+    };
+  }
+
+  private void complete(int index, Result result) {
+    if (!results.compareAndSet(index, null, result)) {
+      return;
+    }
+    if (remaining.decrementAndGet() != 0) {
+      return;
+    }
+
+    List<Result> orderedResults = new ArrayList<>(results.length());
+    for (int resultIndex = 0; resultIndex < results.length(); resultIndex++) {
+      orderedResults.add(results.get(resultIndex));
+    }
+    callback.success(codec.createBatchResponseJson(orderedResults));
+  }
+
+  /** A packet's query result: a success response, or a failure code and message. */
+  record Result(String response, int errorCode, String errorMessage) {
+    boolean ok() {
+      return errorMessage == null && errorCode == 0;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import io.github.trethore.graphene.internal.url.GrapheneAppUrls;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds binary bridge payloads until the page fetches them from the app scheme, so bytes reach
+ * JavaScript as an {@code ArrayBuffer} instead of being escaped into a script. Each payload is
+ * bound to the browser it was sent to, can be fetched once, and expires if the page never fetches
+ * it.
+ */
+public final class GrapheneBridgeBinaryStore {
+  static final String URL_PREFIX = GrapheneAppUrls.SCHEME + "://grapheneui/__bridge/binary/";
+  private static final long DEFAULT_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+  private static final long DEFAULT_MAX_STORED_BYTES = 256L * 1024 * 1024;
+  private static final int TOKEN_BYTES = 16;
+
+  private final Object lock = new Object();
+  private final Map<String, Entry> entriesByToken = new LinkedHashMap<>();
+  private final SecureRandom random = new SecureRandom();
+  private final LongSupplier nanoClock;
+  private final long expiryNanos;
+  private final long maxStoredBytes;
+  private long storedBytes;
+
+  public GrapheneBridgeBinaryStore() {
+    this(System::nanoTime, DEFAULT_EXPIRY_NANOS, DEFAULT_MAX_STORED_BYTES);
+  }
+
+  GrapheneBridgeBinaryStore(LongSupplier nanoClock, long expiryNanos, long maxStoredBytes) {
+    this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+    if (expiryNanos <= 0) {
+      throw new IllegalArgumentException("expiryNanos must be positive");
+    }
+    if (maxStoredBytes <= 0) {
+      throw new IllegalArgumentException("maxStoredBytes must be positive");
+    }
+    this.expiryNanos = expiryNanos;
+    this.maxStoredBytes = maxStoredBytes;
+  }
+
+  public static boolean isBinaryUrl(String url) {
+    return url != null && url.startsWith(URL_PREFIX);
+  }
+
+  /**
+   * Copies the remaining bytes of {@code payload} without moving its position and returns the URL
+   * the page fetches them from. The oldest payloads are evicted when the store is full.
+   */
+  String store(int browserIdentifier, ByteBuffer payload) {
+    Objects.requireNonNull(payload, "payload");
+    if (payload.remaining() > maxStoredBytes) {
+      throw new IllegalArgumentException("payload exceeds " + maxStoredBytes + " bytes");
+    }
+    byte[] bytes = new byte[payload.remaining()];
+    payload.duplicate().get(bytes);
+    byte[] tokenBytes = new byte[TOKEN_BYTES];
+    random.nextBytes(tokenBytes);
+    String token = HexFormat.of().formatHex(tokenBytes);
+
+    synchronized (lock) {
+      long now = nanoClock.getAsLong();
+      evictLocked(now, bytes.length);
+      entriesByToken.put(token, new Entry(browserIdentifier, bytes, now + expiryNanos));
+      storedBytes += bytes.length;
+    }
+    return URL_PREFIX + token;
+  }
+
+  /** Removes and returns the payload behind {@code url}, or {@code null} for other browsers. */
+  public byte[] take(int browserIdentifier, String url) {
+    if (!isBinaryUrl(url)) {
+      return null;
+    }
+    String token = url.substring(URL_PREFIX.length());
+    synchronized (lock) {
+      Entry entry = entriesByToken.get(token);
+      if (entry == null || entry.browserIdentifier() != browserIdentifier) {
+        return null;
+      }
+      entriesByToken.remove(token);
+      storedBytes -= entry.bytes().length;
+      return nanoClock.getAsLong() - entry.expiresAtNanos() > 0 ? null : entry.bytes();
+    }
+  }
+
+  /** Drops every payload sent to a browser, for example when its bridge closes. */
+  void discard(int browserIdentifier) {
+    synchronized (lock) {
+      Iterator<Entry> entries = entriesByToken.values().iterator();
+      while (entries.hasNext()) {
+        Entry entry = entries.next();
+        if (entry.browserIdentifier() == browserIdentifier) {
+          storedBytes -= entry.bytes().length;
+          entries.remove();
+        }
+      }
+    }
+  }
+
+  private void evictLocked(long now, int incomingBytes) {
+    Iterator<Entry> entries = entriesByToken.values().iterator();
+    while (entries.hasNext()) {
+      Entry entry = entries.next();
+      boolean expired = now - entry.expiresAtNanos() > 0;
+      if (!expired && storedBytes + incomingBytes <= maxStoredBytes) {
+        return;
+      }
+      storedBytes -= entry.bytes().length;
+      entries.remove();
+    }
+  }
+
+  private record Entry(int browserIdentifier, byte[] bytes, long expiresAtNanos) {}
+}
@@ -1,14 +1,18 @@
 package io.github.trethore.graphene.internal.bridge;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
 import io.github.trethore.graphene.api.GrapheneSubscription;
 import io.github.trethore.graphene.api.bridge.GrapheneBridge;
 import io.github.trethore.graphene.api.bridge.GrapheneBridgeEventListener;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeExecution;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeMetrics;
 import io.github.trethore.graphene.api.bridge.GrapheneBridgeRequestHandler;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamHandler;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeWritabilityListener;
 import io.github.trethore.graphene.api.browser.bridge.BrowserBridgeOrigin;
 import io.github.trethore.graphene.api.browser.bridge.BrowserBridgePolicy;
 import io.github.trethore.graphene.internal.platform.GrapheneTaskExecutor;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
@@ -27,7 +31,12 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   private static final String CHANNEL_NAME = "channel";
   private static final String CLIPBOARD_PASTE_FUNCTION = "__grapheneClipboardPasteFromHost";
   private static final int MAX_QUEUED_OUTBOUND_MESSAGES = 1024;
+  private static final long MAX_QUEUED_OUTBOUND_CHARS = 8L * 1024 * 1024;
+  private static final int MAX_OUTBOUND_BATCH_MESSAGES = 256;
+  private static final int MAX_OUTBOUND_BATCH_CHARS = 512 * 1024;
   private static final String LISTENER_NAME = "listener";
+  private static final String EXECUTION_NAME = "execution";
+  private static final String PAYLOAD_NAME = "payload";
   private static final String TIMEOUT_NAME = "timeout";
   private static final long BOOTSTRAP_FALLBACK_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
 
@@ -40,6 +49,8 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   private final GrapheneBridgeOutboundQueue outboundQueue;
   private final GrapheneBridgeRequestLifecycle requestLifecycle;
   private final GrapheneBridgeInboundRouter inboundRouter;
+  private final GrapheneBridgeBinaryStore binaryStore;
+  private final GrapheneBridgeMetricsRecorder metrics = new GrapheneBridgeMetricsRecorder();
   private final GrapheneBridgeClipboardAccess clipboardAccess = new GrapheneBridgeClipboardAccess();
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final AtomicLong documentGeneration = new AtomicLong();
@@ -49,11 +60,26 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   private String readyUrl;
   private volatile ExposureState exposureState = ExposureState.PENDING;
   private volatile boolean hasEverBeenReady;
+  private boolean notifiedWritable = true;
 
   GrapheneBridgeEndpoint(
       BridgeBrowser browser,
       GrapheneTaskExecutor taskExecutor,
       GrapheneBridgeExposureConfig exposureConfig) {
+    this(
+        browser,
+        new GrapheneBridgeExecutors(taskExecutor),
+        new GrapheneBridgeBinaryStore(),
+        exposureConfig);
+  }
+
+  GrapheneBridgeEndpoint(
+      BridgeBrowser browser,
+      GrapheneBridgeExecutors executors,
+      GrapheneBridgeBinaryStore binaryStore,
+      GrapheneBridgeExposureConfig exposureConfig) {
+    this.binaryStore = Objects.requireNonNull(binaryStore, "binaryStore");
+    GrapheneTaskExecutor taskExecutor = Objects.requireNonNull(executors, "executors").mainThread();
     this.browser = Objects.requireNonNull(browser, "browser");
     GrapheneBridgeExposureConfig validatedExposureConfig =
         Objects.requireNonNull(exposureConfig, "exposureConfig");
@@ -65,10 +91,17 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     this.codec = new GrapheneBridgeMessageCodec(new Gson());
     this.handlers = new GrapheneBridgeHandlerRegistry();
     this.outboundQueue =
-        new GrapheneBridgeOutboundQueue(this::dispatchToDom, MAX_QUEUED_OUTBOUND_MESSAGES);
-    this.requestLifecycle = new GrapheneBridgeRequestLifecycle(codec, outboundQueue);
+        new GrapheneBridgeOutboundQueue(
+            this::dispatchToDom,
+            taskExecutor::defer,
+            MAX_QUEUED_OUTBOUND_MESSAGES,
+            MAX_QUEUED_OUTBOUND_CHARS,
+            MAX_OUTBOUND_BATCH_MESSAGES,
+            MAX_OUTBOUND_BATCH_CHARS,
+            ignored -> taskExecutor.execute(this::notifyWritabilityChanged));
+    this.requestLifecycle = new GrapheneBridgeRequestLifecycle(codec, outboundQueue, metrics);
     this.inboundRouter =
-        new GrapheneBridgeInboundRouter(codec, handlers, requestLifecycle, taskExecutor);
+        new GrapheneBridgeInboundRouter(codec, handlers, requestLifecycle, executors, metrics);
 
     LOGGER.debug(
         "Created bridge endpoint browserId={} maxQueuedMessages={} defaultTimeoutMs={}",
@@ -82,6 +115,24 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     return exposureState == ExposureState.ALLOWED && outboundQueue.isReady() && !closed.get();
   }
 
+  @Override
+  public boolean isWritable() {
+    return outboundQueue.isWritable();
+  }
+
+  @Override
+  public GrapheneSubscription onWritabilityChanged(GrapheneBridgeWritabilityListener listener) {
+    Objects.requireNonNull(listener, LISTENER_NAME);
+    ensureOpen();
+    return handlers.onWritabilityChanged(listener);
+  }
+
+  @Override
+  public GrapheneBridgeMetrics metrics() {
+    return metrics.snapshot(
+        outboundQueue.queuedMessageCount(), outboundQueue.droppedMessageCount());
+  }
+
   @Override
   public GrapheneSubscription onReady(Runnable listener) {
     Objects.requireNonNull(listener, LISTENER_NAME);
@@ -90,18 +141,48 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   }
 
   @Override
-  public GrapheneSubscription onEvent(String channel, GrapheneBridgeEventListener listener) {
-    return onEventValidated(validateConsumerChannel(channel), listener);
+  public GrapheneSubscription onEvent(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeEventListener listener) {
+    return onEventValidated(validateConsumerChannel(channel), execution, listener);
   }
 
   @Override
-  public GrapheneSubscription onRequest(String channel, GrapheneBridgeRequestHandler handler) {
-    return onRequestValidated(validateConsumerChannel(channel), handler);
+  public GrapheneSubscription onLatestEvent(String channel, GrapheneBridgeEventListener listener) {
+    String validatedChannel = validateConsumerChannel(channel);
+    Objects.requireNonNull(listener, LISTENER_NAME);
+    ensureOpen();
+    return handlers.onLatestEvent(validatedChannel, listener);
+  }
+
+  @Override
+  public GrapheneSubscription onRequest(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeRequestHandler handler) {
+    return onRequestValidated(validateConsumerChannel(channel), execution, handler);
+  }
+
+  @Override
+  public GrapheneSubscription onStream(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeStreamHandler handler) {
+    String validatedChannel = validateConsumerChannel(channel);
+    Objects.requireNonNull(execution, EXECUTION_NAME);
+    Objects.requireNonNull(handler, "handler");
+    ensureOpen();
+    return handlers.onStream(validatedChannel, execution, handler);
   }
 
   @Override
   public void emit(String channel, String payloadJson) {
-    emitValidated(validateConsumerChannel(channel), payloadJson);
+    emitValidated(validateConsumerChannel(channel), payloadJson, EmitMode.QUEUE);
+  }
+
+  @Override
+  public boolean offer(String channel, String payloadJson) {
+    return emitValidated(validateConsumerChannel(channel), payloadJson, EmitMode.OFFER);
+  }
+
+  @Override
+  public void emitLatest(String channel, String payloadJson) {
+    emitValidated(validateConsumerChannel(channel), payloadJson, EmitMode.LATEST);
   }
 
   @Override
@@ -121,6 +202,42 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     return requestLifecycle.request(validatedChannel, payloadJson, validatedTimeout);
   }
 
+  @Override
+  public void emitBinary(String channel, ByteBuffer payload) {
+    String validatedChannel = validateConsumerChannel(channel);
+    Objects.requireNonNull(payload, PAYLOAD_NAME);
+    ensureOpen();
+    ensureOutboundAvailable();
+
+    String binaryUrl = binaryStore.store(browserIdentifier(), payload);
+    outboundQueue.queueOrDispatch(
+        codec.createOutboundPacketJson(
+            GrapheneBridgeProtocol.KIND_EVENT, null, validatedChannel, "null", binaryUrl));
+    metrics.recordOutbound(validatedChannel, payload.remaining());
+    LOGGER.debug(
+        "Queued binary bridge event channel={} payloadSize={}",
+        validatedChannel,
+        payload.remaining());
+  }
+
+  @Override
+  public CompletableFuture<String> requestBinary(
+      String channel, ByteBuffer payload, Duration timeout) {
+    String validatedChannel = validateConsumerChannel(channel);
+    Objects.requireNonNull(payload, PAYLOAD_NAME);
+    Duration validatedTimeout = validateTimeout(timeout);
+    ensureOpen();
+    ensureOutboundAvailable();
+
+    String binaryUrl = binaryStore.store(browserIdentifier(), payload);
+    LOGGER.debug(
+        "Queued binary bridge request channel={} timeoutMs={} payloadSize={}",
+        validatedChannel,
+        validatedTimeout.toMillis(),
+        payload.remaining());
+    return requestLifecycle.request(validatedChannel, null, binaryUrl, validatedTimeout);
+  }
+
   public void onNavigationRequested() {
     if (closed.get()) {
       return;
@@ -215,6 +332,7 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     outboundQueue.clear();
     requestLifecycle.failAllForClose();
     handlers.clear();
+    binaryStore.discard(browserIdentifier());
     LOGGER.debug("Closed bridge endpoint browserId={}", browserIdentifier());
   }
 
@@ -282,15 +400,17 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   }
 
   GrapheneSubscription onInternalEvent(String channel, GrapheneBridgeEventListener listener) {
-    return onEventValidated(validateInternalChannel(channel), listener);
+    return onEventValidated(
+        validateInternalChannel(channel), GrapheneBridgeExecution.MAIN_THREAD, listener);
   }
 
   GrapheneSubscription onInternalRequest(String channel, GrapheneBridgeRequestHandler handler) {
-    return onRequestValidated(validateInternalChannel(channel), handler);
+    return onRequestValidated(
+        validateInternalChannel(channel), GrapheneBridgeExecution.MAIN_THREAD, handler);
   }
 
   void emitInternal(String channel, String payloadJson) {
-    emitValidated(validateInternalChannel(channel), payloadJson);
+    emitValidated(validateInternalChannel(channel), payloadJson, EmitMode.QUEUE);
   }
 
   void authorizeClipboardWrite() {
@@ -299,11 +419,10 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   }
 
   void pasteClipboard(String payloadJson) {
-    JsonElement payload = codec.parsePayloadJson(payloadJson);
+    String payload = codec.requirePayloadJson(payloadJson);
     ensureOpen();
     browser.executeScript(
-        "globalThis." + CLIPBOARD_PASTE_FUNCTION + "?.(" + codec.payloadToJson(payload) + ");",
-        currentUrl());
+        "globalThis." + CLIPBOARD_PASTE_FUNCTION + "?.(" + payload + ");", currentUrl());
   }
 
   private void onBridgeReady(long readyDocumentGeneration, String documentUrl) {
@@ -329,32 +448,67 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
   }
 
   private GrapheneSubscription onEventValidated(
-      String validatedChannel, GrapheneBridgeEventListener listener) {
+      String validatedChannel,
+      GrapheneBridgeExecution execution,
+      GrapheneBridgeEventListener listener) {
+    Objects.requireNonNull(execution, EXECUTION_NAME);
     Objects.requireNonNull(listener, LISTENER_NAME);
     ensureOpen();
-    return handlers.onEvent(validatedChannel, listener);
+    return handlers.onEvent(validatedChannel, execution, listener);
   }
 
   private GrapheneSubscription onRequestValidated(
-      String validatedChannel, GrapheneBridgeRequestHandler handler) {
+      String validatedChannel,
+      GrapheneBridgeExecution execution,
+      GrapheneBridgeRequestHandler handler) {
+    Objects.requireNonNull(execution, EXECUTION_NAME);
     Objects.requireNonNull(handler, "handler");
     ensureOpen();
-    return handlers.onRequest(validatedChannel, handler);
+    return handlers.onRequest(validatedChannel, execution, handler);
   }
 
-  private void emitValidated(String validatedChannel, String payloadJson) {
-    JsonElement payload = codec.parsePayloadJson(payloadJson);
+  private boolean emitValidated(String validatedChannel, String payloadJson, EmitMode mode) {
+    String payload = codec.requirePayloadJson(payloadJson);
     ensureOpen();
     ensureOutboundAvailable();
 
     String outboundJson =
         codec.createOutboundPacketJson(
             GrapheneBridgeProtocol.KIND_EVENT, null, validatedChannel, payload);
-    outboundQueue.queueOrDispatch(outboundJson);
+    if (mode == EmitMode.OFFER) {
+      if (!outboundQueue.offer(outboundJson)) {
+        LOGGER.debug("Rejected offered bridge event channel={}", validatedChannel);
+        return false;
+      }
+    } else {
+      // Platform channels share the control lane with requests so bulk events cannot starve them.
+      GrapheneBridgeOutboundQueue.Priority priority =
+          validatedChannel.startsWith(GrapheneBridge.RESERVED_CHANNEL_PREFIX)
+              ? GrapheneBridgeOutboundQueue.Priority.CONTROL
+              : GrapheneBridgeOutboundQueue.Priority.BULK;
+      outboundQueue.queueOrDispatch(
+          outboundJson, mode == EmitMode.LATEST ? validatedChannel : null, priority);
+    }
+    metrics.recordOutbound(validatedChannel, payload.length());
     if (LOGGER.isDebugEnabled()) {
-      int payloadSize = payloadJson == null ? 0 : payloadJson.length();
-      LOGGER.debug("Queued bridge event channel={} payloadSize={}", validatedChannel, payloadSize);
+      LOGGER.debug(
+          "Queued bridge event channel={} mode={} payloadSize={}",
+          validatedChannel,
+          mode,
+          payload.length());
     }
+    return true;
+  }
+
+  /** Runs on the main thread and reports the queue's current writability once per change. */
+  private void notifyWritabilityChanged() {
+    boolean writable = outboundQueue.isWritable();
+    if (writable == notifiedWritable || closed.get()) {
+      return;
+    }
+
+    notifiedWritable = writable;
+    handlers.notifyWritabilityChanged(writable);
   }
 
   private void injectBootstrapScript(String scriptUrl) {
@@ -400,14 +554,23 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     return new DocumentIdentity(documentGeneration.get(), documentUrl);
   }
 
-  private void dispatchToDom(String outboundPacketJson) {
+  private void dispatchToDom(List<String> outboundPacketJsons) {
     String documentUrl = currentUrl();
     if (exposureState != ExposureState.ALLOWED) {
       denyDocument(documentUrl);
       throw new IllegalStateException("Bridge is unavailable for the current document");
     }
-    String script =
-        "window.__grapheneBridgeReceiveFromJava(" + codec.quoteJsString(outboundPacketJson) + ");";
+    String script;
+    if (outboundPacketJsons.size() == 1) {
+      script =
+          "window.__grapheneBridgeReceiveFromJava("
+              + codec.quoteJsString(outboundPacketJsons.getFirst())
+              + ");";
+    } else {
+      String batchJson = "[" + String.join(",", outboundPacketJsons) + "]";
+      script =
+          "window.__grapheneBridgeReceiveBatchFromJava(" + codec.quoteJsString(batchJson) + ");";
+    }
     browser.executeScript(script, documentUrl);
   }
 
@@ -511,6 +674,12 @@ final class GrapheneBridgeEndpoint implements GrapheneBridge {
     }
   }
 
+  private enum EmitMode {
+    QUEUE,
+    LATEST,
+    OFFER
+  }
+
   private enum ExposureState {
     PENDING,
     ALLOWED,
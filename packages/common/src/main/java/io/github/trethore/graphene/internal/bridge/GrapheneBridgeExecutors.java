@@ -0,0 +1,122 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeExecution;
+import io.github.trethore.graphene.internal.platform.GrapheneTaskExecutor;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the executor for each {@link GrapheneBridgeExecution}. The worker pool and the
+ * virtual-thread executor are created on first use, shared by every endpoint of a runtime, and
+ * recreated on demand after {@link #shutdown()}.
+ */
+final class GrapheneBridgeExecutors {
+  private static final int MIN_WORKERS = 2;
+  private static final int MAX_WORKERS = 8;
+  private static final int WORKER_QUEUE_CAPACITY = 1024;
+  private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+  private final Object lock = new Object();
+  private final GrapheneTaskExecutor mainThreadExecutor;
+  private ExecutorService workerPool;
+  private ExecutorService virtualThreads;
+
+  GrapheneBridgeExecutors(GrapheneTaskExecutor mainThreadExecutor) {
+    this.mainThreadExecutor = Objects.requireNonNull(mainThreadExecutor, "mainThreadExecutor");
+  }
+
+  GrapheneTaskExecutor mainThread() {
+    return mainThreadExecutor;
+  }
+
+  GrapheneTaskExecutor executor(GrapheneBridgeExecution execution) {
+    return switch (Objects.requireNonNull(execution, "execution")) {
+      case MAIN_THREAD -> mainThreadExecutor;
+      case WORKER_POOL -> new ServiceTaskExecutor(workerPool());
+      case VIRTUAL_THREAD -> new ServiceTaskExecutor(virtualThreads());
+    };
+  }
+
+  void shutdown() {
+    synchronized (lock) {
+      if (workerPool != null) {
+        workerPool.shutdown();
+        workerPool = null;
+      }
+      if (virtualThreads != null) {
+        virtualThreads.shutdown();
+        virtualThreads = null;
+      }
+    }
+  }
+
+  private ExecutorService workerPool() {
+    synchronized (lock) {
+      if (workerPool == null) {
+        int workers =
+            Math.clamp(Runtime.getRuntime().availableProcessors() / 2, MIN_WORKERS, MAX_WORKERS);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool =
+            new ThreadPoolExecutor(
+                workers,
+                workers,
+                WORKER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY),
+                runnable -> {
+                  Thread thread =
+                      new Thread(
+                          runnable, "Graphene Bridge Worker " + threadNumber.incrementAndGet());
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        workerPool = pool;
+      }
+      return workerPool;
+    }
+  }
+
+  private ExecutorService virtualThreads() {
+    synchronized (lock) {
+      if (virtualThreads == null) {
+        virtualThreads =
+            Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("Graphene Bridge Virtual ", 1).factory());
+      }
+      return virtualThreads;
+    }
+  }
+
+  private record ServiceTaskExecutor(ExecutorService service) implements GrapheneTaskExecutor {
+    @Override
+    public void execute(Runnable action) {
+      service.execute(action);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      try {
+        service.execute(
+            () -> {
+              try {
+                future.complete(action.get());
+              } catch (RuntimeException exception) {
+                future.completeExceptionally(exception);
+              }
+            });
+      } catch (RuntimeException exception) {
+        future.completeExceptionally(exception);
+      }
+      return future;
+    }
+  }
+}
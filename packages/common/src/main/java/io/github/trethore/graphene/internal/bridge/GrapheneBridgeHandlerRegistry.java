@@ -2,10 +2,15 @@ package io.github.trethore.graphene.internal.bridge;
 
 import io.github.trethore.graphene.api.GrapheneSubscription;
 import io.github.trethore.graphene.api.bridge.GrapheneBridgeEventListener;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeExecution;
 import io.github.trethore.graphene.api.bridge.GrapheneBridgeRequestHandler;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamHandler;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeWritabilityListener;
 import io.github.trethore.graphene.internal.event.GrapheneSubscriptions;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import org.slf4j.Logger;
@@ -14,11 +19,17 @@ import org.slf4j.LoggerFactory;
 final class GrapheneBridgeHandlerRegistry {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgeHandlerRegistry.class);
 
-  private final Map<String, CopyOnWriteArrayList<GrapheneBridgeEventListener>>
-      eventListenersByChannel = new ConcurrentHashMap<>();
-  private final Map<String, GrapheneBridgeRequestHandler> requestHandlersByChannel =
+  private final Map<String, CopyOnWriteArrayList<EventRegistration>> eventListenersByChannel =
       new ConcurrentHashMap<>();
+  private final Map<String, CopyOnWriteArrayList<EventRegistration>> latestEventListenersByChannel =
+      new ConcurrentHashMap<>();
+  private final Map<String, String> pendingLatestPayloadsByChannel = new ConcurrentHashMap<>();
+  private final Map<String, RequestRegistration> requestHandlersByChannel =
+      new ConcurrentHashMap<>();
+  private final Map<String, StreamRegistration> streamHandlersByChannel = new ConcurrentHashMap<>();
   private final CopyOnWriteArrayList<Runnable> readyListeners = new CopyOnWriteArrayList<>();
+  private final CopyOnWriteArrayList<GrapheneBridgeWritabilityListener> writabilityListeners =
+      new CopyOnWriteArrayList<>();
 
   GrapheneSubscription onReady(Runnable listener, boolean ready) {
     readyListeners.add(listener);
@@ -31,43 +42,126 @@ final class GrapheneBridgeHandlerRegistry {
     return GrapheneSubscriptions.create(() -> readyListeners.remove(listener));
   }
 
-  GrapheneSubscription onEvent(String channel, GrapheneBridgeEventListener listener) {
-    CopyOnWriteArrayList<GrapheneBridgeEventListener> listeners =
-        eventListenersByChannel.computeIfAbsent(channel, ignored -> new CopyOnWriteArrayList<>());
-    listeners.add(listener);
-    LOGGER.debug(
-        "Registered bridge event listener channel={} totalForChannel={}",
+  GrapheneSubscription onWritabilityChanged(GrapheneBridgeWritabilityListener listener) {
+    writabilityListeners.add(listener);
+    LOGGER.debug("Registered bridge writability listener total={}", writabilityListeners.size());
+    return GrapheneSubscriptions.create(() -> writabilityListeners.remove(listener));
+  }
+
+  GrapheneSubscription onEvent(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeEventListener listener) {
+    return addEventListener(
+        eventListenersByChannel, channel, new EventRegistration(listener, execution), false);
+  }
+
+  GrapheneSubscription onLatestEvent(String channel, GrapheneBridgeEventListener listener) {
+    return addEventListener(
+        latestEventListenersByChannel,
         channel,
-        listeners.size());
-    return GrapheneSubscriptions.create(() -> removeEventListener(channel, listener));
+        new EventRegistration(listener, GrapheneBridgeExecution.MAIN_THREAD),
+        true);
   }
 
-  GrapheneSubscription onRequest(String channel, GrapheneBridgeRequestHandler handler) {
-    GrapheneBridgeRequestHandler previousHandler = requestHandlersByChannel.put(channel, handler);
-    if (previousHandler != null && previousHandler != handler) {
+  GrapheneSubscription onRequest(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeRequestHandler handler) {
+    RequestRegistration registration = new RequestRegistration(handler, execution);
+    RequestRegistration previousRegistration = requestHandlersByChannel.put(channel, registration);
+    if (previousRegistration != null && previousRegistration.handler() != handler) {
       LOGGER.warn("Replacing existing Graphene bridge request handler for channel {}", channel);
     }
 
     LOGGER.debug(
-        "Registered bridge request handler channel={} replaced={}",
+        "Registered bridge request handler channel={} execution={} replaced={}",
         channel,
-        previousHandler != null);
-    return GrapheneSubscriptions.create(() -> requestHandlersByChannel.remove(channel, handler));
+        execution,
+        previousRegistration != null);
+    return GrapheneSubscriptions.create(
+        () -> requestHandlersByChannel.remove(channel, registration));
   }
 
-  GrapheneBridgeRequestHandler requestHandler(String channel) {
+  RequestRegistration requestHandler(String channel) {
     return requestHandlersByChannel.get(channel);
   }
 
-  void dispatchEvent(String channel, String payloadJson) {
-    List<GrapheneBridgeEventListener> listeners = eventListenersByChannel.get(channel);
-    if (listeners == null || listeners.isEmpty()) {
+  GrapheneSubscription onStream(
+      String channel, GrapheneBridgeExecution execution, GrapheneBridgeStreamHandler handler) {
+    StreamRegistration registration = new StreamRegistration(handler, execution);
+    StreamRegistration previousRegistration = streamHandlersByChannel.put(channel, registration);
+    if (previousRegistration != null && previousRegistration.handler() != handler) {
+      LOGGER.warn("Replacing existing Graphene bridge stream handler for channel {}", channel);
+    }
+
+    LOGGER.debug(
+        "Registered bridge stream handler channel={} execution={} replaced={}",
+        channel,
+        execution,
+        previousRegistration != null);
+    return GrapheneSubscriptions.create(
+        () -> streamHandlersByChannel.remove(channel, registration));
+  }
+
+  StreamRegistration streamHandler(String channel) {
+    return streamHandlersByChannel.get(channel);
+  }
+
+  /** Returns the executions that have event listeners on the channel, each needing a dispatch. */
+  Set<GrapheneBridgeExecution> eventExecutions(String channel) {
+    Set<GrapheneBridgeExecution> executions = EnumSet.noneOf(GrapheneBridgeExecution.class);
+    List<EventRegistration> registrations = eventListenersByChannel.get(channel);
+    if (registrations != null) {
+      for (EventRegistration registration : registrations) {
+        executions.add(registration.execution());
+      }
+    }
+    return executions;
+  }
+
+  /**
+   * Records the newest payload for the channel's latest-event listeners. Returns {@code true} when
+   * no earlier payload is still pending, meaning the caller must schedule {@link
+   * #dispatchLatestEvent(String)}; otherwise the pending payload was replaced.
+   */
+  boolean offerLatestEvent(String channel, String payloadJson) {
+    if (!latestEventListenersByChannel.containsKey(channel)) {
+      return false;
+    }
+
+    return pendingLatestPayloadsByChannel.put(channel, payloadJson) == null;
+  }
+
+  void dispatchLatestEvent(String channel) {
+    String payloadJson = pendingLatestPayloadsByChannel.remove(channel);
+    if (payloadJson != null) {
+      notifyEventListeners(
+          latestEventListenersByChannel.get(channel),
+          GrapheneBridgeExecution.MAIN_THREAD,
+          channel,
+          payloadJson);
+    }
+  }
+
+  /** Notifies the channel's event listeners registered with {@code execution}. */
+  void dispatchEvent(String channel, GrapheneBridgeExecution execution, String payloadJson) {
+    notifyEventListeners(eventListenersByChannel.get(channel), execution, channel, payloadJson);
+  }
+
+  private void notifyEventListeners(
+      List<EventRegistration> registrations,
+      GrapheneBridgeExecution execution,
+      String channel,
+      String payloadJson) {
+    if (registrations == null || registrations.isEmpty()) {
       return;
     }
 
-    for (GrapheneBridgeEventListener listener : listeners) {
+    int notifiedListeners = 0;
+    for (EventRegistration registration : registrations) {
+      if (registration.execution() != execution) {
+        continue;
+      }
+      notifiedListeners++;
       try {
-        listener.onEvent(channel, payloadJson);
+        registration.listener().onEvent(channel, payloadJson);
       } catch (RuntimeException exception) {
         LOGGER.warn("Graphene bridge event listener failed for channel {}", channel, exception);
       }
@@ -76,9 +170,10 @@ final class GrapheneBridgeHandlerRegistry {
     if (LOGGER.isDebugEnabled()) {
       int payloadSize = payloadJson == null ? 0 : payloadJson.length();
       LOGGER.debug(
-          "Dispatched bridge event channel={} listeners={} payloadSize={}",
+          "Dispatched bridge event channel={} execution={} listeners={} payloadSize={}",
           channel,
-          listeners.size(),
+          execution,
+          notifiedListeners,
           payloadSize);
     }
   }
@@ -91,22 +186,61 @@ final class GrapheneBridgeHandlerRegistry {
     }
   }
 
+  void notifyWritabilityChanged(boolean writable) {
+    LOGGER.debug(
+        "Notifying {} bridge writability listener(s) writable={}",
+        writabilityListeners.size(),
+        writable);
+
+    for (GrapheneBridgeWritabilityListener listener : writabilityListeners) {
+      try {
+        listener.onWritabilityChanged(writable);
+      } catch (RuntimeException exception) {
+        LOGGER.warn("Graphene bridge writability listener failed", exception);
+      }
+    }
+  }
+
   void clear() {
     eventListenersByChannel.clear();
+    latestEventListenersByChannel.clear();
+    pendingLatestPayloadsByChannel.clear();
     requestHandlersByChannel.clear();
+    streamHandlersByChannel.clear();
     readyListeners.clear();
+    writabilityListeners.clear();
   }
 
-  private void removeEventListener(String channel, GrapheneBridgeEventListener listener) {
-    CopyOnWriteArrayList<GrapheneBridgeEventListener> listeners =
-        eventListenersByChannel.get(channel);
+  private static GrapheneSubscription addEventListener(
+      Map<String, CopyOnWriteArrayList<EventRegistration>> listenersByChannel,
+      String channel,
+      EventRegistration registration,
+      boolean latest) {
+    CopyOnWriteArrayList<EventRegistration> listeners =
+        listenersByChannel.computeIfAbsent(channel, ignored -> new CopyOnWriteArrayList<>());
+    listeners.add(registration);
+    LOGGER.debug(
+        "Registered bridge event listener channel={} execution={} latest={} totalForChannel={}",
+        channel,
+        registration.execution(),
+        latest,
+        listeners.size());
+    return GrapheneSubscriptions.create(
+        () -> removeEventListener(listenersByChannel, channel, registration));
+  }
+
+  private static void removeEventListener(
+      Map<String, CopyOnWriteArrayList<EventRegistration>> listenersByChannel,
+      String channel,
+      EventRegistration registration) {
+    CopyOnWriteArrayList<EventRegistration> listeners = listenersByChannel.get(channel);
     if (listeners == null) {
       return;
     }
 
-    listeners.remove(listener);
+    listeners.remove(registration);
     if (listeners.isEmpty()) {
-      eventListenersByChannel.remove(channel, listeners);
+      listenersByChannel.remove(channel, listeners);
     }
   }
 
@@ -117,4 +251,13 @@ final class GrapheneBridgeHandlerRegistry {
       LOGGER.warn("Graphene bridge ready listener failed", exception);
     }
   }
+
+  record EventRegistration(
+      GrapheneBridgeEventListener listener, GrapheneBridgeExecution execution) {}
+
+  record RequestRegistration(
+      GrapheneBridgeRequestHandler handler, GrapheneBridgeExecution execution) {}
+
+  record StreamRegistration(
+      GrapheneBridgeStreamHandler handler, GrapheneBridgeExecution execution) {}
 }
@@ -1,9 +1,8 @@
 package io.github.trethore.graphene.internal.bridge;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import io.github.trethore.graphene.api.bridge.GrapheneBridgeRequestHandler;
-import io.github.trethore.graphene.internal.platform.GrapheneTaskExecutor;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeExecution;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamSink;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -16,21 +15,31 @@ final class GrapheneBridgeInboundRouter {
   private final GrapheneBridgeMessageCodec codec;
   private final GrapheneBridgeHandlerRegistry handlers;
   private final GrapheneBridgeRequestLifecycle requestLifecycle;
-  private final GrapheneTaskExecutor taskExecutor;
+  private final GrapheneBridgeExecutors executors;
+  private final GrapheneBridgeMetricsRecorder metrics;
 
   GrapheneBridgeInboundRouter(
       GrapheneBridgeMessageCodec codec,
       GrapheneBridgeHandlerRegistry handlers,
       GrapheneBridgeRequestLifecycle requestLifecycle,
-      GrapheneTaskExecutor taskExecutor) {
+      GrapheneBridgeExecutors executors,
+      GrapheneBridgeMetricsRecorder metrics) {
     this.codec = Objects.requireNonNull(codec, "codec");
     this.handlers = Objects.requireNonNull(handlers, "handlers");
     this.requestLifecycle = Objects.requireNonNull(requestLifecycle, "requestLifecycle");
-    this.taskExecutor = Objects.requireNonNull(taskExecutor, "taskExecutor");
+    this.executors = Objects.requireNonNull(executors, "executors");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
   }
 
   boolean route(String requestJson, BridgeQueryCallback callback, Runnable onReady) {
-    Runnable validatedOnReady = Objects.requireNonNull(onReady, "onReady");
+    return route(requestJson, callback, Objects.requireNonNull(onReady, "onReady"), false);
+  }
+
+  private boolean route(
+      String requestJson,
+      BridgeQueryCallback callback,
+      Runnable validatedOnReady,
+      boolean insideBatch) {
     GrapheneBridgePacket packet = codec.parsePacket(requestJson);
     if (packet == null) {
       if (LOGGER.isDebugEnabled()) {
@@ -52,17 +61,42 @@ final class GrapheneBridgeInboundRouter {
       callback.failure(400, "Bridge message is missing kind");
       return true;
     }
+    if (packet.channel != null) {
+      metrics.recordInbound(packet.channel, packet.payloadJson.length());
+    }
 
     switch (packet.kind) {
       case GrapheneBridgeProtocol.KIND_READY -> {
         callback.success(GrapheneBridgeProtocol.EMPTY_RESPONSE_JSON);
-        taskExecutor.execute(validatedOnReady);
+        executors.mainThread().execute(validatedOnReady);
       }
       case GrapheneBridgeProtocol.KIND_EVENT -> handleEvent(packet, callback);
-      case GrapheneBridgeProtocol.KIND_REQUEST -> handleRequest(packet, callback);
+      case GrapheneBridgeProtocol.KIND_REQUEST -> {
+        // A batch is answered once all of its packets are, so a request handler that never
+        // completes would stall every other packet sent with it.
+        if (insideBatch) {
+          callback.failure(400, "Bridge requests must be sent on their own query");
+        } else {
+          handleRequest(packet, callback);
+        }
+      }
       case GrapheneBridgeProtocol.KIND_RESPONSE -> {
         callback.success(GrapheneBridgeProtocol.EMPTY_RESPONSE_JSON);
-        taskExecutor.execute(() -> requestLifecycle.handleResponse(packet));
+        executors.mainThread().execute(() -> requestLifecycle.handleResponse(packet));
+      }
+      case GrapheneBridgeProtocol.KIND_STREAM -> handleStream(packet, callback);
+      case GrapheneBridgeProtocol.KIND_STREAM_CANCEL -> {
+        callback.success(GrapheneBridgeProtocol.EMPTY_RESPONSE_JSON);
+        if (packet.id != null) {
+          executors.mainThread().execute(() -> requestLifecycle.cancelStream(packet.id));
+        }
+      }
+      case GrapheneBridgeProtocol.KIND_BATCH -> {
+        if (!insideBatch) {
+          handleBatch(packet, callback, validatedOnReady);
+        } else {
+          callback.failure(400, "Bridge batches cannot be nested");
+        }
       }
       default -> callback.failure(400, "Unknown bridge message kind: " + packet.kind);
     }
@@ -70,6 +104,27 @@ final class GrapheneBridgeInboundRouter {
     return true;
   }
 
+  private void handleBatch(
+      GrapheneBridgePacket packet, BridgeQueryCallback callback, Runnable validatedOnReady) {
+    List<String> packetJsons;
+    try {
+      packetJsons = GrapheneBridgePacketReader.readArrayElements(packet.payloadJson);
+    } catch (IllegalArgumentException exception) {
+      callback.failure(400, "Bridge batch payload must be an array of packets");
+      return;
+    }
+
+    LOGGER.debug("Routing inbound bridge batch packets={}", packetJsons.size());
+    GrapheneBridgeBatchCallback batchCallback =
+        new GrapheneBridgeBatchCallback(codec, callback, packetJsons.size());
+    for (int index = 0; index < packetJsons.size(); index++) {
+      BridgeQueryCallback packetCallback = batchCallback.packetCallback(index);
+      if (!route(packetJsons.get(index), packetCallback, validatedOnReady, true)) {
+        packetCallback.failure(400, "Invalid bridge packet in batch");
+      }
+    }
+  }
+
   private void handleEvent(GrapheneBridgePacket packet, BridgeQueryCallback callback) {
     if (packet.channel == null || packet.channel.isBlank()) {
       callback.failure(400, "Bridge event is missing channel");
@@ -77,7 +132,7 @@ final class GrapheneBridgeInboundRouter {
     }
 
     callback.success(GrapheneBridgeProtocol.EMPTY_RESPONSE_JSON);
-    String payloadJson = codec.payloadToJson(packet.payload);
+    String payloadJson = packet.payloadJson;
     if (LOGGER.isDebugEnabled()) {
       int payloadSize = payloadJson == null ? 0 : payloadJson.length();
       LOGGER.debug(
@@ -85,10 +140,26 @@ final class GrapheneBridgeInboundRouter {
           packet.channel,
           payloadSize);
     }
-    taskExecutor.execute(() -> handlers.dispatchEvent(packet.channel, payloadJson));
+    for (GrapheneBridgeExecution execution : handlers.eventExecutions(packet.channel)) {
+      try {
+        executors
+            .executor(execution)
+            .execute(() -> handlers.dispatchEvent(packet.channel, execution, payloadJson));
+      } catch (RuntimeException exception) {
+        LOGGER.warn(
+            "Dropped bridge event channel={} execution={} because it could not be scheduled",
+            packet.channel,
+            execution,
+            exception);
+      }
+    }
+    if (handlers.offerLatestEvent(packet.channel, payloadJson)) {
+      executors.mainThread().execute(() -> handlers.dispatchLatestEvent(packet.channel));
+    }
   }
 
-  private void handleRequest(GrapheneBridgePacket packet, BridgeQueryCallback callback) {
+  private void handleRequest(GrapheneBridgePacket packet, BridgeQueryCallback requestCallback) {
+    BridgeQueryCallback callback = timed(packet.channel, requestCallback);
     if (packet.id == null || packet.id.isBlank()) {
       callback.success(
           codec.createErrorResponseJson(
@@ -103,8 +174,9 @@ final class GrapheneBridgeInboundRouter {
       return;
     }
 
-    GrapheneBridgeRequestHandler requestHandler = handlers.requestHandler(packet.channel);
-    if (requestHandler == null) {
+    GrapheneBridgeHandlerRegistry.RequestRegistration registration =
+        handlers.requestHandler(packet.channel);
+    if (registration == null) {
       callback.success(
           codec.createErrorResponseJson(
               packet.id,
@@ -114,7 +186,7 @@ final class GrapheneBridgeInboundRouter {
       return;
     }
 
-    String requestPayloadJson = codec.payloadToJson(packet.payload);
+    String requestPayloadJson = packet.payloadJson;
     if (LOGGER.isDebugEnabled()) {
       int payloadSize = requestPayloadJson == null ? 0 : requestPayloadJson.length();
       LOGGER.debug(
@@ -123,25 +195,93 @@ final class GrapheneBridgeInboundRouter {
           packet.channel,
           payloadSize);
     }
-    taskExecutor
-        .supply(() -> requestHandler.handle(packet.channel, requestPayloadJson))
-        .whenComplete(
-            (responseFuture, throwable) -> {
-              if (throwable != null) {
-                Throwable rootCause = unwrap(throwable);
-                LOGGER.debug(
-                    "Bridge request handler failed id={} channel={} message={}",
-                    packet.id,
-                    packet.channel,
-                    rootCause.getMessage());
-                callback.success(
-                    codec.createErrorResponseJson(
-                        packet.id, packet.channel, "java_handler_error", rootCause.getMessage()));
-                return;
-              }
-
-              handleRequestResponse(packet, callback, responseFuture);
-            });
+    CompletableFuture<CompletableFuture<String>> handlerResult;
+    try {
+      handlerResult =
+          executors
+              .executor(registration.execution())
+              .supply(() -> registration.handler().handle(packet.channel, requestPayloadJson));
+    } catch (RuntimeException exception) {
+      handlerResult = CompletableFuture.failedFuture(exception);
+    }
+    handlerResult.whenComplete(
+        (responseFuture, throwable) -> {
+          if (throwable != null) {
+            Throwable rootCause = unwrap(throwable);
+            LOGGER.debug(
+                "Bridge request handler failed id={} channel={} message={}",
+                packet.id,
+                packet.channel,
+                rootCause.getMessage());
+            callback.success(
+                codec.createErrorResponseJson(
+                    packet.id, packet.channel, "java_handler_error", rootCause.getMessage()));
+            return;
+          }
+
+          handleRequestResponse(packet, callback, responseFuture);
+        });
+  }
+
+  private void handleStream(GrapheneBridgePacket packet, BridgeQueryCallback callback) {
+    if (packet.id == null || packet.id.isBlank()) {
+      callback.success(
+          codec.createErrorResponseJson(
+              null, packet.channel, "invalid_request", "Bridge stream is missing id"));
+      return;
+    }
+
+    if (packet.channel == null || packet.channel.isBlank()) {
+      callback.success(
+          codec.createErrorResponseJson(
+              packet.id, null, "invalid_request", "Bridge stream is missing channel"));
+      return;
+    }
+
+    GrapheneBridgeHandlerRegistry.StreamRegistration registration =
+        handlers.streamHandler(packet.channel);
+    if (registration == null) {
+      callback.success(
+          codec.createErrorResponseJson(
+              packet.id,
+              packet.channel,
+              "handler_not_found",
+              "No Java bridge stream handler for channel '" + packet.channel + "'"));
+      return;
+    }
+
+    GrapheneBridgeStreamSink sink = requestLifecycle.openStream(packet.id, packet.channel);
+    if (sink == null) {
+      callback.success(
+          codec.createErrorResponseJson(
+              packet.id, packet.channel, "invalid_request", "Bridge stream id is already open"));
+      return;
+    }
+
+    callback.success(GrapheneBridgeProtocol.EMPTY_RESPONSE_JSON);
+    LOGGER.debug("Dispatching inbound bridge stream id={} channel={}", packet.id, packet.channel);
+    String requestPayloadJson = packet.payloadJson;
+    try {
+      executors
+          .executor(registration.execution())
+          .execute(() -> runStreamHandler(registration, packet.channel, requestPayloadJson, sink));
+    } catch (RuntimeException exception) {
+      sink.error(exception);
+    }
+  }
+
+  private void runStreamHandler(
+      GrapheneBridgeHandlerRegistry.StreamRegistration registration,
+      String channel,
+      String payloadJson,
+      GrapheneBridgeStreamSink sink) {
+    try {
+      registration.handler().handle(channel, payloadJson, sink);
+    } catch (RuntimeException exception) {
+      LOGGER.debug(
+          "Bridge stream handler failed channel={} message={}", channel, exception.getMessage());
+      sink.error(exception);
+    }
   }
 
   private void handleRequestResponse(
@@ -149,8 +289,7 @@ final class GrapheneBridgeInboundRouter {
       BridgeQueryCallback callback,
       CompletableFuture<String> responseFuture) {
     if (responseFuture == null) {
-      callback.success(
-          codec.createSuccessResponseJson(packet.id, packet.channel, JsonNull.INSTANCE));
+      callback.success(codec.createSuccessResponseJson(packet.id, packet.channel, "null"));
       LOGGER.debug(
           "Bridge request completed with null response future id={} channel={}",
           packet.id,
@@ -173,9 +312,9 @@ final class GrapheneBridgeInboundRouter {
             return;
           }
 
-          JsonElement responsePayload;
+          String responsePayload;
           try {
-            responsePayload = codec.parsePayloadJson(responsePayloadJson);
+            responsePayload = codec.requirePayloadJson(responsePayloadJson);
           } catch (IllegalArgumentException exception) {
             callback.success(
                 codec.createErrorResponseJson(
@@ -196,6 +335,24 @@ final class GrapheneBridgeInboundRouter {
         });
   }
 
+  /** Wraps a request callback so the time until it is answered is recorded for the channel. */
+  private BridgeQueryCallback timed(String channel, BridgeQueryCallback callback) {
+    long startNanos = System.nanoTime();
+    return new BridgeQueryCallback() {
+      @Override
+      public void success(String response) {
+        metrics.recordHandled(channel, System.nanoTime() - startNanos);
+        callback.success(response);
+      }
+
+      @Override
+      public void failure(int errorCode, String errorMessage) {
+        metrics.recordHandled(channel, System.nanoTime() - startNanos);
+        callback.failure(errorCode, errorMessage);
+      }
+    };
+  }
+
   private Throwable unwrap(Throwable throwable) {
     if (throwable instanceof CompletionException completionException
         && completionException.getCause() != null) {
@@ -0,0 +1,79 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeLatency;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of nanosecond durations. Each power of two is split into eight
+ * linear buckets, which bounds the relative error of a reported percentile to an eighth while
+ * keeping recording to one atomic increment.
+ */
+final class GrapheneBridgeLatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  void record(long nanos) {
+    long value = Math.max(0L, nanos);
+    counts.incrementAndGet(bucketIndex(value));
+    maxNanos.accumulateAndGet(value, Math::max);
+  }
+
+  GrapheneBridgeLatency snapshot() {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      snapshot[index] = counts.get(index);
+      total += snapshot[index];
+    }
+    if (total == 0) {
+      return GrapheneBridgeLatency.EMPTY;
+    }
+
+    long max = maxNanos.get();
+    return new GrapheneBridgeLatency(
+        total,
+        percentile(snapshot, total, 0.50, max),
+        percentile(snapshot, total, 0.90, max),
+        percentile(snapshot, total, 0.99, max),
+        Duration.ofNanos(max));
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** Returns the largest value that falls into the bucket. */
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return lowerBound + width - 1;
+  }
+
+  private static Duration percentile(long[] snapshot, long total, double fraction, long max) {
+    long rank = Math.max(1L, (long) Math.ceil(total * fraction));
+    long seen = 0;
+    for (int index = 0; index < snapshot.length; index++) {
+      seen += snapshot[index];
+      if (seen >= rank) {
+        return Duration.ofNanos(Math.min(bucketUpperBound(index), max));
+      }
+    }
+    return Duration.ofNanos(max);
+  }
+}
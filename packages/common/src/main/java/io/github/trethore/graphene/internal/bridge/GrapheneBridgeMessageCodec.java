@@ -1,11 +1,13 @@
 package io.github.trethore.graphene.internal.bridge;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +16,8 @@ final class GrapheneBridgeMessageCodec {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgeMessageCodec.class);
   private static final String FIELD_BRIDGE = "bridge";
   private static final String FIELD_PAYLOAD = "payload";
+  private static final String NULL_JSON = "null";
+  private static final int ENVELOPE_CAPACITY = 128;
   private final Gson gson;
 
   GrapheneBridgeMessageCodec(Gson gson) {
@@ -26,13 +30,7 @@ final class GrapheneBridgeMessageCodec {
     }
 
     try {
-      JsonObject jsonObject = JsonParser.parseString(requestJson).getAsJsonObject();
-      JsonElement bridgeElement = jsonObject.get(FIELD_BRIDGE);
-      if (bridgeElement == null || !bridgeElement.isJsonPrimitive()) {
-        return null;
-      }
-
-      GrapheneBridgePacket packet = gson.fromJson(jsonObject, GrapheneBridgePacket.class);
+      GrapheneBridgePacket packet = GrapheneBridgePacketReader.read(requestJson);
       if (!GrapheneBridgeProtocol.NAME.equals(packet.bridge)) {
         return null;
       }
@@ -48,71 +46,160 @@ final class GrapheneBridgeMessageCodec {
     }
   }
 
-  JsonElement parsePayloadJson(String payloadJson) {
-    String value = payloadJson == null ? "null" : payloadJson;
+  /**
+   * Returns payload JSON that can be spliced into an outbound packet. Strict JSON is returned
+   * unchanged after a validating scan; lenient input is normalized through Gson as before.
+   */
+  String requirePayloadJson(String payloadJson) {
+    if (payloadJson == null) {
+      return NULL_JSON;
+    }
+    if (GrapheneBridgePacketReader.isJsonValue(payloadJson)) {
+      return payloadJson;
+    }
     try {
-      return JsonParser.parseString(value);
+      return gson.toJson(JsonParser.parseString(payloadJson));
     } catch (JsonSyntaxException exception) {
       throw new IllegalArgumentException("payloadJson must be a valid JSON value", exception);
     }
   }
 
-  String payloadToJson(JsonElement payload) {
-    if (payload == null || payload.isJsonNull()) {
-      return "null";
-    }
-
-    return gson.toJson(payload);
+  String createOutboundPacketJson(String kind, String id, String channel, String payloadJson) {
+    return createOutboundPacketJson(kind, id, channel, payloadJson, null);
   }
 
-  String createOutboundPacketJson(String kind, String id, String channel, JsonElement payload) {
-    JsonObject packet = new JsonObject();
-    packet.addProperty(FIELD_BRIDGE, GrapheneBridgeProtocol.NAME);
-    packet.addProperty("version", GrapheneBridgeProtocol.VERSION);
-    packet.addProperty("kind", kind);
-    if (id != null) {
-      packet.addProperty("id", id);
-    }
-    packet.addProperty("channel", channel);
-    packet.add(FIELD_PAYLOAD, payload == null ? JsonNull.INSTANCE : payload);
-    return gson.toJson(packet);
+  /**
+   * Creates an outbound packet. A non-null {@code binaryUrl} tells the page to fetch the payload as
+   * an {@code ArrayBuffer} from that URL instead of reading the JSON payload.
+   */
+  String createOutboundPacketJson(
+      String kind, String id, String channel, String payloadJson, String binaryUrl) {
+    return writeJson(
+        payloadJson.length(),
+        writer -> {
+          writer.beginObject();
+          writer.name(FIELD_BRIDGE).value(GrapheneBridgeProtocol.NAME);
+          writer.name("version").value(GrapheneBridgeProtocol.VERSION);
+          writer.name("kind").value(kind);
+          writer.name("id").value(id);
+          writer.name("channel").value(channel);
+          writePayload(writer, payloadJson);
+          writer.name("binary").value(binaryUrl);
+          writer.endObject();
+        });
   }
 
-  String createSuccessResponseJson(String requestId, String channel, JsonElement payload) {
-    JsonObject response = createResponseBase(requestId, channel);
-    response.addProperty("ok", true);
-    response.add(FIELD_PAYLOAD, payload == null ? JsonNull.INSTANCE : payload);
-    return gson.toJson(response);
+  String createSuccessResponseJson(String requestId, String channel, String payloadJson) {
+    return writeJson(
+        payloadJson.length(),
+        writer -> {
+          writeResponseBase(writer, GrapheneBridgeProtocol.KIND_RESPONSE, requestId, channel);
+          writer.name("ok").value(true);
+          writePayload(writer, payloadJson);
+          writer.endObject();
+        });
   }
 
   String createErrorResponseJson(
       String requestId, String channel, String errorCode, String errorMessage) {
-    JsonObject response = createResponseBase(requestId, channel);
-    response.addProperty("ok", false);
-    response.add(FIELD_PAYLOAD, JsonNull.INSTANCE);
+    return createErrorJson(
+        GrapheneBridgeProtocol.KIND_RESPONSE, requestId, channel, errorCode, errorMessage);
+  }
+
+  String createStreamEndJson(String streamId, String channel) {
+    return writeJson(
+        0,
+        writer -> {
+          writeResponseBase(writer, GrapheneBridgeProtocol.KIND_STREAM_END, streamId, channel);
+          writer.name("ok").value(true);
+          writer.endObject();
+        });
+  }
 
-    JsonObject error = new JsonObject();
-    error.addProperty("code", errorCode == null ? "bridge_error" : errorCode);
-    error.addProperty("message", errorMessage == null ? "Bridge request failed" : errorMessage);
-    response.add("error", error);
-    return gson.toJson(response);
+  String createStreamErrorJson(
+      String streamId, String channel, String errorCode, String errorMessage) {
+    return createErrorJson(
+        GrapheneBridgeProtocol.KIND_STREAM_END, streamId, channel, errorCode, errorMessage);
+  }
+
+  private static String createErrorJson(
+      String kind, String id, String channel, String errorCode, String errorMessage) {
+    return writeJson(
+        0,
+        writer -> {
+          writeResponseBase(writer, kind, id, channel);
+          writer.name("ok").value(false);
+          writer.name("error").beginObject();
+          writer.name("code").value(errorCode == null ? "bridge_error" : errorCode);
+          writer
+              .name("message")
+              .value(errorMessage == null ? "Bridge request failed" : errorMessage);
+          writer.endObject();
+          writer.endObject();
+        });
+  }
+
+  String createBatchResponseJson(List<GrapheneBridgeBatchCallback.Result> results) {
+    int responseLength = 0;
+    for (GrapheneBridgeBatchCallback.Result result : results) {
+      responseLength += result.response() == null ? 0 : result.response().length();
+    }
+    return writeJson(
+        responseLength,
+        writer -> {
+          writer.beginArray();
+          for (GrapheneBridgeBatchCallback.Result result : results) {
+            writer.beginObject();
+            writer.name("ok").value(result.ok());
+            if (result.ok()) {
+              writer.name("response").value(result.response());
+            } else {
+              writer.name("code").value(result.errorCode());
+              writer.name("message").value(result.errorMessage());
+            }
+            writer.endObject();
+          }
+          writer.endArray();
+        });
   }
 
   String quoteJsString(String value) {
     return gson.toJson(value);
   }
 
-  private JsonObject createResponseBase(String requestId, String channel) {
-    JsonObject response = new JsonObject();
-    response.addProperty(FIELD_BRIDGE, GrapheneBridgeProtocol.NAME);
-    response.addProperty("version", GrapheneBridgeProtocol.VERSION);
-    response.addProperty("kind", GrapheneBridgeProtocol.KIND_RESPONSE);
-    if (requestId != null) {
-      response.addProperty("id", requestId);
+  private static void writeResponseBase(
+      JsonWriter writer, String kind, String requestId, String channel) throws IOException {
+    writer.beginObject();
+    writer.name(FIELD_BRIDGE).value(GrapheneBridgeProtocol.NAME);
+    writer.name("version").value(GrapheneBridgeProtocol.VERSION);
+    writer.name("kind").value(kind);
+    writer.name("id").value(requestId);
+    writer.name("channel").value(channel);
+  }
+
+  /** Splices already validated payload JSON verbatim; null payloads are omitted like before. */
+  private static void writePayload(JsonWriter writer, String payloadJson) throws IOException {
+    if (NULL_JSON.equals(payloadJson)) {
+      writer.name(FIELD_PAYLOAD).nullValue();
+      return;
     }
-    if (channel != null) {
-      response.addProperty("channel", channel);
+    writer.name(FIELD_PAYLOAD).jsonValue(payloadJson);
+  }
+
+  private static String writeJson(int payloadLength, JsonWriterAction action) {
+    StringWriter output = new StringWriter(ENVELOPE_CAPACITY + payloadLength);
+    try (JsonWriter writer = new JsonWriter(output)) {
+      writer.setHtmlSafe(true);
+      writer.setSerializeNulls(false);
+      action.write(writer);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
     }
-    return response;
+    return output.toString();
+  }
+
+  @FunctionalInterface
+  private interface JsonWriterAction {
+    void write(JsonWriter writer) throws IOException;
   }
 }
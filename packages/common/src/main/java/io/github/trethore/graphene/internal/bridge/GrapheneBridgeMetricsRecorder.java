@@ -0,0 +1,104 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeChannelMetrics;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeMetrics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-channel bridge counters built from striped adders and lock-free histograms, cheap enough to
+ * stay enabled. Pages choose channel names, so only the first channels seen get their own entry.
+ */
+final class GrapheneBridgeMetricsRecorder {
+  private static final int MAX_TRACKED_CHANNELS = 256;
+
+  private final Map<String, ChannelCounters> countersByChannel = new ConcurrentHashMap<>();
+  private final ChannelCounters otherChannels = new ChannelCounters();
+
+  void recordInbound(String channel, int payloadSize) {
+    ChannelCounters counters = counters(channel);
+    counters.inboundMessages.increment();
+    counters.inboundPayloadSize.add(payloadSize);
+  }
+
+  void recordOutbound(String channel, int payloadSize) {
+    ChannelCounters counters = counters(channel);
+    counters.outboundMessages.increment();
+    counters.outboundPayloadSize.add(payloadSize);
+  }
+
+  /** Records a finished Java-to-page request; {@code failure} is {@code null} on success. */
+  void recordRequest(String channel, long elapsedNanos, Throwable failure) {
+    ChannelCounters counters = counters(channel);
+    counters.requestLatency.record(elapsedNanos);
+    if (failure == null) {
+      return;
+    }
+
+    counters.requestFailures.increment();
+    Throwable cause =
+        failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause()
+            : failure;
+    if (cause instanceof TimeoutException) {
+      counters.requestTimeouts.increment();
+    }
+  }
+
+  void recordHandled(String channel, long elapsedNanos) {
+    counters(channel).handlerLatency.record(elapsedNanos);
+  }
+
+  GrapheneBridgeMetrics snapshot(int queuedOutboundMessages, long droppedOutboundMessages) {
+    Map<String, GrapheneBridgeChannelMetrics> channels = new HashMap<>();
+    countersByChannel.forEach((channel, counters) -> channels.put(channel, counters.snapshot()));
+    if (otherChannels.inboundMessages.sum() > 0 || otherChannels.outboundMessages.sum() > 0) {
+      channels.put(GrapheneBridgeMetrics.OTHER_CHANNELS, otherChannels.snapshot());
+    }
+    return new GrapheneBridgeMetrics(queuedOutboundMessages, droppedOutboundMessages, channels);
+  }
+
+  private ChannelCounters counters(String channel) {
+    if (channel == null) {
+      return otherChannels;
+    }
+
+    ChannelCounters counters = countersByChannel.get(channel);
+    if (counters != null) {
+      return counters;
+    }
+    if (countersByChannel.size() >= MAX_TRACKED_CHANNELS) {
+      return otherChannels;
+    }
+    return countersByChannel.computeIfAbsent(channel, ignored -> new ChannelCounters());
+  }
+
+  private static final class ChannelCounters {
+    private final LongAdder inboundMessages = new LongAdder();
+    private final LongAdder inboundPayloadSize = new LongAdder();
+    private final LongAdder outboundMessages = new LongAdder();
+    private final LongAdder outboundPayloadSize = new LongAdder();
+    private final LongAdder requestFailures = new LongAdder();
+    private final LongAdder requestTimeouts = new LongAdder();
+    private final GrapheneBridgeLatencyHistogram requestLatency =
+        new GrapheneBridgeLatencyHistogram();
+    private final GrapheneBridgeLatencyHistogram handlerLatency =
+        new GrapheneBridgeLatencyHistogram();
+
+    private GrapheneBridgeChannelMetrics snapshot() {
+      return new GrapheneBridgeChannelMetrics(
+          inboundMessages.sum(),
+          inboundPayloadSize.sum(),
+          outboundMessages.sum(),
+          outboundPayloadSize.sum(),
+          requestFailures.sum(),
+          requestTimeouts.sum(),
+          requestLatency.snapshot(),
+          handlerLatency.snapshot());
+    }
+  }
+}
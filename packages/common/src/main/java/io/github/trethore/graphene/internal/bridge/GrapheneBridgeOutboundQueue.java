@@ -2,27 +2,107 @@ package io.github.trethore.graphene.internal.bridge;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Holds outbound packets until the page is ready and then delivers them in batches. Packets
+ * accepted while ready are coalesced until the flush executor runs, so every packet emitted during
+ * a tick reaches the page through a single dispatch; batches that grow past the size limits are
+ * dispatched immediately. Packets queued with a conflation key replace the pending packet with the
+ * same key in place, so only the newest value of a state channel is delivered.
+ *
+ * <p>Control packets are drained ahead of stream packets, which are drained ahead of bulk packets.
+ * When the message or character budget is exceeded, the oldest bulk packet is dropped first and
+ * control packets only displace older control packets. Stream packets are never dropped, so a
+ * page's stream iterator neither loses chunks nor misses its end; they only displace bulk packets
+ * and may take the queue past its budget. The queue stops being writable above three quarters of
+ * either budget and becomes writable again below half, so producers can throttle before anything is
+ * dropped.
+ *
+ * <p>Batches are drained under the queue lock but dispatched after it is released, so producers on
+ * worker or virtual threads never wait on the page's script execution. Drained batches are handed
+ * to whichever thread is already dispatching, which keeps them in drain order.
+ */
 final class GrapheneBridgeOutboundQueue {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgeOutboundQueue.class);
 
+  private static final Priority[] DRAIN_ORDER = Priority.values();
+
   private final Object lock = new Object();
-  private final ArrayDeque<String> queuedMessages = new ArrayDeque<>();
-  private final Consumer<String> dispatcher;
+  private final ArrayDeque<OutboundMessage> controlMessages = new ArrayDeque<>();
+  private final ArrayDeque<OutboundMessage> streamMessages = new ArrayDeque<>();
+  private final ArrayDeque<OutboundMessage> bulkMessages = new ArrayDeque<>();
+  private final Map<String, OutboundMessage> queuedMessagesByConflationKey = new HashMap<>();
+  private final ArrayDeque<List<String>> drainedBatches = new ArrayDeque<>();
+  private final Consumer<List<String>> dispatcher;
+  private final Executor flushExecutor;
   private final int maxQueuedMessages;
+  private final long maxQueuedChars;
+  private final int maxBatchMessages;
+  private final int maxBatchChars;
+  private final Consumer<Boolean> writabilityListener;
   private State state = State.NOT_READY;
+  private long queuedChars;
+  private long droppedMessages;
+  private boolean flushScheduled;
+  private boolean dispatching;
+  private boolean writable = true;
+
+  GrapheneBridgeOutboundQueue(
+      Consumer<List<String>> dispatcher,
+      Executor flushExecutor,
+      int maxQueuedMessages,
+      int maxBatchMessages,
+      int maxBatchChars) {
+    this(
+        dispatcher,
+        flushExecutor,
+        maxQueuedMessages,
+        Long.MAX_VALUE,
+        maxBatchMessages,
+        maxBatchChars,
+        ignored -> {});
+  }
 
-  GrapheneBridgeOutboundQueue(Consumer<String> dispatcher, int maxQueuedMessages) {
+  /**
+   * @param writabilityListener notified outside the queue lock whenever {@link #isWritable()}
+   *     changes
+   */
+  GrapheneBridgeOutboundQueue(
+      Consumer<List<String>> dispatcher,
+      Executor flushExecutor,
+      int maxQueuedMessages,
+      long maxQueuedChars,
+      int maxBatchMessages,
+      int maxBatchChars,
+      Consumer<Boolean> writabilityListener) {
     this.dispatcher = Objects.requireNonNull(dispatcher, "dispatcher");
+    this.flushExecutor = Objects.requireNonNull(flushExecutor, "flushExecutor");
+    this.writabilityListener = Objects.requireNonNull(writabilityListener, "writabilityListener");
     if (maxQueuedMessages < 1) {
       throw new IllegalArgumentException("maxQueuedMessages must be >= 1");
     }
+    if (maxQueuedChars < 1) {
+      throw new IllegalArgumentException("maxQueuedChars must be >= 1");
+    }
+    if (maxBatchMessages < 1 || maxBatchMessages > maxQueuedMessages) {
+      throw new IllegalArgumentException(
+          "maxBatchMessages must be between 1 and maxQueuedMessages");
+    }
+    if (maxBatchChars < 1) {
+      throw new IllegalArgumentException("maxBatchChars must be >= 1");
+    }
     this.maxQueuedMessages = maxQueuedMessages;
+    this.maxQueuedChars = maxQueuedChars;
+    this.maxBatchMessages = maxBatchMessages;
+    this.maxBatchChars = maxBatchChars;
   }
 
   boolean isReady() {
@@ -34,90 +114,374 @@ final class GrapheneBridgeOutboundQueue {
   void markNotReady() {
     synchronized (lock) {
       state = State.NOT_READY;
-      LOGGER.debug("Bridge outbound queue marked NOT_READY queued={}", queuedMessages.size());
+      LOGGER.debug("Bridge outbound queue marked NOT_READY queued={}", queuedCountLocked());
     }
   }
 
   void markReadyAndFlush() {
     while (true) {
-      List<String> messagesToDispatch;
+      int messageCount = 0;
+      int batchCount = 0;
       synchronized (lock) {
         if (state == State.READY) {
           return;
         }
 
         state = State.FLUSHING;
-        if (queuedMessages.isEmpty()) {
+        if (queuedCountLocked() == 0) {
           state = State.READY;
           return;
         }
 
-        messagesToDispatch = drainQueuedMessagesLocked();
-      }
-
-      for (String message : messagesToDispatch) {
-        try {
-          dispatcher.accept(message);
-        } catch (RuntimeException exception) {
-          LOGGER.warn("Failed to dispatch queued Graphene bridge message", exception);
+        while (queuedCountLocked() > 0) {
+          List<String> batch = drainBatchLocked();
+          drainedBatches.addLast(batch);
+          messageCount += batch.size();
+          batchCount++;
         }
       }
+      notifyWritabilityChange();
+      dispatchDrainedBatches();
 
-      LOGGER.debug("Flushed {} queued bridge outbound message(s)", messagesToDispatch.size());
+      LOGGER.debug(
+          "Flushed {} queued bridge outbound message(s) in {} batch(es)", messageCount, batchCount);
     }
   }
 
   void queueOrDispatch(String outboundPacketJson) {
+    queueOrDispatch(outboundPacketJson, null, Priority.BULK);
+  }
+
+  void queueOrDispatch(String outboundPacketJson, Priority priority) {
+    queueOrDispatch(outboundPacketJson, null, priority);
+  }
+
+  void queueOrDispatch(String outboundPacketJson, String conflationKey) {
+    queueOrDispatch(outboundPacketJson, conflationKey, Priority.BULK);
+  }
+
+  /**
+   * Queues a packet for the next flush. A non-null {@code conflationKey} replaces an unsent packet
+   * queued under the same key instead of appending a new one.
+   */
+  void queueOrDispatch(String outboundPacketJson, String conflationKey, Priority priority) {
     Objects.requireNonNull(outboundPacketJson, "outboundPacketJson");
+    Objects.requireNonNull(priority, "priority");
+    boolean scheduleFlush;
+    synchronized (lock) {
+      scheduleFlush = queueLocked(outboundPacketJson, conflationKey, priority);
+    }
+    afterQueued(scheduleFlush);
+  }
 
+  /**
+   * Queues a bulk packet only while the queue is writable. Returns {@code false}, leaving the queue
+   * unchanged, when the producer should back off instead.
+   */
+  boolean offer(String outboundPacketJson) {
+    Objects.requireNonNull(outboundPacketJson, "outboundPacketJson");
+    boolean scheduleFlush;
     synchronized (lock) {
-      if (state != State.READY) {
-        queueMessageLocked(outboundPacketJson);
-        LOGGER.debug(
-            "Queued bridge outbound message size={} queued={}",
-            outboundPacketJson.length(),
-            queuedMessages.size());
+      if (!writable) {
+        return false;
+      }
+      scheduleFlush = queueLocked(outboundPacketJson, null, Priority.BULK);
+    }
+    afterQueued(scheduleFlush);
+    return true;
+  }
+
+  boolean isWritable() {
+    synchronized (lock) {
+      return writable;
+    }
+  }
+
+  /** Queues a packet and returns whether the caller must schedule a flush after unlocking. */
+  private boolean queueLocked(String outboundPacketJson, String conflationKey, Priority priority) {
+    if (conflationKey == null || !replaceQueuedMessageLocked(conflationKey, outboundPacketJson)) {
+      queueMessageLocked(new OutboundMessage(outboundPacketJson, conflationKey, priority));
+    }
+    if (state != State.READY) {
+      LOGGER.debug(
+          "Queued bridge outbound message size={} priority={} queued={}",
+          outboundPacketJson.length(),
+          priority,
+          queuedCountLocked());
+      return false;
+    }
+
+    if (queuedCountLocked() >= maxBatchMessages || queuedChars >= maxBatchChars) {
+      drainedBatches.addLast(drainBatchLocked());
+    }
+    if (queuedCountLocked() > 0 && !flushScheduled) {
+      flushScheduled = true;
+      return true;
+    }
+    return false;
+  }
+
+  private void afterQueued(boolean scheduleFlush) {
+    if (scheduleFlush) {
+      scheduleFlush();
+    }
+    dispatchDrainedBatches();
+    notifyWritabilityChange();
+  }
+
+  int queuedMessageCount() {
+    synchronized (lock) {
+      return queuedCountLocked();
+    }
+  }
+
+  long droppedMessageCount() {
+    synchronized (lock) {
+      return droppedMessages;
+    }
+  }
+
+  void clear() {
+    synchronized (lock) {
+      controlMessages.clear();
+      streamMessages.clear();
+      bulkMessages.clear();
+      queuedMessagesByConflationKey.clear();
+      drainedBatches.clear();
+      queuedChars = 0;
+    }
+    notifyWritabilityChange();
+  }
+
+  private void scheduleFlush() {
+    try {
+      flushExecutor.execute(this::flushScheduledBatch);
+    } catch (RuntimeException exception) {
+      LOGGER.debug("Bridge outbound flush could not be scheduled; flushing inline", exception);
+      synchronized (lock) {
+        flushScheduled = false;
+        while (state == State.READY && queuedCountLocked() > 0) {
+          drainedBatches.addLast(drainBatchLocked());
+        }
+      }
+    }
+  }
+
+  private void flushScheduledBatch() {
+    synchronized (lock) {
+      flushScheduled = false;
+      // Packets left over after a NOT_READY transition wait for the next ready handshake.
+      while (state == State.READY && queuedCountLocked() > 0) {
+        drainedBatches.addLast(drainBatchLocked());
+      }
+    }
+    dispatchDrainedBatches();
+    notifyWritabilityChange();
+  }
+
+  /**
+   * Dispatches drained batches outside the queue lock. Only one thread dispatches at a time; a
+   * thread that finds another one dispatching leaves its batches to it, so batches reach the page
+   * in the order they were drained.
+   */
+  private void dispatchDrainedBatches() {
+    synchronized (lock) {
+      if (dispatching || drainedBatches.isEmpty()) {
         return;
       }
+      dispatching = true;
+    }
 
-      try {
-        dispatcher.accept(outboundPacketJson);
-        LOGGER.debug(
-            "Dispatched bridge outbound message immediately size={}", outboundPacketJson.length());
-      } catch (RuntimeException exception) {
-        LOGGER.warn("Failed to dispatch immediate Graphene bridge message", exception);
+    while (true) {
+      List<String> batch;
+      synchronized (lock) {
+        batch = drainedBatches.pollFirst();
+        if (batch == null) {
+          dispatching = false;
+          return;
+        }
       }
+      dispatchBatch(batch);
     }
   }
 
-  void clear() {
+  /** Re-evaluates writability with hysteresis and notifies the listener of a change. */
+  private void notifyWritabilityChange() {
+    boolean changedTo;
     synchronized (lock) {
-      queuedMessages.clear();
+      boolean nowWritable;
+      if (writable) {
+        nowWritable =
+            queuedCountLocked() < highWaterMark(maxQueuedMessages)
+                && queuedChars < highWaterMark(maxQueuedChars);
+      } else {
+        nowWritable =
+            queuedCountLocked() <= maxQueuedMessages / 2 && queuedChars <= maxQueuedChars / 2;
+      }
+      if (nowWritable == writable) {
+        return;
+      }
+      writable = nowWritable;
+      changedTo = nowWritable;
+    }
+
+    LOGGER.debug("Bridge outbound queue writability changed writable={}", changedTo);
+    try {
+      writabilityListener.accept(changedTo);
+    } catch (RuntimeException exception) {
+      LOGGER.warn("Graphene bridge writability listener failed", exception);
     }
   }
 
-  private void queueMessageLocked(String outboundPacketJson) {
-    if (queuedMessages.size() < maxQueuedMessages) {
-      queuedMessages.addLast(outboundPacketJson);
-      return;
+  private void dispatchBatch(List<String> batch) {
+    try {
+      dispatcher.accept(batch);
+      LOGGER.debug("Dispatched bridge outbound batch messages={}", batch.size());
+    } catch (RuntimeException exception) {
+      LOGGER.warn("Failed to dispatch Graphene bridge message batch", exception);
     }
+  }
 
-    String droppedMessage = queuedMessages.removeFirst();
-    queuedMessages.addLast(outboundPacketJson);
+  private boolean replaceQueuedMessageLocked(String conflationKey, String outboundPacketJson) {
+    OutboundMessage queuedMessage = queuedMessagesByConflationKey.get(conflationKey);
+    if (queuedMessage == null) {
+      return false;
+    }
+
+    queuedChars += outboundPacketJson.length() - queuedMessage.json.length();
+    queuedMessage.json = outboundPacketJson;
     LOGGER.debug(
-        "Dropped oldest bridge outbound message droppedSize={} newSize={} maxQueued={}",
-        droppedMessage.length(),
-        outboundPacketJson.length(),
-        maxQueuedMessages);
+        "Replaced pending bridge outbound message conflationKey={} size={}",
+        conflationKey,
+        outboundPacketJson.length());
+    // A larger replacement is held to the same budget, dropping the oldest evictable packet first.
+    while (queuedChars > maxQueuedChars) {
+      ArrayDeque<OutboundMessage> evictableMessages =
+          evictableMessagesLocked(queuedMessage.priority);
+      if (evictableMessages == null) {
+        break;
+      }
+      OutboundMessage droppedMessage = removeFirstLocked(evictableMessages);
+      droppedMessages++;
+      LOGGER.debug(
+          "Dropped oldest bridge outbound message priority={} droppedSize={} newSize={}",
+          droppedMessage.priority,
+          droppedMessage.json.length(),
+          outboundPacketJson.length());
+      if (droppedMessage == queuedMessage) {
+        break;
+      }
+    }
+    return true;
+  }
+
+  private void queueMessageLocked(OutboundMessage message) {
+    while (queuedCountLocked() > 0
+        && (queuedCountLocked() >= maxQueuedMessages
+            || queuedChars + message.json.length() > maxQueuedChars)) {
+      ArrayDeque<OutboundMessage> evictableMessages = evictableMessagesLocked(message.priority);
+      if (evictableMessages == null) {
+        if (message.priority != Priority.BULK) {
+          // Nothing may make room, but control and stream packets are still delivered.
+          break;
+        }
+        droppedMessages++;
+        LOGGER.debug(
+            "Dropped bridge outbound bulk message size={} queued={}",
+            message.json.length(),
+            queuedCountLocked());
+        return;
+      }
+      OutboundMessage droppedMessage = removeFirstLocked(evictableMessages);
+      droppedMessages++;
+      LOGGER.debug(
+          "Dropped oldest bridge outbound message priority={} droppedSize={} newSize={}",
+          droppedMessage.priority,
+          droppedMessage.json.length(),
+          message.json.length());
+    }
+    queue(message.priority).addLast(message);
+    queuedChars += message.json.length();
+    if (message.conflationKey != null) {
+      queuedMessagesByConflationKey.put(message.conflationKey, message);
+    }
+  }
+
+  /**
+   * Returns the lane whose oldest packet makes room for a packet of {@code priority}, or {@code
+   * null} when none may be dropped for it. Bulk packets never displace control or stream packets,
+   * and stream packets are never dropped.
+   */
+  private ArrayDeque<OutboundMessage> evictableMessagesLocked(Priority priority) {
+    if (!bulkMessages.isEmpty()) {
+      return bulkMessages;
+    }
+    if (priority == Priority.CONTROL && !controlMessages.isEmpty()) {
+      return controlMessages;
+    }
+    return null;
   }
 
-  private List<String> drainQueuedMessagesLocked() {
-    List<String> messages = new ArrayList<>(queuedMessages.size());
-    while (!queuedMessages.isEmpty()) {
-      messages.add(queuedMessages.removeFirst());
+  private OutboundMessage removeFirstLocked(ArrayDeque<OutboundMessage> messages) {
+    OutboundMessage message = messages.removeFirst();
+    queuedChars -= message.json.length();
+    if (message.conflationKey != null) {
+      queuedMessagesByConflationKey.remove(message.conflationKey, message);
     }
+    return message;
+  }
 
-    return messages;
+  private List<String> drainBatchLocked() {
+    List<String> batch = new ArrayList<>(Math.min(queuedCountLocked(), maxBatchMessages));
+    int batchChars = 0;
+    for (Priority priority : DRAIN_ORDER) {
+      ArrayDeque<OutboundMessage> messages = queue(priority);
+      while (!messages.isEmpty() && batch.size() < maxBatchMessages) {
+        int messageChars = messages.peekFirst().json.length();
+        if (!batch.isEmpty() && batchChars + messageChars > maxBatchChars) {
+          return batch;
+        }
+        batchChars += messageChars;
+        batch.add(removeFirstLocked(messages).json);
+      }
+    }
+
+    return batch;
+  }
+
+  private static long highWaterMark(long limit) {
+    return limit - limit / 4;
+  }
+
+  private int queuedCountLocked() {
+    return controlMessages.size() + streamMessages.size() + bulkMessages.size();
+  }
+
+  private ArrayDeque<OutboundMessage> queue(Priority priority) {
+    return switch (priority) {
+      case CONTROL -> controlMessages;
+      case STREAM -> streamMessages;
+      case BULK -> bulkMessages;
+    };
+  }
+
+  /** Delivery lane of a packet, in flush order; stream packets are never dropped. */
+  enum Priority {
+    CONTROL,
+    STREAM,
+    BULK
+  }
+
+  private static final class OutboundMessage {
+    private final String conflationKey;
+    private final Priority priority;
+    private String json;
+
+    private OutboundMessage(String json, String conflationKey, Priority priority) {
+      this.json = json;
+      this.conflationKey = conflationKey;
+      this.priority = priority;
+    }
   }
 
   private enum State {
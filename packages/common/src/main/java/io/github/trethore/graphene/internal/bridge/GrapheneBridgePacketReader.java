@@ -0,0 +1,357 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass reader for bridge envelopes. Envelope fields are decoded while the payload is only
+ * validated and kept as a slice of the input, so handlers receive the sender's JSON text without a
+ * tree being built or re-serialized.
+ */
+final class GrapheneBridgePacketReader {
+  private static final int MAX_DEPTH = 255;
+
+  private final String json;
+  private int position;
+  private int depth;
+
+  private GrapheneBridgePacketReader(String json) {
+    this.json = json;
+  }
+
+  static GrapheneBridgePacket read(String json) {
+    GrapheneBridgePacketReader reader = new GrapheneBridgePacketReader(json);
+    GrapheneBridgePacket packet = reader.readPacket();
+    reader.expectEnd();
+    return packet;
+  }
+
+  /** Splits a JSON array into the raw text of its elements. */
+  static List<String> readArrayElements(String json) {
+    GrapheneBridgePacketReader reader = new GrapheneBridgePacketReader(json);
+    List<String> elements = new ArrayList<>();
+    reader.skipWhitespace();
+    reader.expect('[');
+    reader.skipWhitespace();
+    if (!reader.consume(']')) {
+      do {
+        reader.skipWhitespace();
+        elements.add(reader.readRawValue());
+        reader.skipWhitespace();
+      } while (reader.consume(','));
+      reader.expect(']');
+    }
+    reader.expectEnd();
+    return elements;
+  }
+
+  /** Returns whether {@code json} contains exactly one strict JSON value. */
+  static boolean isJsonValue(String json) {
+    GrapheneBridgePacketReader reader = new GrapheneBridgePacketReader(json);
+    try {
+      reader.skipWhitespace();
+      reader.skipValue();
+      reader.expectEnd();
+      return true;
+    } catch (IllegalArgumentException exception) {
+      return false;
+    }
+  }
+
+  private GrapheneBridgePacket readPacket() {
+    GrapheneBridgePacket packet = new GrapheneBridgePacket();
+    skipWhitespace();
+    expect('{');
+    skipWhitespace();
+    if (!consume('}')) {
+      do {
+        skipWhitespace();
+        String name = readString();
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+        switch (name) {
+          case "bridge" -> packet.bridge = readScalar();
+          case "kind" -> packet.kind = readScalar();
+          case "id" -> packet.id = readScalar();
+          case "channel" -> packet.channel = readScalar();
+          case "payload" -> packet.payloadJson = readRawValue();
+          case "ok" -> packet.ok = readBoolean();
+          case "error" -> packet.error = readError();
+          default -> skipValue();
+        }
+        skipWhitespace();
+      } while (consume(','));
+      expect('}');
+    }
+    if (packet.payloadJson == null) {
+      packet.payloadJson = "null";
+    }
+    return packet;
+  }
+
+  private GrapheneBridgePacketError readError() {
+    if (peek() == 'n') {
+      expectLiteral("null");
+      return null;
+    }
+    GrapheneBridgePacketError error = new GrapheneBridgePacketError();
+    expect('{');
+    skipWhitespace();
+    if (consume('}')) {
+      return error;
+    }
+    do {
+      skipWhitespace();
+      String name = readString();
+      skipWhitespace();
+      expect(':');
+      skipWhitespace();
+      switch (name) {
+        case "code" -> error.code = readScalar();
+        case "message" -> error.message = readScalar();
+        default -> skipValue();
+      }
+      skipWhitespace();
+    } while (consume(','));
+    expect('}');
+    return error;
+  }
+
+  /** Reads a string, number, or boolean as text, matching Gson's coercion into string fields. */
+  private String readScalar() {
+    char next = peek();
+    return switch (next) {
+      case '"' -> readString();
+      case 'n' -> {
+        expectLiteral("null");
+        yield null;
+      }
+      case 't', 'f', '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> readRawValue();
+      default -> throw malformed("Expected a string value");
+    };
+  }
+
+  private Boolean readBoolean() {
+    return switch (peek()) {
+      case 't' -> {
+        expectLiteral("true");
+        yield Boolean.TRUE;
+      }
+      case 'f' -> {
+        expectLiteral("false");
+        yield Boolean.FALSE;
+      }
+      case 'n' -> {
+        expectLiteral("null");
+        yield null;
+      }
+      case '"' -> Boolean.parseBoolean(readString());
+      default -> throw malformed("Expected a boolean value");
+    };
+  }
+
+  private String readRawValue() {
+    int start = position;
+    skipValue();
+    return json.substring(start, position);
+  }
+
+  private void skipValue() {
+    switch (peek()) {
+      case '{' -> skipContainer('}', true);
+      case '[' -> skipContainer(']', false);
+      case '"' -> skipString();
+      case 't' -> expectLiteral("true");
+      case 'f' -> expectLiteral("false");
+      case 'n' -> expectLiteral("null");
+      default -> skipNumber();
+    }
+  }
+
+  private void skipContainer(char close, boolean object) {
+    if (++depth > MAX_DEPTH) {
+      throw malformed("JSON nesting is too deep");
+    }
+    position++;
+    skipWhitespace();
+    if (!consume(close)) {
+      do {
+        skipWhitespace();
+        if (object) {
+          skipString();
+          skipWhitespace();
+          expect(':');
+          skipWhitespace();
+        }
+        skipValue();
+        skipWhitespace();
+      } while (consume(','));
+      expect(close);
+    }
+    depth--;
+  }
+
+  private String readString() {
+    expect('"');
+    int start = position;
+    while (position < json.length()) {
+      char current = json.charAt(position);
+      if (current == '"') {
+        return json.substring(start, position++);
+      }
+      if (current == '\\') {
+        return readEscapedString(start);
+      }
+      if (current < 0x20) {
+        throw malformed("Unescaped control character in string");
+      }
+      position++;
+    }
+    throw malformed("Unterminated string");
+  }
+
+  private String readEscapedString(int start) {
+    StringBuilder value = new StringBuilder(position - start + 16);
+    value.append(json, start, position);
+    while (position < json.length()) {
+      char current = json.charAt(position++);
+      if (current == '"') {
+        return value.toString();
+      }
+      if (current < 0x20) {
+        throw malformed("Unescaped control character in string");
+      }
+      value.append(current == '\\' ? readEscape() : current);
+    }
+    throw malformed("Unterminated string");
+  }
+
+  private void skipString() {
+    expect('"');
+    while (position < json.length()) {
+      char current = json.charAt(position++);
+      if (current == '"') {
+        return;
+      }
+      if (current < 0x20) {
+        throw malformed("Unescaped control character in string");
+      }
+      if (current == '\\') {
+        readEscape();
+      }
+    }
+    throw malformed("Unterminated string");
+  }
+
+  private char readEscape() {
+    if (position >= json.length()) {
+      throw malformed("Unterminated escape sequence");
+    }
+    char escaped = json.charAt(position++);
+    return switch (escaped) {
+      case '"', '\\', '/' -> escaped;
+      case 'b' -> '\b';
+      case 'f' -> '\f';
+      case 'n' -> '\n';
+      case 'r' -> '\r';
+      case 't' -> '\t';
+      case 'u' -> readUnicodeEscape();
+      default -> throw malformed("Invalid escape sequence");
+    };
+  }
+
+  private char readUnicodeEscape() {
+    if (position + 4 > json.length()) {
+      throw malformed("Unterminated unicode escape");
+    }
+    int value = 0;
+    for (int index = 0; index < 4; index++) {
+      int digit = Character.digit(json.charAt(position++), 16);
+      if (digit < 0) {
+        throw malformed("Invalid unicode escape");
+      }
+      value = value << 4 | digit;
+    }
+    return (char) value;
+  }
+
+  private void skipNumber() {
+    consume('-');
+    if (!consume('0')) {
+      requireDigits();
+    }
+    if (consume('.')) {
+      requireDigits();
+    }
+    if (consume('e') || consume('E')) {
+      if (!consume('+')) {
+        consume('-');
+      }
+      requireDigits();
+    }
+  }
+
+  private void requireDigits() {
+    int start = position;
+    while (position < json.length() && isDigit(json.charAt(position))) {
+      position++;
+    }
+    if (position == start) {
+      throw malformed("Expected a JSON value");
+    }
+  }
+
+  private void expectLiteral(String literal) {
+    if (!json.startsWith(literal, position)) {
+      throw malformed("Expected " + literal);
+    }
+    position += literal.length();
+  }
+
+  private void skipWhitespace() {
+    while (position < json.length()) {
+      char current = json.charAt(position);
+      if (current != ' ' && current != '\n' && current != '\r' && current != '\t') {
+        return;
+      }
+      position++;
+    }
+  }
+
+  private void expectEnd() {
+    skipWhitespace();
+    if (position != json.length()) {
+      throw malformed("Unexpected trailing content");
+    }
+  }
+
+  private char peek() {
+    if (position >= json.length()) {
+      throw malformed("Unexpected end of JSON");
+    }
+    return json.charAt(position);
+  }
+
+  private boolean consume(char expected) {
+    if (position < json.length() && json.charAt(position) == expected) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char expected) {
+    if (!consume(expected)) {
+      throw malformed("Expected '" + expected + "'");
+    }
+  }
+
+  private static boolean isDigit(char value) {
+    return value >= '0' && value <= '9';
+  }
+
+  private IllegalArgumentException malformed(String reason) {
+    return new IllegalArgumentException(reason + " at offset " + position);
+  }
+}
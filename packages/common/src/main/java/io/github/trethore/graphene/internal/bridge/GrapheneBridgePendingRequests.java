@@ -6,32 +6,43 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 final class GrapheneBridgePendingRequests {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgePendingRequests.class);
 
-  private final Map<String, CompletableFuture<String>> pendingById = new ConcurrentHashMap<>();
+  private final Map<String, PendingRequest> pendingById = new ConcurrentHashMap<>();
+  private final GrapheneBridgeTimeoutWheel timeouts;
 
+  GrapheneBridgePendingRequests() {
+    this.timeouts = new GrapheneBridgeTimeoutWheel(this::expire);
+  }
+
+  /** Registers a request that fails with a {@link TimeoutException} after {@code timeout}. */
   CompletableFuture<String> register(String requestId, Duration timeout) {
     CompletableFuture<String> responseFuture = new CompletableFuture<>();
-    pendingById.put(requestId, responseFuture);
-    LOGGER.debug(
-        "Registered pending bridge request id={} timeoutMs={} pendingCount={}",
-        requestId,
-        timeout.toMillis(),
-        pendingById.size());
-    responseFuture.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
-    responseFuture.whenComplete((ignoredResult, ignoredError) -> pendingById.remove(requestId));
+    GrapheneBridgeTimeoutWheel.Timeout scheduledTimeout =
+        timeouts.schedule(requestId, timeout.toNanos());
+    pendingById.put(requestId, new PendingRequest(responseFuture, scheduledTimeout));
+    if (scheduledTimeout.isExpired()) {
+      expire(requestId);
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Registered pending bridge request id={} timeoutMs={} pendingCount={}",
+          requestId,
+          timeout.toMillis(),
+          pendingById.size());
+    }
     return responseFuture;
   }
 
   void completeSuccess(String requestId, String payloadJson) {
-    CompletableFuture<String> pendingFuture = pendingById.remove(requestId);
-    if (pendingFuture != null) {
-      pendingFuture.complete(payloadJson);
+    PendingRequest pendingRequest = take(requestId);
+    if (pendingRequest != null) {
+      pendingRequest.future().complete(payloadJson);
       if (LOGGER.isDebugEnabled()) {
         int payloadSize = payloadJson == null ? 0 : payloadJson.length();
         LOGGER.debug(
@@ -43,9 +54,9 @@ final class GrapheneBridgePendingRequests {
   }
 
   void completeFailure(String requestId, Throwable throwable) {
-    CompletableFuture<String> pendingFuture = pendingById.remove(requestId);
-    if (pendingFuture != null) {
-      pendingFuture.completeExceptionally(throwable);
+    PendingRequest pendingRequest = take(requestId);
+    if (pendingRequest != null) {
+      pendingRequest.future().completeExceptionally(throwable);
       LOGGER.debug(
           "Completed pending bridge request as failure id={} reason={}",
           requestId,
@@ -53,16 +64,36 @@ final class GrapheneBridgePendingRequests {
     }
   }
 
+  private PendingRequest take(String requestId) {
+    PendingRequest pendingRequest = pendingById.remove(requestId);
+    if (pendingRequest != null) {
+      pendingRequest.timeout().cancel();
+    }
+    return pendingRequest;
+  }
+
+  private void expire(String requestId) {
+    PendingRequest pendingRequest = pendingById.remove(requestId);
+    if (pendingRequest != null
+        && pendingRequest.future().completeExceptionally(new TimeoutException())) {
+      LOGGER.debug("Timed out pending bridge request id={}", requestId);
+    }
+  }
+
   void failAll(Throwable throwable) {
-    List<CompletableFuture<String>> pendingFutures = new ArrayList<>(pendingById.values());
+    List<PendingRequest> pendingRequests = new ArrayList<>(pendingById.values());
     pendingById.clear();
     LOGGER.debug(
         "Failing all pending bridge requests count={} reason={}",
-        pendingFutures.size(),
+        pendingRequests.size(),
         throwable.getMessage());
 
-    for (CompletableFuture<String> pendingFuture : pendingFutures) {
-      pendingFuture.completeExceptionally(throwable);
+    for (PendingRequest pendingRequest : pendingRequests) {
+      pendingRequest.timeout().cancel();
+      pendingRequest.future().completeExceptionally(throwable);
     }
   }
+
+  private record PendingRequest(
+      CompletableFuture<String> future, GrapheneBridgeTimeoutWheel.Timeout timeout) {}
 }
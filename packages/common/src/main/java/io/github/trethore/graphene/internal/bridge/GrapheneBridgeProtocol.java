@@ -7,6 +7,11 @@ final class GrapheneBridgeProtocol {
   static final String KIND_EVENT = "event";
   static final String KIND_REQUEST = "request";
   static final String KIND_RESPONSE = "response";
+  static final String KIND_BATCH = "batch";
+  static final String KIND_STREAM = "stream";
+  static final String KIND_STREAM_NEXT = "stream_next";
+  static final String KIND_STREAM_END = "stream_end";
+  static final String KIND_STREAM_CANCEL = "stream_cancel";
   static final String EMPTY_RESPONSE_JSON = "{}";
 
   private GrapheneBridgeProtocol() {}
@@ -1,6 +1,7 @@
 package io.github.trethore.graphene.internal.bridge;
 
 import io.github.trethore.graphene.api.bridge.GrapheneBridgeRequestException;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamSink;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -15,17 +16,32 @@ final class GrapheneBridgeRequestLifecycle {
   private final GrapheneBridgeMessageCodec codec;
   private final GrapheneBridgeOutboundQueue outboundQueue;
   private final GrapheneBridgePendingRequests pendingRequests = new GrapheneBridgePendingRequests();
+  private final GrapheneBridgeActiveStreams activeStreams;
+  private final GrapheneBridgeMetricsRecorder metrics;
   private final AtomicLong requestSequence = new AtomicLong();
 
   GrapheneBridgeRequestLifecycle(
-      GrapheneBridgeMessageCodec codec, GrapheneBridgeOutboundQueue outboundQueue) {
+      GrapheneBridgeMessageCodec codec,
+      GrapheneBridgeOutboundQueue outboundQueue,
+      GrapheneBridgeMetricsRecorder metrics) {
     this.codec = Objects.requireNonNull(codec, "codec");
     this.outboundQueue = Objects.requireNonNull(outboundQueue, "outboundQueue");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+    this.activeStreams = new GrapheneBridgeActiveStreams(codec, outboundQueue, metrics);
   }
 
   CompletableFuture<String> request(String channel, String payloadJson, Duration timeout) {
+    return request(channel, payloadJson, null, timeout);
+  }
+
+  CompletableFuture<String> request(
+      String channel, String payloadJson, String binaryUrl, Duration timeout) {
     String requestId = "java-" + requestSequence.incrementAndGet();
+    long startNanos = System.nanoTime();
     CompletableFuture<String> responseFuture = pendingRequests.register(requestId, timeout);
+    responseFuture.whenComplete(
+        (ignoredResult, failure) ->
+            metrics.recordRequest(channel, System.nanoTime() - startNanos, failure));
     if (LOGGER.isDebugEnabled()) {
       int payloadSize = payloadJson == null ? 0 : payloadJson.length();
       LOGGER.debug(
@@ -37,13 +53,12 @@ final class GrapheneBridgeRequestLifecycle {
     }
 
     try {
+      String payload = codec.requirePayloadJson(payloadJson);
       String outboundJson =
           codec.createOutboundPacketJson(
-              GrapheneBridgeProtocol.KIND_REQUEST,
-              requestId,
-              channel,
-              codec.parsePayloadJson(payloadJson));
-      outboundQueue.queueOrDispatch(outboundJson);
+              GrapheneBridgeProtocol.KIND_REQUEST, requestId, channel, payload, binaryUrl);
+      outboundQueue.queueOrDispatch(outboundJson, GrapheneBridgeOutboundQueue.Priority.CONTROL);
+      metrics.recordOutbound(channel, payload.length());
     } catch (RuntimeException exception) {
       pendingRequests.completeFailure(requestId, exception);
       LOGGER.debug(
@@ -56,15 +71,26 @@ final class GrapheneBridgeRequestLifecycle {
     return responseFuture;
   }
 
+  /** Opens a page-initiated stream, or returns {@code null} when its id is already active. */
+  GrapheneBridgeStreamSink openStream(String streamId, String channel) {
+    return activeStreams.open(streamId, channel);
+  }
+
+  void cancelStream(String streamId) {
+    activeStreams.cancel(streamId);
+  }
+
   void failAllForPageChange() {
     LOGGER.debug("Failing all pending bridge requests because page changed");
     pendingRequests.failAll(
         new IllegalStateException("Bridge page changed before a response was received"));
+    activeStreams.cancelAll();
   }
 
   void failAllForClose() {
     LOGGER.debug("Failing all pending bridge requests because bridge closed");
     pendingRequests.failAll(new IllegalStateException("Bridge closed"));
+    activeStreams.cancelAll();
   }
 
   void handleResponse(GrapheneBridgePacket packet) {
@@ -91,7 +117,7 @@ final class GrapheneBridgeRequestLifecycle {
       return;
     }
 
-    pendingRequests.completeSuccess(packet.id, codec.payloadToJson(packet.payload));
+    pendingRequests.completeSuccess(packet.id, packet.payloadJson);
     LOGGER.debug("Completed bridge request as success id={} channel={}", packet.id, packet.channel);
   }
 }
@@ -18,13 +18,15 @@ public final class GrapheneBridgeRuntime {
   private static final int MIN_BROWSER_IDENTIFIER = 1;
 
   private final Object lock = new Object();
-  private final GrapheneTaskExecutor taskExecutor;
+  private final GrapheneBridgeExecutors executors;
+  private final GrapheneBridgeBinaryStore binaryStore = new GrapheneBridgeBinaryStore();
   private final Map<BridgeBrowser, GrapheneBridgeEndpoint> endpointsByBrowser =
       new IdentityHashMap<>();
   private final Map<Integer, GrapheneBridgeEndpoint> endpointsByBrowserId = new HashMap<>();
 
   public GrapheneBridgeRuntime(GrapheneTaskExecutor taskExecutor) {
-    this.taskExecutor = Objects.requireNonNull(taskExecutor, "taskExecutor");
+    this.executors =
+        new GrapheneBridgeExecutors(Objects.requireNonNull(taskExecutor, "taskExecutor"));
   }
 
   private static int browserIdentifier(BridgeBrowser browser) {
@@ -35,12 +37,17 @@ public final class GrapheneBridgeRuntime {
     }
   }
 
+  /** Returns the store that serves binary payloads to the app scheme handler. */
+  public GrapheneBridgeBinaryStore binaryStore() {
+    return binaryStore;
+  }
+
   public GrapheneBridge attach(BridgeBrowser browser, GrapheneBridgeExposureConfig exposureConfig) {
     Objects.requireNonNull(browser, BROWSER_NAME);
 
     GrapheneBridgeEndpoint previousEndpoint;
     GrapheneBridgeEndpoint newEndpoint =
-        new GrapheneBridgeEndpoint(browser, taskExecutor, exposureConfig);
+        new GrapheneBridgeEndpoint(browser, executors, binaryStore, exposureConfig);
     synchronized (lock) {
       previousEndpoint = endpointsByBrowser.put(browser, newEndpoint);
       if (previousEndpoint != null) {
@@ -154,6 +161,7 @@ public final class GrapheneBridgeRuntime {
     for (GrapheneBridgeEndpoint endpoint : endpoints) {
       endpoint.close();
     }
+    executors.shutdown();
   }
 
   private GrapheneBridgeEndpoint endpoint(BridgeBrowser browser) {
@@ -0,0 +1,213 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel that expires keys in bulk. Scheduling and cancelling a key are constant-time
+ * list operations on the slot of its deadline tick, and one shared ticker thread advances every
+ * wheel that has keys, so a burst of requests costs no per-request scheduler task.
+ */
+final class GrapheneBridgeTimeoutWheel {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneBridgeTimeoutWheel.class);
+  private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final int DEFAULT_SLOT_COUNT = 512;
+  private static final Ticker SHARED_TICKER = new SharedTicker();
+
+  private final Object lock = new Object();
+  private final long tickNanos;
+  private final Timeout[] slots;
+  private final int slotMask;
+  private final LongSupplier nanoClock;
+  private final Ticker ticker;
+  private final Consumer<String> onExpired;
+  private final long originNanos;
+  private long currentTick;
+  private int scheduledCount;
+  private Future<?> tickerTask;
+
+  GrapheneBridgeTimeoutWheel(Consumer<String> onExpired) {
+    this(DEFAULT_TICK_NANOS, DEFAULT_SLOT_COUNT, System::nanoTime, SHARED_TICKER, onExpired);
+  }
+
+  GrapheneBridgeTimeoutWheel(
+      long tickNanos,
+      int slotCount,
+      LongSupplier nanoClock,
+      Ticker ticker,
+      Consumer<String> onExpired) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("tickNanos must be positive");
+    }
+    if (slotCount < 1 || Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException("slotCount must be a positive power of two");
+    }
+    this.tickNanos = tickNanos;
+    this.slots = new Timeout[slotCount];
+    this.slotMask = slotCount - 1;
+    this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+    this.ticker = Objects.requireNonNull(ticker, "ticker");
+    this.onExpired = Objects.requireNonNull(onExpired, "onExpired");
+    this.originNanos = nanoClock.getAsLong();
+  }
+
+  /** Expires {@code key} once {@code timeoutNanos} have elapsed, rounded up to the next tick. */
+  Timeout schedule(String key, long timeoutNanos) {
+    long elapsedNanos = nanoClock.getAsLong() - originNanos;
+    long deadlineNanos = elapsedNanos + Math.max(0L, timeoutNanos);
+    long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+    synchronized (lock) {
+      if (scheduledCount == 0) {
+        // An idle wheel has no ticker, so skip the ticks that passed while nothing was scheduled.
+        currentTick = Math.max(currentTick, elapsedNanos / tickNanos);
+      }
+      Timeout timeout = new Timeout(key, Math.max(deadlineTick, currentTick));
+      linkLocked(timeout);
+      if (tickerTask == null) {
+        tickerTask = ticker.start(this::advance, tickNanos);
+      }
+      return timeout;
+    }
+  }
+
+  /** Expires every key whose deadline tick has passed. */
+  void advance() {
+    List<String> expiredKeys = new ArrayList<>();
+    synchronized (lock) {
+      long nowTick = (nanoClock.getAsLong() - originNanos) / tickNanos;
+      if (nowTick - currentTick >= slots.length) {
+        // Every slot is due after a full turn, so one sweep catches up however far the ticker fell
+        // behind.
+        for (int slotIndex = 0; slotIndex < slots.length && scheduledCount > 0; slotIndex++) {
+          expireSlotLocked(slotIndex, nowTick, expiredKeys);
+        }
+      } else {
+        while (currentTick <= nowTick && scheduledCount > 0) {
+          expireSlotLocked((int) (currentTick & slotMask), currentTick, expiredKeys);
+          currentTick++;
+        }
+      }
+      currentTick = Math.max(currentTick, nowTick + 1);
+      stopTickerIfIdleLocked();
+    }
+
+    for (String key : expiredKeys) {
+      try {
+        onExpired.accept(key);
+      } catch (RuntimeException exception) {
+        LOGGER.warn("Graphene bridge timeout callback failed for key {}", key, exception);
+      }
+    }
+  }
+
+  private void expireSlotLocked(int slotIndex, long tick, List<String> expiredKeys) {
+    Timeout timeout = slots[slotIndex];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.deadlineTick <= tick) {
+        unlinkLocked(timeout);
+        timeout.expired = true;
+        expiredKeys.add(timeout.key);
+      }
+      timeout = next;
+    }
+  }
+
+  private void linkLocked(Timeout timeout) {
+    int slotIndex = (int) (timeout.deadlineTick & slotMask);
+    Timeout head = slots[slotIndex];
+    timeout.next = head;
+    if (head != null) {
+      head.previous = timeout;
+    }
+    slots[slotIndex] = timeout;
+    timeout.linked = true;
+    scheduledCount++;
+  }
+
+  private void unlinkLocked(Timeout timeout) {
+    if (timeout.previous == null) {
+      slots[(int) (timeout.deadlineTick & slotMask)] = timeout.next;
+    } else {
+      timeout.previous.next = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.previous = timeout.previous;
+    }
+    timeout.previous = null;
+    timeout.next = null;
+    timeout.linked = false;
+    scheduledCount--;
+  }
+
+  private void stopTickerIfIdleLocked() {
+    if (scheduledCount == 0 && tickerTask != null) {
+      tickerTask.cancel(false);
+      tickerTask = null;
+    }
+  }
+
+  /** A scheduled key; cancelling it releases its slot entry immediately. */
+  final class Timeout {
+    private final String key;
+    private final long deadlineTick;
+    private Timeout previous;
+    private Timeout next;
+    private boolean linked;
+    private boolean expired;
+
+    private Timeout(String key, long deadlineTick) {
+      this.key = key;
+      this.deadlineTick = deadlineTick;
+    }
+
+    void cancel() {
+      synchronized (lock) {
+        if (linked) {
+          unlinkLocked(this);
+          stopTickerIfIdleLocked();
+        }
+      }
+    }
+
+    boolean isExpired() {
+      synchronized (lock) {
+        return expired;
+      }
+    }
+  }
+
+  /** Starts periodic ticks for a wheel and returns the task that stops them. */
+  @FunctionalInterface
+  interface Ticker {
+    Future<?> start(Runnable tick, long periodNanos);
+  }
+
+  private static final class SharedTicker implements Ticker {
+    private ScheduledThreadPoolExecutor executor;
+
+    @Override
+    public synchronized Future<?> start(Runnable tick, long periodNanos) {
+      if (executor == null) {
+        executor =
+            new ScheduledThreadPoolExecutor(
+                1,
+                runnable -> {
+                  Thread thread = new Thread(runnable, "Graphene Bridge Timeouts");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        executor.setRemoveOnCancelPolicy(true);
+      }
+      return executor.scheduleAtFixedRate(tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+}
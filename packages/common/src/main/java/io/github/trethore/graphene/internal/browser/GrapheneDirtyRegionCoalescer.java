@@ -0,0 +1,205 @@
+package io.github.trethore.graphene.internal.browser;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Turns raw paint rectangles into a non-overlapping cover. Rectangles are first merged into their
+ * bounding box whenever the pixels that box adds cost less than handling one more rectangle; the
+ * remaining shapes are then split into horizontal bands so that no pixel is covered twice.
+ */
+public final class GrapheneDirtyRegionCoalescer {
+  private final CostModel costModel;
+
+  public GrapheneDirtyRegionCoalescer() {
+    this(CostModel.DEFAULT);
+  }
+
+  public GrapheneDirtyRegionCoalescer(CostModel costModel) {
+    this.costModel = Objects.requireNonNull(costModel, "costModel");
+  }
+
+  public CostModel costModel() {
+    return costModel;
+  }
+
+  /**
+   * Returns disjoint rectangles covering every pixel of {@code regions}. At most {@link
+   * CostModel#maximumRegions()} rectangles are returned; larger covers collapse to their bounding
+   * box.
+   */
+  public List<BrowserDirtyRegion> coalesce(List<BrowserDirtyRegion> regions) {
+    List<BrowserDirtyRegion> validatedRegions = Objects.requireNonNull(regions, "regions");
+    if (validatedRegions.size() <= 1) {
+      return List.copyOf(validatedRegions);
+    }
+    List<BrowserDirtyRegion> merged = mergeCheapBoundingBoxes(validatedRegions);
+    List<BrowserDirtyRegion> disjoint = merged.size() == 1 ? merged : splitIntoBands(merged);
+    if (disjoint.size() > costModel.maximumRegions()) {
+      return List.of(boundingBox(disjoint));
+    }
+    return List.copyOf(disjoint);
+  }
+
+  private List<BrowserDirtyRegion> mergeCheapBoundingBoxes(List<BrowserDirtyRegion> regions) {
+    List<BrowserDirtyRegion> merged = new ArrayList<>(regions.size());
+    for (BrowserDirtyRegion region : regions) {
+      merged.add(Objects.requireNonNull(region, "region"));
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int first = 0; first < merged.size(); first++) {
+        for (int second = first + 1; second < merged.size(); second++) {
+          BrowserDirtyRegion left = merged.get(first);
+          BrowserDirtyRegion right = merged.get(second);
+          BrowserDirtyRegion bounds = union(left, right);
+          long addedPixels = area(bounds) - area(left) - area(right) + overlap(left, right);
+          if (addedPixels <= costModel.regionOverheadPixels()) {
+            merged.set(first, bounds);
+            merged.remove(second);
+            second = first;
+            changed = true;
+          }
+        }
+      }
+    }
+    return merged;
+  }
+
+  private static List<BrowserDirtyRegion> splitIntoBands(List<BrowserDirtyRegion> regions) {
+    int[] edges = new int[regions.size() * 2];
+    int edgeCount = 0;
+    for (BrowserDirtyRegion region : regions) {
+      edges[edgeCount++] = region.y();
+      edges[edgeCount++] = region.y() + region.height();
+    }
+    Arrays.sort(edges);
+    List<BrowserDirtyRegion> closed = new ArrayList<>();
+    List<OpenRectangle> open = new ArrayList<>();
+    int top = edges[0];
+    for (int index = 1; index < edgeCount; index++) {
+      int bottom = edges[index];
+      if (bottom == top) {
+        continue;
+      }
+      List<OpenRectangle> stillOpen = new ArrayList<>();
+      for (Span span : horizontalSpans(regions, top, bottom)) {
+        OpenRectangle continued = removeMatching(open, span);
+        if (continued == null) {
+          continued = new OpenRectangle(span, top);
+        }
+        continued.bottom = bottom;
+        stillOpen.add(continued);
+      }
+      for (OpenRectangle finished : open) {
+        closed.add(finished.toRegion());
+      }
+      open = stillOpen;
+      top = bottom;
+    }
+    for (OpenRectangle finished : open) {
+      closed.add(finished.toRegion());
+    }
+    return closed;
+  }
+
+  private static List<Span> horizontalSpans(List<BrowserDirtyRegion> regions, int top, int bottom) {
+    List<Span> intervals = new ArrayList<>();
+    for (BrowserDirtyRegion region : regions) {
+      if (region.y() <= top && region.y() + region.height() >= bottom) {
+        intervals.add(new Span(region.x(), region.x() + region.width()));
+      }
+    }
+    intervals.sort(Comparator.comparingInt(Span::left));
+    List<Span> spans = new ArrayList<>(intervals.size());
+    for (Span interval : intervals) {
+      int lastIndex = spans.size() - 1;
+      if (lastIndex >= 0 && interval.left() <= spans.get(lastIndex).right()) {
+        Span last = spans.get(lastIndex);
+        spans.set(lastIndex, new Span(last.left(), Math.max(last.right(), interval.right())));
+      } else {
+        spans.add(interval);
+      }
+    }
+    return spans;
+  }
+
+  private static OpenRectangle removeMatching(List<OpenRectangle> open, Span span) {
+    for (int index = 0; index < open.size(); index++) {
+      if (open.get(index).span.equals(span)) {
+        return open.remove(index);
+      }
+    }
+    return null;
+  }
+
+  private static BrowserDirtyRegion boundingBox(List<BrowserDirtyRegion> regions) {
+    BrowserDirtyRegion bounds = regions.get(0);
+    for (int index = 1; index < regions.size(); index++) {
+      bounds = union(bounds, regions.get(index));
+    }
+    return bounds;
+  }
+
+  private static BrowserDirtyRegion union(BrowserDirtyRegion left, BrowserDirtyRegion right) {
+    int x = Math.min(left.x(), right.x());
+    int y = Math.min(left.y(), right.y());
+    int maxX = Math.max(left.x() + left.width(), right.x() + right.width());
+    int maxY = Math.max(left.y() + left.height(), right.y() + right.height());
+    return new BrowserDirtyRegion(x, y, maxX - x, maxY - y);
+  }
+
+  private static long overlap(BrowserDirtyRegion left, BrowserDirtyRegion right) {
+    long width =
+        (long) Math.min(left.x() + left.width(), right.x() + right.width())
+            - Math.max(left.x(), right.x());
+    long height =
+        (long) Math.min(left.y() + left.height(), right.y() + right.height())
+            - Math.max(left.y(), right.y());
+    return width > 0 && height > 0 ? width * height : 0;
+  }
+
+  private static long area(BrowserDirtyRegion region) {
+    return (long) region.width() * region.height();
+  }
+
+  private record Span(int left, int right) {}
+
+  private static final class OpenRectangle {
+    private final Span span;
+    private final int top;
+    private int bottom;
+
+    private OpenRectangle(Span span, int top) {
+      this.span = span;
+      this.top = top;
+    }
+
+    private BrowserDirtyRegion toRegion() {
+      return new BrowserDirtyRegion(span.left(), top, span.right() - span.left(), bottom - top);
+    }
+  }
+
+  /**
+   * Prices a rectangle as its pixel count plus a fixed per-rectangle overhead expressed in pixels,
+   * which stands for the setup cost of one more copy or texture upload.
+   */
+  public record CostModel(long regionOverheadPixels, int maximumRegions) {
+    /** Merges gaps up to a 64x64 block and stays below the uploader's partial-upload limit. */
+    public static final CostModel DEFAULT = new CostModel(4096, 32);
+
+    public CostModel {
+      if (regionOverheadPixels < 0) {
+        throw new IllegalArgumentException("regionOverheadPixels must be >= 0");
+      }
+      if (maximumRegions < 1) {
+        throw new IllegalArgumentException("maximumRegions must be >= 1");
+      }
+    }
+  }
+}
@@ -2,40 +2,90 @@ package io.github.trethore.graphene.internal.browser;
 
 import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserFrameMetrics;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
 public final class GrapheneFrameBuffer {
+  private static final int POPUP_POOL_CAPACITY = 2;
+  private static final int DAMAGE_HISTORY_FRAMES = 8;
+  private static final BrowserPixelFormat PAINT_PIXEL_FORMAT =
+      BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB;
+
   private final AtomicReference<BrowserFrame> latestFrame = new AtomicReference<>();
+  private final GrapheneFrameBufferPool framePool = new GrapheneFrameBufferPool();
+  private final GrapheneFrameBufferPool compositePool = new GrapheneFrameBufferPool();
+  private final GrapheneFrameBufferPool popupPool =
+      new GrapheneFrameBufferPool(POPUP_POOL_CAPACITY);
+  private final GrapheneDirtyRegionCoalescer dirtyRegionCoalescer;
+  private final DamageHistory captureDamage;
+  private final DamageHistory publishedDamage;
+  private final BrowserPixelFormat pixelFormat;
   private BrowserFrame mainFrame;
   private BrowserFrame popupFrame;
   private BrowserDirtyRegion popupBounds;
   private long sequence;
+  private long captureTag;
+
+  public GrapheneFrameBuffer() {
+    this(PAINT_PIXEL_FORMAT);
+  }
+
+  /**
+   * Creates a buffer that publishes frames in {@code pixelFormat}. Paint buffers are always BGRA
+   * and are converted while they are copied into the backing store.
+   */
+  public GrapheneFrameBuffer(BrowserPixelFormat pixelFormat) {
+    this(pixelFormat, GrapheneDirtyRegionCoalescer.CostModel.DEFAULT);
+  }
+
+  /**
+   * Creates a buffer like {@link #GrapheneFrameBuffer(BrowserPixelFormat)} that coalesces paint
+   * damage with {@code costModel}.
+   */
+  public GrapheneFrameBuffer(
+      BrowserPixelFormat pixelFormat, GrapheneDirtyRegionCoalescer.CostModel costModel) {
+    this.pixelFormat = Objects.requireNonNull(pixelFormat, "pixelFormat");
+    this.dirtyRegionCoalescer = new GrapheneDirtyRegionCoalescer(costModel);
+    this.captureDamage = new DamageHistory(dirtyRegionCoalescer);
+    this.publishedDamage = new DamageHistory(dirtyRegionCoalescer);
+  }
 
   public synchronized BrowserFrame capture(
       int width, int height, List<BrowserDirtyRegion> dirtyRegions, ByteBuffer pixels) {
     BrowserFrame previousFrame = latestFrame.get();
     long frameSequence = ++sequence;
+    boolean resized =
+        previousFrame == null || previousFrame.width() != width || previousFrame.height() != height;
     List<BrowserDirtyRegion> normalizedDirtyRegions =
-        previousFrame == null || previousFrame.width() != width || previousFrame.height() != height
+        resized
             ? fullFrame(width, height)
             : normalizePaintDirtyRegions(width, height, dirtyRegions);
-    mainFrame = new BrowserFrame(width, height, frameSequence, normalizedDirtyRegions, pixels);
-    BrowserFrame frame =
-        popupFrame == null || popupBounds == null
-            ? mainFrame
-            : compose(frameSequence, normalizedDirtyRegions);
-    latestFrame.set(frame);
+    BrowserFrame capturedFrame =
+        captureIntoBackingStore(width, height, frameSequence, normalizedDirtyRegions, pixels);
+    releaseFrame(mainFrame);
+    mainFrame = capturedFrame;
+    BrowserFrame frame;
+    if (popupFrame == null || popupBounds == null) {
+      mainFrame.retain();
+      frame = mainFrame;
+    } else {
+      frame = compose(frameSequence, normalizedDirtyRegions);
+    }
+    publishLatest(frame);
     return frame;
   }
 
   public synchronized BrowserFrame capturePopup(int width, int height, ByteBuffer pixels) {
-    popupFrame =
-        new BrowserFrame(
-            width, height, 1, List.of(new BrowserDirtyRegion(0, 0, width, height)), pixels);
+    BrowserFrame capturedPopup =
+        pooledCopy(popupPool, width, height, 1, fullFrame(width, height), pixels);
+    releaseFrame(popupFrame);
+    popupFrame = capturedPopup;
     if (mainFrame == null || popupBounds == null) {
       return null;
     }
@@ -60,6 +110,7 @@ public final class GrapheneFrameBuffer {
   public synchronized BrowserFrame closePopup() {
     BrowserDirtyRegion previousBounds = popupBounds;
     popupBounds = null;
+    releaseFrame(popupFrame);
     popupFrame = null;
     if (mainFrame == null || previousBounds == null) {
       return null;
@@ -69,8 +120,8 @@ public final class GrapheneFrameBuffer {
     if (dirtyRegions.isEmpty()) {
       return null;
     }
-    BrowserFrame frame = copyMain(++sequence, dirtyRegions);
-    latestFrame.set(frame);
+    BrowserFrame frame = shareMain(++sequence, dirtyRegions);
+    publishLatest(frame);
     return frame;
   }
 
@@ -78,12 +129,47 @@ public final class GrapheneFrameBuffer {
     return latestFrame.get();
   }
 
+  /**
+   * Returns the latest frame with an additional reference that the caller must release, or {@code
+   * null} when no frame is available.
+   */
+  public BrowserFrame retainLatestFrame() {
+    BrowserFrame frame = latestFrame.get();
+    while (frame != null && !frame.retain()) {
+      frame = latestFrame.get();
+    }
+    return frame;
+  }
+
+  public GrapheneFrameBufferPool.Occupancy poolOccupancy() {
+    return framePool.occupancy();
+  }
+
+  /** Returns the combined usage of the main, composite and popup pools. */
+  public BrowserFrameMetrics metrics() {
+    GrapheneFrameBufferPool.Occupancy frames = framePool.occupancy();
+    GrapheneFrameBufferPool.Occupancy composites = compositePool.occupancy();
+    GrapheneFrameBufferPool.Occupancy popups = popupPool.occupancy();
+    return new BrowserFrameMetrics(
+        frames.borrowedBuffers() + composites.borrowedBuffers() + popups.borrowedBuffers(),
+        frames.availableBuffers() + composites.availableBuffers() + popups.availableBuffers(),
+        frames.allocations() + composites.allocations() + popups.allocations(),
+        frames.reuses() + composites.reuses() + popups.reuses());
+  }
+
   public void clear() {
     synchronized (this) {
+      releaseFrame(mainFrame);
+      releaseFrame(popupFrame);
       mainFrame = null;
       popupFrame = null;
       popupBounds = null;
-      latestFrame.set(null);
+      releaseFrame(latestFrame.getAndSet(null));
+      captureDamage.reset();
+      publishedDamage.reset();
+      framePool.clear();
+      compositePool.clear();
+      popupPool.clear();
     }
   }
 
@@ -97,40 +183,183 @@ public final class GrapheneFrameBuffer {
       return null;
     }
     BrowserFrame frame = compose(++sequence, dirtyRegions);
-    latestFrame.set(frame);
+    publishLatest(frame);
     return frame;
   }
 
+  private void publishLatest(BrowserFrame frame) {
+    publishedDamage.record(frame.sequence(), frame.dirtyRegions());
+    releaseFrame(latestFrame.getAndSet(frame));
+  }
+
+  /**
+   * Brings a pooled backing store up to date with the CEF paint buffer. A recycled store that held
+   * a recent capture only receives the rectangles damaged since that capture, copied row by row, so
+   * copy cost follows the damaged area instead of the frame resolution.
+   */
+  private BrowserFrame captureIntoBackingStore(
+      int width,
+      int height,
+      long frameSequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer source) {
+    int byteCount = frameByteCount(width, height, source);
+    long tag = ++captureTag;
+    GrapheneFrameBufferPool.TaggedBuffer store = framePool.acquireTagged(byteCount);
+    ByteBuffer pixels = store.buffer();
+    List<BrowserDirtyRegion> staleRegions =
+        captureDamage.staleRegions(store.contentTag(), tag, dirtyRegions, (long) width * height);
+    if (staleRegions == null) {
+      GraphenePixelConverter.convert(
+          source, source.position(), PAINT_PIXEL_FORMAT, pixels, 0, pixelFormat, width * height);
+    } else {
+      for (BrowserDirtyRegion region : staleRegions) {
+        GraphenePixelConverter.convertRegion(
+            source, PAINT_PIXEL_FORMAT, pixels, pixelFormat, width, region);
+      }
+    }
+    captureDamage.record(tag, dirtyRegions);
+    pixels.clear();
+    return wrapPooled(framePool, width, height, frameSequence, dirtyRegions, pixels, tag);
+  }
+
+  /**
+   * Brings a pooled composite store up to date with the main frame and the popup. Only rectangles
+   * published since the store's frame are redrawn: main-frame rows are copied in bulk and the popup
+   * is copied back over just the part of each rectangle it overlaps.
+   */
   private BrowserFrame compose(long frameSequence, List<BrowserDirtyRegion> dirtyRegions) {
-    if (mainFrame == null || popupFrame == null || popupBounds == null) {
-      return mainFrame;
-    }
-    ByteBuffer pixels = writableCopy(mainFrame.pixels());
-    int copyWidth = Math.min(popupFrame.width(), mainFrame.width() - popupBounds.x());
-    int copyHeight = Math.min(popupFrame.height(), mainFrame.height() - popupBounds.y());
-    if (copyWidth > 0 && copyHeight > 0) {
-      ByteBuffer popupPixels = popupFrame.pixels();
-      for (int row = 0; row < copyHeight; row++) {
-        int sourceOffset = row * popupFrame.width() * 4;
-        int targetOffset = ((popupBounds.y() + row) * mainFrame.width() + popupBounds.x()) * 4;
-        for (int column = 0; column < copyWidth * 4; column++) {
-          pixels.put(targetOffset + column, popupPixels.get(sourceOffset + column));
-        }
+    int width = mainFrame.width();
+    int height = mainFrame.height();
+    ByteBuffer mainPixels = mainFrame.pixels();
+    GrapheneFrameBufferPool.TaggedBuffer store =
+        compositePool.acquireTagged(mainPixels.remaining());
+    ByteBuffer pixels = store.buffer();
+    List<BrowserDirtyRegion> staleRegions =
+        publishedDamage.staleRegions(
+            store.contentTag(), frameSequence, dirtyRegions, (long) width * height);
+    if (staleRegions == null) {
+      pixels.put(mainPixels);
+      pixels.clear();
+      overlayPopup(pixels, width, new BrowserDirtyRegion(0, 0, width, height));
+    } else {
+      for (BrowserDirtyRegion region : staleRegions) {
+        copyRows(mainPixels, pixels, width, region);
+        overlayPopup(pixels, width, region);
       }
     }
-    return new BrowserFrame(
-        mainFrame.width(), mainFrame.height(), frameSequence, dirtyRegions, pixels);
+    pixels.clear();
+    return wrapPooled(
+        compositePool, width, height, frameSequence, dirtyRegions, pixels, frameSequence);
   }
 
-  private BrowserFrame copyMain(long frameSequence, List<BrowserDirtyRegion> dirtyRegions) {
-    if (mainFrame == null) {
-      return null;
+  private void overlayPopup(ByteBuffer target, int frameWidth, BrowserDirtyRegion region) {
+    int left = Math.max(region.x(), popupBounds.x());
+    int top = Math.max(region.y(), popupBounds.y());
+    int right =
+        Math.min(
+            region.x() + region.width(),
+            Math.min(popupBounds.x() + popupFrame.width(), frameWidth));
+    int bottom =
+        Math.min(
+            region.y() + region.height(),
+            Math.min(popupBounds.y() + popupFrame.height(), mainFrame.height()));
+    if (left >= right || top >= bottom) {
+      return;
+    }
+    ByteBuffer popupPixels = popupFrame.pixels();
+    int popupStrideBytes = popupFrame.width() * 4;
+    int frameStrideBytes = frameWidth * 4;
+    int rowBytes = (right - left) * 4;
+    for (int row = top; row < bottom; row++) {
+      target.put(
+          row * frameStrideBytes + left * 4,
+          popupPixels,
+          (row - popupBounds.y()) * popupStrideBytes + (left - popupBounds.x()) * 4,
+          rowBytes);
     }
-    return new BrowserFrame(
-        mainFrame.width(), mainFrame.height(), frameSequence, dirtyRegions, mainFrame.pixels());
   }
 
-  private static List<BrowserDirtyRegion> normalizePaintDirtyRegions(
+  private BrowserFrame shareMain(long frameSequence, List<BrowserDirtyRegion> dirtyRegions) {
+    BrowserFrame source = mainFrame;
+    source.retain();
+    return BrowserFrame.wrap(
+        source.width(),
+        source.height(),
+        frameSequence,
+        dirtyRegions,
+        source.pixels(),
+        source.pixelFormat(),
+        source::release);
+  }
+
+  private BrowserFrame pooledCopy(
+      GrapheneFrameBufferPool pool,
+      int width,
+      int height,
+      long frameSequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer source) {
+    ByteBuffer pixels = pool.acquire(frameByteCount(width, height, source));
+    GraphenePixelConverter.convert(
+        source, source.position(), PAINT_PIXEL_FORMAT, pixels, 0, pixelFormat, width * height);
+    return wrapPooled(
+        pool, width, height, frameSequence, dirtyRegions, pixels, GrapheneFrameBufferPool.UNTAGGED);
+  }
+
+  private BrowserFrame wrapPooled(
+      GrapheneFrameBufferPool pool,
+      int width,
+      int height,
+      long frameSequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      ByteBuffer pixels,
+      long contentTag) {
+    try {
+      return BrowserFrame.wrap(
+          width,
+          height,
+          frameSequence,
+          dirtyRegions,
+          pixels,
+          pixelFormat,
+          () -> pool.recycle(pixels, contentTag));
+    } catch (RuntimeException exception) {
+      pool.recycle(pixels);
+      throw exception;
+    }
+  }
+
+  private static int frameByteCount(int width, int height, ByteBuffer source) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Frame dimensions must be positive");
+    }
+    int byteCount = Math.multiplyExact(Math.multiplyExact(width, height), 4);
+    if (source.remaining() != byteCount) {
+      throw new IllegalArgumentException("Frame pixel buffer size does not match its dimensions");
+    }
+    return byteCount;
+  }
+
+  private static void copyRows(
+      ByteBuffer source, ByteBuffer target, int frameWidth, BrowserDirtyRegion region) {
+    int strideBytes = frameWidth * 4;
+    int rowBytes = region.width() * 4;
+    int offset = region.y() * strideBytes + region.x() * 4;
+    int sourceBase = source.position();
+    for (int row = 0; row < region.height(); row++) {
+      target.put(offset, source, sourceBase + offset, rowBytes);
+      offset += strideBytes;
+    }
+  }
+
+  private static void releaseFrame(BrowserFrame frame) {
+    if (frame != null) {
+      frame.release();
+    }
+  }
+
+  private List<BrowserDirtyRegion> normalizePaintDirtyRegions(
       int frameWidth, int frameHeight, List<BrowserDirtyRegion> dirtyRegions) {
     List<BrowserDirtyRegion> validatedRegions =
         Objects.requireNonNull(dirtyRegions, "dirtyRegions");
@@ -139,7 +368,9 @@ public final class GrapheneFrameBuffer {
     }
     List<BrowserDirtyRegion> normalizedRegions =
         clipDirtyRegions(frameWidth, frameHeight, validatedRegions);
-    return normalizedRegions.isEmpty() ? fullFrame(frameWidth, frameHeight) : normalizedRegions;
+    return normalizedRegions.isEmpty()
+        ? fullFrame(frameWidth, frameHeight)
+        : dirtyRegionCoalescer.coalesce(normalizedRegions);
   }
 
   private static List<BrowserDirtyRegion> clipDirtyRegions(
@@ -164,10 +395,66 @@ public final class GrapheneFrameBuffer {
     return List.of(new BrowserDirtyRegion(0, 0, width, height));
   }
 
-  private static ByteBuffer writableCopy(ByteBuffer source) {
-    ByteBuffer copy = ByteBuffer.allocateDirect(source.remaining());
-    copy.put(source.duplicate());
-    copy.flip();
-    return copy;
+  /**
+   * Dirty regions of the most recent consecutive frames, used to bring a recycled store from the
+   * frame it holds up to the frame being produced.
+   */
+  private static final class DamageHistory {
+    private final ArrayDeque<List<BrowserDirtyRegion>> frames =
+        new ArrayDeque<>(DAMAGE_HISTORY_FRAMES);
+    private final GrapheneDirtyRegionCoalescer coalescer;
+    private long latestTag = GrapheneFrameBufferPool.UNTAGGED;
+
+    DamageHistory(GrapheneDirtyRegionCoalescer coalescer) {
+      this.coalescer = coalescer;
+    }
+
+    /**
+     * Returns the regions changed after {@code storedTag} through {@code currentTag}, or {@code
+     * null} when the history cannot cover that span or the regions add up to a complete frame.
+     */
+    List<BrowserDirtyRegion> staleRegions(
+        long storedTag,
+        long currentTag,
+        List<BrowserDirtyRegion> currentRegions,
+        long framePixels) {
+      long recordedFrames = latestTag - storedTag;
+      if (storedTag == GrapheneFrameBufferPool.UNTAGGED
+          || latestTag != currentTag - 1
+          || recordedFrames < 0
+          || recordedFrames > frames.size()) {
+        return null;
+      }
+      List<BrowserDirtyRegion> staleRegions = new ArrayList<>();
+      long skippedFrames = frames.size() - recordedFrames;
+      for (List<BrowserDirtyRegion> frameRegions : frames) {
+        if (skippedFrames-- <= 0) {
+          staleRegions.addAll(frameRegions);
+        }
+      }
+      staleRegions.addAll(currentRegions);
+      List<BrowserDirtyRegion> coalescedRegions = coalescer.coalesce(staleRegions);
+      long stalePixels = 0;
+      for (BrowserDirtyRegion region : coalescedRegions) {
+        stalePixels += (long) region.width() * region.height();
+      }
+      return stalePixels >= framePixels ? null : coalescedRegions;
+    }
+
+    void record(long tag, List<BrowserDirtyRegion> regions) {
+      if (tag != latestTag + 1) {
+        frames.clear();
+      }
+      if (frames.size() == DAMAGE_HISTORY_FRAMES) {
+        frames.removeFirst();
+      }
+      frames.addLast(regions);
+      latestTag = tag;
+    }
+
+    void reset() {
+      frames.clear();
+      latestTag = GrapheneFrameBufferPool.UNTAGGED;
+    }
   }
 }
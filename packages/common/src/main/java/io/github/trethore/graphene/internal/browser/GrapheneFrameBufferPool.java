@@ -0,0 +1,100 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+public final class GrapheneFrameBufferPool {
+  public static final int DEFAULT_CAPACITY = 3;
+  public static final long UNTAGGED = 0;
+
+  private final int capacity;
+  private final ArrayDeque<TaggedBuffer> availableBuffers;
+  private int bufferBytes;
+  private int borrowedBuffers;
+  private long allocations;
+  private long reuses;
+
+  public GrapheneFrameBufferPool() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public GrapheneFrameBufferPool(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be >= 1");
+    }
+    this.capacity = capacity;
+    this.availableBuffers = new ArrayDeque<>(capacity);
+  }
+
+  /**
+   * Borrows a direct buffer of exactly {@code byteCount} bytes. The buffer is positioned at zero
+   * and limited to {@code byteCount}; its previous contents are unspecified.
+   */
+  public ByteBuffer acquire(int byteCount) {
+    return acquireTagged(byteCount).buffer();
+  }
+
+  /**
+   * Borrows a buffer like {@link #acquire(int)} together with the content tag it was recycled with,
+   * so callers can bring previously written contents up to date instead of rewriting them.
+   */
+  public synchronized TaggedBuffer acquireTagged(int byteCount) {
+    if (byteCount <= 0) {
+      throw new IllegalArgumentException("byteCount must be positive");
+    }
+    if (byteCount != bufferBytes) {
+      availableBuffers.clear();
+      bufferBytes = byteCount;
+    }
+    TaggedBuffer buffer = availableBuffers.pollFirst();
+    if (buffer == null) {
+      buffer = new TaggedBuffer(ByteBuffer.allocateDirect(byteCount), UNTAGGED);
+      allocations++;
+    } else {
+      reuses++;
+    }
+    borrowedBuffers++;
+    buffer.buffer().clear();
+    return buffer;
+  }
+
+  /** Returns a borrowed buffer. Buffers of a stale size or beyond capacity are discarded. */
+  public void recycle(ByteBuffer buffer) {
+    recycle(buffer, UNTAGGED);
+  }
+
+  /** Returns a borrowed buffer and records a tag describing its current contents. */
+  public synchronized void recycle(ByteBuffer buffer, long contentTag) {
+    if (borrowedBuffers > 0) {
+      borrowedBuffers--;
+    }
+    if (buffer.capacity() == bufferBytes && availableBuffers.size() < capacity) {
+      availableBuffers.addFirst(new TaggedBuffer(buffer, contentTag));
+    }
+  }
+
+  /** Drops idle buffers and discards buffers recycled after this call. */
+  public synchronized void clear() {
+    availableBuffers.clear();
+    bufferBytes = 0;
+  }
+
+  public synchronized Occupancy occupancy() {
+    return new Occupancy(
+        capacity, bufferBytes, borrowedBuffers, availableBuffers.size(), allocations, reuses);
+  }
+
+  /**
+   * A snapshot of pool usage. Steady-state rendering reuses buffers, so {@code allocations} stops
+   * increasing once the working set has been allocated.
+   */
+  public record Occupancy(
+      int capacity,
+      int bufferBytes,
+      int borrowedBuffers,
+      int availableBuffers,
+      long allocations,
+      long reuses) {}
+
+  public record TaggedBuffer(ByteBuffer buffer, long contentTag) {}
+}
@@ -30,7 +30,7 @@ public final class GrapheneFrameEventBus implements AutoCloseable {
       return;
     }
     closed = true;
-    pendingFrame.set(null);
+    releaseFrame(pendingFrame.getAndSet(null));
     listeners.close();
   }
 
@@ -40,12 +40,14 @@ public final class GrapheneFrameEventBus implements AutoCloseable {
 
   public void publish(BrowserFrame frame) {
     BrowserFrame validatedFrame = Objects.requireNonNull(frame, "frame");
-    if (closed || listeners.isEmpty()) {
+    if (closed || listeners.isEmpty() || !validatedFrame.retain()) {
       return;
     }
-    pendingFrame.set(validatedFrame);
+    releaseFrame(pendingFrame.getAndSet(validatedFrame));
     if (closed) {
-      pendingFrame.compareAndSet(validatedFrame, null);
+      if (pendingFrame.compareAndSet(validatedFrame, null)) {
+        validatedFrame.release();
+      }
       return;
     }
     scheduleNotificationDispatch();
@@ -58,7 +60,7 @@ public final class GrapheneFrameEventBus implements AutoCloseable {
     try {
       taskExecutor.execute(this::dispatchPendingFrames);
     } catch (RuntimeException exception) {
-      pendingFrame.set(null);
+      releaseFrame(pendingFrame.getAndSet(null));
       pendingNotifications.set(0);
       throw exception;
     }
@@ -68,10 +70,23 @@ public final class GrapheneFrameEventBus implements AutoCloseable {
     int notifications = 1;
     do {
       BrowserFrame frame = pendingFrame.getAndSet(null);
-      if (!closed && frame != null) {
-        listeners.dispatch(listener -> listener.onFrame(frame), LOGGER, "browser frame listener");
+      if (frame != null) {
+        try {
+          if (!closed) {
+            listeners.dispatch(
+                listener -> listener.onFrame(frame), LOGGER, "browser frame listener");
+          }
+        } finally {
+          frame.release();
+        }
       }
       notifications = pendingNotifications.addAndGet(-notifications);
     } while (notifications != 0);
   }
+
+  private static void releaseFrame(BrowserFrame frame) {
+    if (frame != null) {
+      frame.release();
+    }
+  }
 }
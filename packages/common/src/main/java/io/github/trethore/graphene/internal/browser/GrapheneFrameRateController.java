@@ -0,0 +1,87 @@
+package io.github.trethore.graphene.internal.browser;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserFrameRatePolicy;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public final class GrapheneFrameRateController {
+  private static final long NO_PAINT = Long.MIN_VALUE;
+  private static final double SIGNIFICANT_DIRTY_FRACTION = 0.001;
+  private static final double ANIMATED_RATE_FRACTION = 0.75;
+  private static final double PAINT_RATE_SMOOTHING = 0.25;
+
+  private final int maximumFrameRate;
+  private final int idleFrameRate;
+  private final long idleDelayNanos;
+  private long lastActivity;
+  private long lastSignificantPaint = NO_PAINT;
+  private double paintRate;
+  private int appliedFrameRate;
+
+  public GrapheneFrameRateController(
+      BrowserFrameRatePolicy policy, int maximumFrameRate, long nowNanos) {
+    Objects.requireNonNull(policy, "policy");
+    if (maximumFrameRate <= 0) {
+      throw new IllegalArgumentException("maximumFrameRate must be positive");
+    }
+    this.maximumFrameRate = maximumFrameRate;
+    if (policy instanceof BrowserFrameRatePolicy.Adaptive adaptive) {
+      this.idleFrameRate = Math.min(adaptive.idleFrameRate(), maximumFrameRate);
+      this.idleDelayNanos = adaptive.idleDelay().toNanos();
+    } else {
+      this.idleFrameRate = maximumFrameRate;
+      this.idleDelayNanos = 0;
+    }
+    this.lastActivity = nowNanos;
+    this.appliedFrameRate = maximumFrameRate;
+  }
+
+  public synchronized void recordInput(long nowNanos) {
+    lastActivity = nowNanos;
+  }
+
+  /**
+   * Records a main-frame paint. Paints covering less than a thousandth of the frame, such as a
+   * blinking caret, are ignored; the smoothed rate of the remaining paints marks the page as
+   * animating while it stays above three quarters of the idle frame rate, which an animation capped
+   * at the idle rate still reaches.
+   */
+  public synchronized void recordPaint(
+      long nowNanos, List<BrowserDirtyRegion> dirtyRegions, int width, int height) {
+    long dirtyPixels = 0;
+    for (BrowserDirtyRegion region : dirtyRegions) {
+      dirtyPixels += (long) region.width() * region.height();
+    }
+    if (dirtyPixels < (long) width * height * SIGNIFICANT_DIRTY_FRACTION) {
+      return;
+    }
+    if (lastSignificantPaint != NO_PAINT) {
+      long interval = Math.max(1, nowNanos - lastSignificantPaint);
+      double instantRate = (double) TimeUnit.SECONDS.toNanos(1) / interval;
+      paintRate += PAINT_RATE_SMOOTHING * (instantRate - paintRate);
+      if (paintRate >= idleFrameRate * ANIMATED_RATE_FRACTION) {
+        lastActivity = nowNanos;
+      }
+    }
+    lastSignificantPaint = nowNanos;
+  }
+
+  public synchronized int targetFrameRate(long nowNanos) {
+    return nowNanos - lastActivity < idleDelayNanos ? maximumFrameRate : idleFrameRate;
+  }
+
+  /**
+   * Returns the frame rate to apply when it differs from the one returned last time, or {@code 0}
+   * when the browser already runs at the target rate.
+   */
+  public synchronized int frameRateChange(long nowNanos) {
+    int target = targetFrameRate(nowNanos);
+    if (target == appliedFrameRate) {
+      return 0;
+    }
+    appliedFrameRate = target;
+    return target;
+  }
+}
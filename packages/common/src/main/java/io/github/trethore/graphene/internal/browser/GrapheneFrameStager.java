@@ -0,0 +1,402 @@
+package io.github.trethore.graphene.internal.browser;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts frames into packed texture uploads on a worker thread so that the render thread only
+ * copies prepared bytes to the GPU. Only the latest frame is staged; damage from frames that were
+ * skipped is merged into it, and a staged frame records which texture contents it applies to.
+ */
+public final class GrapheneFrameStager implements AutoCloseable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GrapheneFrameStager.class);
+  private static final int MAX_PARTIAL_UPLOADS = 64;
+  private static final double FULL_UPLOAD_THRESHOLD = 0.45;
+  private static final int STAGING_BUFFERS = 3;
+  private static final ExecutorService SHARED_WORKER =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "Graphene Frame Staging");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final Object lock = new Object();
+  private final boolean transparent;
+  private final Executor executor;
+  private final GrapheneFrameBufferPool stagingPool = new GrapheneFrameBufferPool(STAGING_BUFFERS);
+  private final GrapheneDirtyRegionCoalescer coalescer = new GrapheneDirtyRegionCoalescer();
+  private PendingFrame pendingFrame;
+  private StagedFrame readyFrame;
+  private boolean workerScheduled;
+  private boolean closed;
+
+  public GrapheneFrameStager(boolean transparent) {
+    this(transparent, SHARED_WORKER);
+  }
+
+  public GrapheneFrameStager(boolean transparent, Executor executor) {
+    this.transparent = transparent;
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  /**
+   * Queues {@code frame} for conversion. The frame is retained until the worker has converted it or
+   * a newer frame replaces it.
+   */
+  public void stage(BrowserFrame frame) {
+    BrowserFrame validatedFrame = Objects.requireNonNull(frame, "frame");
+    synchronized (lock) {
+      if (closed || !validatedFrame.retain()) {
+        return;
+      }
+      PendingFrame previous = pendingFrame;
+      pendingFrame =
+          previous == null ? PendingFrame.of(validatedFrame) : previous.followedBy(validatedFrame);
+      if (previous != null) {
+        previous.frame().release();
+      }
+      if (workerScheduled) {
+        return;
+      }
+      workerScheduled = true;
+    }
+    try {
+      executor.execute(this::stagePendingFrames);
+    } catch (RuntimeException exception) {
+      synchronized (lock) {
+        workerScheduled = false;
+        releasePending();
+      }
+      LOGGER.warn("Failed to schedule browser frame staging", exception);
+    }
+  }
+
+  /**
+   * Takes the staged upload for {@code sequence}, or returns {@code null} when it is not ready yet.
+   * Staged uploads for older sequences are discarded. The caller must {@link #recycle(StagedFrame)}
+   * the result once it has been uploaded.
+   */
+  public StagedFrame take(long sequence) {
+    synchronized (lock) {
+      StagedFrame staged = readyFrame;
+      if (staged == null || staged.sequence() > sequence) {
+        return null;
+      }
+      readyFrame = null;
+      if (staged.sequence() == sequence) {
+        return staged;
+      }
+      recycleLocked(staged);
+      return null;
+    }
+  }
+
+  public void recycle(StagedFrame staged) {
+    if (staged == null) {
+      return;
+    }
+    synchronized (lock) {
+      recycleLocked(staged);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      releasePending();
+      if (readyFrame != null) {
+        recycleLocked(readyFrame);
+        readyFrame = null;
+      }
+      stagingPool.clear();
+    }
+  }
+
+  /**
+   * Returns the RGBA-ordered layout written to browser textures. Frames already in that layout are
+   * uploaded without conversion; opaque browsers force the alpha byte to 255.
+   */
+  public static BrowserPixelFormat textureFormat(
+      BrowserPixelFormat frameFormat, boolean transparent) {
+    return frameFormat == BrowserPixelFormat.RGBX_8888_SRGB || !transparent
+        ? BrowserPixelFormat.RGBX_8888_SRGB
+        : BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB;
+  }
+
+  /**
+   * Returns whether uploading the whole frame is cheaper than uploading {@code dirtyRegions}
+   * separately: there are too many rectangles, or they cover most of the frame.
+   */
+  public static boolean requiresFullUpload(
+      int frameWidth, int frameHeight, List<BrowserDirtyRegion> dirtyRegions) {
+    if (dirtyRegions.size() >= MAX_PARTIAL_UPLOADS) {
+      return true;
+    }
+    long dirtyPixels = 0;
+    long framePixels = (long) frameWidth * frameHeight;
+    for (BrowserDirtyRegion region : dirtyRegions) {
+      int availableWidth = Math.max(0, frameWidth - region.x());
+      int availableHeight = Math.max(0, frameHeight - region.y());
+      int width = Math.clamp(region.width(), 0, availableWidth);
+      int height = Math.clamp(region.height(), 0, availableHeight);
+      dirtyPixels += (long) width * height;
+      if ((double) dirtyPixels / framePixels >= FULL_UPLOAD_THRESHOLD) {
+        return true;
+      }
+    }
+    return dirtyPixels == 0;
+  }
+
+  private void stagePendingFrames() {
+    while (true) {
+      PendingFrame job;
+      synchronized (lock) {
+        job = pendingFrame;
+        pendingFrame = null;
+        if (job == null || closed) {
+          workerScheduled = false;
+          return;
+        }
+        if (readyFrame != null) {
+          job = job.after(readyFrame);
+          recycleLocked(readyFrame);
+          readyFrame = null;
+        }
+      }
+      StagedFrame staged;
+      try {
+        staged = convert(job);
+      } catch (RuntimeException exception) {
+        LOGGER.warn("Failed to stage browser frame {}", job.frame().sequence(), exception);
+        staged = null;
+      } finally {
+        job.frame().release();
+      }
+      synchronized (lock) {
+        if (staged != null) {
+          if (closed) {
+            recycleLocked(staged);
+          } else {
+            readyFrame = staged;
+          }
+        }
+      }
+    }
+  }
+
+  private StagedFrame convert(PendingFrame job) {
+    BrowserFrame frame = job.frame();
+    int width = frame.width();
+    int height = frame.height();
+    BrowserPixelFormat textureFormat = textureFormat(frame.pixelFormat(), transparent);
+    boolean complete = job.complete();
+    List<BrowserDirtyRegion> regions =
+        complete ? List.of() : coalescer.coalesce(clip(width, height, job.dirtyRegions()));
+    if (complete || requiresFullUpload(width, height, regions)) {
+      complete = true;
+      regions = List.of(new BrowserDirtyRegion(0, 0, width, height));
+    }
+    ByteBuffer pixels = stagingPool.acquire(Math.multiplyExact(frame.rowStrideBytes(), height));
+    ByteBuffer source = frame.pixels();
+    List<StagedRegion> stagedRegions = new ArrayList<>(regions.size());
+    int offset = 0;
+    for (BrowserDirtyRegion region : regions) {
+      int rowBytes = region.width() * 4;
+      for (int row = 0; row < region.height(); row++) {
+        GraphenePixelConverter.convert(
+            source,
+            (region.y() + row) * frame.rowStrideBytes() + region.x() * 4,
+            frame.pixelFormat(),
+            pixels,
+            offset + row * rowBytes,
+            textureFormat,
+            region.width());
+      }
+      stagedRegions.add(new StagedRegion(region, offset));
+      offset += rowBytes * region.height();
+    }
+    return new StagedFrame(
+        frame.sequence(),
+        job.baseSequence(),
+        complete,
+        width,
+        height,
+        textureFormat,
+        List.copyOf(stagedRegions),
+        pixels);
+  }
+
+  private void recycleLocked(StagedFrame staged) {
+    if (closed) {
+      return;
+    }
+    ByteBuffer pixels = staged.storage;
+    staged.storage = null;
+    if (pixels != null) {
+      stagingPool.recycle(pixels);
+    }
+  }
+
+  private void releasePending() {
+    if (pendingFrame != null) {
+      pendingFrame.frame().release();
+      pendingFrame = null;
+    }
+  }
+
+  private static List<BrowserDirtyRegion> clip(
+      int frameWidth, int frameHeight, List<BrowserDirtyRegion> regions) {
+    List<BrowserDirtyRegion> clipped = new ArrayList<>(regions.size());
+    for (BrowserDirtyRegion region : regions) {
+      int width = Math.min(region.width(), frameWidth - region.x());
+      int height = Math.min(region.height(), frameHeight - region.y());
+      if (width > 0 && height > 0) {
+        clipped.add(new BrowserDirtyRegion(region.x(), region.y(), width, height));
+      }
+    }
+    return clipped;
+  }
+
+  /** One rectangle of a staged frame, packed at {@code offset} with tightly packed rows. */
+  public record StagedRegion(BrowserDirtyRegion region, int offset) {
+    public int byteCount() {
+      return region.width() * region.height() * 4;
+    }
+  }
+
+  /**
+   * Converted upload data for frame {@code sequence}. A complete staged frame replaces the whole
+   * texture; otherwise it only applies to a texture that holds frame {@code baseSequence}.
+   */
+  public static final class StagedFrame {
+    private final long sequence;
+    private final long baseSequence;
+    private final boolean complete;
+    private final int width;
+    private final int height;
+    private final BrowserPixelFormat pixelFormat;
+    private final List<StagedRegion> regions;
+    private final ByteBuffer pixels;
+    private ByteBuffer storage;
+
+    private StagedFrame(
+        long sequence,
+        long baseSequence,
+        boolean complete,
+        int width,
+        int height,
+        BrowserPixelFormat pixelFormat,
+        List<StagedRegion> regions,
+        ByteBuffer storage) {
+      this.sequence = sequence;
+      this.baseSequence = baseSequence;
+      this.complete = complete;
+      this.width = width;
+      this.height = height;
+      this.pixelFormat = pixelFormat;
+      this.regions = regions;
+      this.pixels = storage.asReadOnlyBuffer();
+      this.storage = storage;
+    }
+
+    public long sequence() {
+      return sequence;
+    }
+
+    public long baseSequence() {
+      return baseSequence;
+    }
+
+    public boolean complete() {
+      return complete;
+    }
+
+    public int width() {
+      return width;
+    }
+
+    public int height() {
+      return height;
+    }
+
+    public BrowserPixelFormat pixelFormat() {
+      return pixelFormat;
+    }
+
+    public List<StagedRegion> regions() {
+      return regions;
+    }
+
+    /** Returns the packed bytes of {@code region}, which must belong to this staged frame. */
+    public ByteBuffer pixels(StagedRegion region) {
+      return pixels.slice(region.offset(), region.byteCount());
+    }
+
+    /** Returns whether this upload can be applied to a texture holding {@code uploadedSequence}. */
+    public boolean appliesTo(long uploadedSequence) {
+      return complete || uploadedSequence == baseSequence;
+    }
+  }
+
+  private record PendingFrame(
+      BrowserFrame frame,
+      long baseSequence,
+      boolean complete,
+      List<BrowserDirtyRegion> dirtyRegions) {
+    static PendingFrame of(BrowserFrame frame) {
+      return new PendingFrame(frame, frame.sequence() - 1, false, frame.dirtyRegions());
+    }
+
+    PendingFrame followedBy(BrowserFrame next) {
+      if (next.sequence() != frame.sequence() + 1 || !sameSize(next)) {
+        return new PendingFrame(next, baseSequence, true, List.of());
+      }
+      return new PendingFrame(
+          next, baseSequence, complete, concat(dirtyRegions, next.dirtyRegions()));
+    }
+
+    PendingFrame after(StagedFrame staged) {
+      if (staged.sequence() != baseSequence
+          || staged.width() != frame.width()
+          || staged.height() != frame.height()) {
+        return this;
+      }
+      List<BrowserDirtyRegion> stagedRegions = new ArrayList<>(staged.regions().size());
+      for (StagedRegion region : staged.regions()) {
+        stagedRegions.add(region.region());
+      }
+      return new PendingFrame(
+          frame,
+          staged.baseSequence(),
+          complete || staged.complete(),
+          concat(stagedRegions, dirtyRegions));
+    }
+
+    private boolean sameSize(BrowserFrame next) {
+      return next.width() == frame.width() && next.height() == frame.height();
+    }
+
+    private static List<BrowserDirtyRegion> concat(
+        List<BrowserDirtyRegion> first, List<BrowserDirtyRegion> second) {
+      List<BrowserDirtyRegion> regions = new ArrayList<>(first.size() + second.size());
+      regions.addAll(first);
+      regions.addAll(second);
+      return regions;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts one pixel per {@code int} read and write. Buffers use big-endian order, so the first
+ * channel occupies the top byte and the alpha byte the bottom one.
+ */
+final class GrapheneIntLanePixelKernel implements GraphenePixelKernel {
+  private static final int KEEP_GREEN_AND_ALPHA = 0x00FF00FF;
+  private static final int OPAQUE_ALPHA = 0x000000FF;
+
+  @Override
+  public void convertRow(
+      ByteBuffer source,
+      int sourceOffset,
+      ByteBuffer target,
+      int targetOffset,
+      int pixelCount,
+      boolean swapRedBlue,
+      boolean opaque) {
+    int alpha = opaque ? OPAQUE_ALPHA : 0;
+    int sourceIndex = sourceOffset;
+    int targetIndex = targetOffset;
+    int sourceEnd = sourceOffset + pixelCount * 4;
+    if (swapRedBlue) {
+      while (sourceIndex < sourceEnd) {
+        target.putInt(targetIndex, swapRedBlue(source.getInt(sourceIndex)) | alpha);
+        sourceIndex += 4;
+        targetIndex += 4;
+      }
+    } else {
+      while (sourceIndex < sourceEnd) {
+        target.putInt(targetIndex, source.getInt(sourceIndex) | alpha);
+        sourceIndex += 4;
+        targetIndex += 4;
+      }
+    }
+  }
+
+  static int swapRedBlue(int pixel) {
+    return (pixel & KEEP_GREEN_AND_ALPHA)
+        | ((pixel >>> 16) & 0x0000FF00)
+        | ((pixel << 16) & 0xFF000000);
+  }
+}
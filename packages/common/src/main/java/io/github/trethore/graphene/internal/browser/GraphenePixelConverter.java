@@ -0,0 +1,95 @@
+package io.github.trethore.graphene.internal.browser;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class GraphenePixelConverter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GraphenePixelConverter.class);
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_KERNEL =
+      "io.github.trethore.graphene.internal.browser.GrapheneVectorPixelKernel";
+  private static final GraphenePixelKernel KERNEL = selectKernel();
+
+  private GraphenePixelConverter() {}
+
+  /**
+   * Converts {@code pixelCount} pixels starting at absolute byte offsets of {@code source} and
+   * {@code target}. Premultiplied color is copied unchanged; conversion only reorders channels and
+   * sets the unused byte of {@link BrowserPixelFormat#RGBX_8888_SRGB} to 255.
+   */
+  public static void convert(
+      ByteBuffer source,
+      int sourceOffset,
+      BrowserPixelFormat sourceFormat,
+      ByteBuffer target,
+      int targetOffset,
+      BrowserPixelFormat targetFormat,
+      int pixelCount) {
+    Objects.requireNonNull(sourceFormat, "sourceFormat");
+    Objects.requireNonNull(targetFormat, "targetFormat");
+    boolean swapRedBlue = isBgra(sourceFormat) != isBgra(targetFormat);
+    boolean opaque =
+        targetFormat == BrowserPixelFormat.RGBX_8888_SRGB && sourceFormat != targetFormat;
+    if (!swapRedBlue && !opaque) {
+      target.put(targetOffset, source, sourceOffset, Math.multiplyExact(pixelCount, 4));
+      return;
+    }
+    KERNEL.convertRow(source, sourceOffset, target, targetOffset, pixelCount, swapRedBlue, opaque);
+  }
+
+  /**
+   * Converts one rectangle between two tightly packed frames of {@code frameWidth} pixels. Both
+   * buffers are addressed from their current positions.
+   */
+  public static void convertRegion(
+      ByteBuffer source,
+      BrowserPixelFormat sourceFormat,
+      ByteBuffer target,
+      BrowserPixelFormat targetFormat,
+      int frameWidth,
+      BrowserDirtyRegion region) {
+    int strideBytes = frameWidth * 4;
+    int offset = region.y() * strideBytes + region.x() * 4;
+    int sourceBase = source.position();
+    int targetBase = target.position();
+    for (int row = 0; row < region.height(); row++) {
+      convert(
+          source,
+          sourceBase + offset,
+          sourceFormat,
+          target,
+          targetBase + offset,
+          targetFormat,
+          region.width());
+      offset += strideBytes;
+    }
+  }
+
+  /**
+   * Uses the vector kernel when the JVM was started with {@code --add-modules
+   * jdk.incubator.vector}. The kernel class is loaded reflectively so that JVMs without the module
+   * never link against it.
+   */
+  private static GraphenePixelKernel selectKernel() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      try {
+        GraphenePixelKernel kernel =
+            (GraphenePixelKernel)
+                Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        LOGGER.debug("Using vector pixel conversion kernel");
+        return kernel;
+      } catch (ReflectiveOperationException | LinkageError exception) {
+        LOGGER.debug("Vector pixel conversion kernel is unavailable", exception);
+      }
+    }
+    return new GrapheneIntLanePixelKernel();
+  }
+
+  private static boolean isBgra(BrowserPixelFormat format) {
+    return format == BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB;
+  }
+}
@@ -0,0 +1,18 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Rewrites one row of four-byte pixels between two layouts that share the green channel and the
+ * trailing alpha byte. Offsets are absolute and neither buffer position is changed.
+ */
+interface GraphenePixelKernel {
+  void convertRow(
+      ByteBuffer source,
+      int sourceOffset,
+      ByteBuffer target,
+      int targetOffset,
+      int pixelCount,
+      boolean swapRedBlue,
+      boolean opaque);
+}
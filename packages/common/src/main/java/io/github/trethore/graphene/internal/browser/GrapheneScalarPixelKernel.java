@@ -0,0 +1,31 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+
+/** Byte-at-a-time reference implementation that the faster kernels must match exactly. */
+final class GrapheneScalarPixelKernel implements GraphenePixelKernel {
+  @Override
+  public void convertRow(
+      ByteBuffer source,
+      int sourceOffset,
+      ByteBuffer target,
+      int targetOffset,
+      int pixelCount,
+      boolean swapRedBlue,
+      boolean opaque) {
+    int sourceIndex = sourceOffset;
+    int targetIndex = targetOffset;
+    for (int pixel = 0; pixel < pixelCount; pixel++) {
+      byte first = source.get(sourceIndex);
+      byte second = source.get(sourceIndex + 1);
+      byte third = source.get(sourceIndex + 2);
+      byte alpha = source.get(sourceIndex + 3);
+      target.put(targetIndex, swapRedBlue ? third : first);
+      target.put(targetIndex + 1, second);
+      target.put(targetIndex + 2, swapRedBlue ? first : third);
+      target.put(targetIndex + 3, opaque ? (byte) 0xFF : alpha);
+      sourceIndex += 4;
+      targetIndex += 4;
+    }
+  }
+}
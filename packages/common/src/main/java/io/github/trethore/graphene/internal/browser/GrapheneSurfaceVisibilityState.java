@@ -0,0 +1,44 @@
+package io.github.trethore.graphene.internal.browser;
+
+public final class GrapheneSurfaceVisibilityState {
+  private final int suspendAfterUnrenderedFrames;
+  private int unrenderedFrames;
+  private boolean suspended;
+
+  public GrapheneSurfaceVisibilityState(int suspendAfterUnrenderedFrames) {
+    if (suspendAfterUnrenderedFrames < 0) {
+      throw new IllegalArgumentException("suspendAfterUnrenderedFrames must not be negative");
+    }
+    this.suspendAfterUnrenderedFrames = suspendAfterUnrenderedFrames;
+  }
+
+  /**
+   * Records a delivered frame and returns {@code true} once the configured number of consecutive
+   * frames arrived without a render in between, meaning the session should be hidden.
+   */
+  public boolean frameDelivered() {
+    if (suspended || suspendAfterUnrenderedFrames == 0) {
+      return false;
+    }
+    unrenderedFrames++;
+    if (unrenderedFrames < suspendAfterUnrenderedFrames) {
+      return false;
+    }
+    suspended = true;
+    return true;
+  }
+
+  /** Records a render and returns {@code true} when a suspended session should be shown again. */
+  public boolean rendered() {
+    unrenderedFrames = 0;
+    if (!suspended) {
+      return false;
+    }
+    suspended = false;
+    return true;
+  }
+
+  public boolean suspended() {
+    return suspended;
+  }
+}
@@ -2,6 +2,8 @@ package io.github.trethore.graphene.internal.cef;
 
 import io.github.trethore.graphene.api.config.BrowserFileAccessPolicy;
 import io.github.trethore.graphene.api.url.GrapheneClasspathUrls;
+import io.github.trethore.graphene.internal.bridge.GrapheneBridgeBinaryStore;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
 import io.github.trethore.graphene.internal.url.GrapheneAppUrls;
 import io.github.trethore.jcefgithub.MavenCefAppHandlerAdapter;
 import java.util.Objects;
@@ -18,10 +20,13 @@ final class GrapheneCefAppHandler extends MavenCefAppHandlerAdapter {
       "profile.default_content_setting_values.file_system_access_extended_permission";
 
   private final BrowserFileAccessPolicy fileAccessPolicy;
+  private final GrapheneBridgeBinaryStore binaryStore;
   private boolean handlersRegistered;
 
-  GrapheneCefAppHandler(BrowserFileAccessPolicy fileAccessPolicy) {
+  GrapheneCefAppHandler(
+      BrowserFileAccessPolicy fileAccessPolicy, GrapheneBridgeBinaryStore binaryStore) {
     this.fileAccessPolicy = Objects.requireNonNull(fileAccessPolicy, "fileAccessPolicy");
+    this.binaryStore = Objects.requireNonNull(binaryStore, "binaryStore");
   }
 
   @Override
@@ -47,7 +52,8 @@ final class GrapheneCefAppHandler extends MavenCefAppHandlerAdapter {
     context.setPreference(EXTENDED_PERMISSION, contentSetting);
     CefApp cefApp = CefApp.getInstance();
     if (cefApp != null) {
-      GrapheneClasspathSchemeHandlerFactory factory = new GrapheneClasspathSchemeHandlerFactory();
+      GrapheneClasspathSchemeHandlerFactory factory =
+          new GrapheneClasspathSchemeHandlerFactory(binaryStore, GrapheneAssetCache.shared());
       cefApp.registerSchemeHandlerFactory(GrapheneAppUrls.SCHEME, "", factory);
       cefApp.registerSchemeHandlerFactory(GrapheneClasspathUrls.SCHEME, "", factory);
       handlersRegistered = true;
@@ -7,6 +7,7 @@ import io.github.trethore.graphene.api.browser.BrowserConsoleSeverity;
 import io.github.trethore.graphene.api.browser.BrowserCursor;
 import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserFrameMetrics;
 import io.github.trethore.graphene.api.browser.BrowserFrameListener;
 import io.github.trethore.graphene.api.browser.BrowserLoadCompleted;
 import io.github.trethore.graphene.api.browser.BrowserLoadFailed;
@@ -14,6 +15,7 @@ import io.github.trethore.graphene.api.browser.BrowserLoadListener;
 import io.github.trethore.graphene.api.browser.BrowserLoadStarted;
 import io.github.trethore.graphene.api.browser.BrowserLoadingState;
 import io.github.trethore.graphene.api.browser.BrowserOptions;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
 import io.github.trethore.graphene.api.browser.BrowserSession;
 import io.github.trethore.graphene.api.browser.BrowserTitleListener;
 import io.github.trethore.graphene.api.browser.BrowserUrlListener;
@@ -32,6 +34,7 @@ import io.github.trethore.graphene.internal.bridge.GrapheneBridgeRuntime;
 import io.github.trethore.graphene.internal.browser.GrapheneBrowserDisplayState;
 import io.github.trethore.graphene.internal.browser.GrapheneFrameBuffer;
 import io.github.trethore.graphene.internal.browser.GrapheneFrameEventBus;
+import io.github.trethore.graphene.internal.browser.GrapheneFrameRateController;
 import io.github.trethore.graphene.internal.event.GrapheneLoadEventBus;
 import io.github.trethore.graphene.internal.platform.GrapheneTaskExecutor;
 import java.awt.*;
@@ -71,8 +74,9 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
   private final GrapheneCefDownloadRegistry downloadRegistry;
   private final GrapheneLoadEventBus loadEvents = new GrapheneLoadEventBus();
   private final GrapheneBrowserDisplayState displayState;
-  private final GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+  private final GrapheneFrameBuffer frameBuffer;
   private final GrapheneFrameEventBus frameEvents;
+  private final GrapheneFrameRateController frameRateController;
   private final Component uiComponent = new Canvas();
   private final Rectangle viewRect;
   private final Consumer<GrapheneCefBrowserSession> closeCallback;
@@ -91,6 +95,7 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
   private String pendingUrl;
   private volatile boolean closed;
   private volatile boolean focused;
+  private volatile boolean visible = true;
   private volatile BrowserCursor requestedCursor = BrowserCursor.ARROW;
 
   GrapheneCefBrowserSession(
@@ -106,12 +111,16 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
       Consumer<GrapheneCefBrowserSession> closeCallback) {
     super(client, initialBrowserUrl(url, options), null, cefSettings(options));
     this.options = Objects.requireNonNull(options, "options");
+    this.frameBuffer = new GrapheneFrameBuffer(options.pixelFormat());
     this.downloadRegistry = new GrapheneCefDownloadRegistry(this, options.downloadPolicy());
     this.browserOptionsInitialized = !GrapheneCefBrowserOptions.requiresInitialization(options);
     this.pendingUrl = browserOptionsInitialized ? null : requireUrl(url);
     this.nativeWindowHandle = nativeWindowHandle;
     this.bridgeRuntime = Objects.requireNonNull(bridgeRuntime, "bridgeRuntime");
     this.frameEvents = new GrapheneFrameEventBus(mainThreadExecutor);
+    this.frameRateController =
+        new GrapheneFrameRateController(
+            options.frameRatePolicy(), options.maximumFrameRate(), System.nanoTime());
     this.displayState = new GrapheneBrowserDisplayState(getUrl());
     this.closeCallback = Objects.requireNonNull(closeCallback, "closeCallback");
     this.viewRect = new Rectangle(0, 0, requireDimension(width), requireDimension(height));
@@ -220,7 +229,9 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
         }
       }
     }
+    frameRateController.recordPaint(System.nanoTime(), regions, width, height);
     publishFrame(frameBuffer.capture(width, height, regions, pixels));
+    applyFrameRate();
   }
 
   @Override
@@ -279,28 +290,34 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
 
   @Override
   public CompletableFuture<BufferedImage> createScreenshot(boolean nativeResolution) {
-    Optional<BrowserFrame> availableFrame = latestFrame();
-    if (availableFrame.isEmpty()) {
+    BrowserFrame frame = closed ? null : frameBuffer.retainLatestFrame();
+    if (frame == null) {
       return CompletableFuture.failedFuture(
           new IllegalStateException("No browser frame is available"));
     }
-    BrowserFrame frame = availableFrame.get();
-    BufferedImage image =
-        new BufferedImage(frame.width(), frame.height(), BufferedImage.TYPE_INT_ARGB);
-    ByteBuffer pixels = frame.pixels();
-    for (int y = 0; y < frame.height(); y++) {
-      for (int x = 0; x < frame.width(); x++) {
-        int blue = Byte.toUnsignedInt(pixels.get());
-        int green = Byte.toUnsignedInt(pixels.get());
-        int red = Byte.toUnsignedInt(pixels.get());
-        int alpha = Byte.toUnsignedInt(pixels.get());
-        red = unpremultiply(red, alpha);
-        green = unpremultiply(green, alpha);
-        blue = unpremultiply(blue, alpha);
-        image.setRGB(x, y, alpha << 24 | red << 16 | green << 8 | blue);
+    try {
+      BufferedImage image =
+          new BufferedImage(frame.width(), frame.height(), BufferedImage.TYPE_INT_ARGB);
+      ByteBuffer pixels = frame.pixels();
+      boolean bgra = frame.pixelFormat() == BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB;
+      for (int y = 0; y < frame.height(); y++) {
+        for (int x = 0; x < frame.width(); x++) {
+          int first = Byte.toUnsignedInt(pixels.get());
+          int green = Byte.toUnsignedInt(pixels.get());
+          int third = Byte.toUnsignedInt(pixels.get());
+          int alpha = Byte.toUnsignedInt(pixels.get());
+          int red = bgra ? third : first;
+          int blue = bgra ? first : third;
+          red = unpremultiply(red, alpha);
+          green = unpremultiply(green, alpha);
+          blue = unpremultiply(blue, alpha);
+          image.setRGB(x, y, alpha << 24 | red << 16 | green << 8 | blue);
+        }
       }
+      return CompletableFuture.completedFuture(image);
+    } finally {
+      frame.release();
     }
-    return CompletableFuture.completedFuture(image);
   }
 
   @Override
@@ -443,6 +460,15 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
     wasResized(validatedWidth, validatedHeight);
   }
 
+  @Override
+  public synchronized void setVisible(boolean visible) {
+    if (closed || this.visible == visible) {
+      return;
+    }
+    this.visible = visible;
+    wasHidden(!visible);
+  }
+
   @Override
   public void setFocused(boolean focused) {
     this.focused = focused;
@@ -485,6 +511,7 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
   @Override
   public void sendPointerInput(BrowserPointerInput input) {
     BrowserPointerInput validatedInput = Objects.requireNonNull(input, INPUT_NAME);
+    recordInput();
     if (handleDragInput(validatedInput)) {
       return;
     }
@@ -493,13 +520,15 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
 
   @Override
   public void sendScrollInput(BrowserScrollInput input) {
-    sendCefMouseWheelEvent(
-        GrapheneCefInputTranslator.scroll(Objects.requireNonNull(input, INPUT_NAME)));
+    BrowserScrollInput validatedInput = Objects.requireNonNull(input, INPUT_NAME);
+    recordInput();
+    sendCefMouseWheelEvent(GrapheneCefInputTranslator.scroll(validatedInput));
   }
 
   @Override
   public void sendKeyInput(BrowserKeyInput input) {
     BrowserKeyInput validatedInput = Objects.requireNonNull(input, INPUT_NAME);
+    recordInput();
     if (validatedInput.action() == BrowserKeyAction.PRESS) {
       lastPressedKeyInput = validatedInput;
     }
@@ -511,16 +540,21 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
 
   @Override
   public void sendTextInput(BrowserTextInput input) {
-    for (CefKeyEvent event :
-        GrapheneCefInputTranslator.text(
-            Objects.requireNonNull(input, INPUT_NAME), lastPressedKeyInput)) {
+    BrowserTextInput validatedInput = Objects.requireNonNull(input, INPUT_NAME);
+    recordInput();
+    for (CefKeyEvent event : GrapheneCefInputTranslator.text(validatedInput, lastPressedKeyInput)) {
       sendCefKeyEvent(event);
     }
   }
 
   @Override
   public Optional<BrowserFrame> latestFrame() {
-    return closed ? Optional.empty() : Optional.ofNullable(frameBuffer.latestFrame());
+    return closed ? Optional.empty() : Optional.ofNullable(frameBuffer.retainLatestFrame());
+  }
+
+  @Override
+  public BrowserFrameMetrics frameMetrics() {
+    return frameBuffer.metrics();
   }
 
   @Override
@@ -634,6 +668,18 @@ final class GrapheneCefBrowserSession extends CefBrowserWindowless
     loadEvents.publish(event);
   }
 
+  private void recordInput() {
+    frameRateController.recordInput(System.nanoTime());
+    applyFrameRate();
+  }
+
+  private void applyFrameRate() {
+    int frameRate = frameRateController.frameRateChange(System.nanoTime());
+    if (frameRate > 0 && !closed) {
+      setWindowlessFrameRate(frameRate);
+    }
+  }
+
   private void publishFrame(BrowserFrame frame) {
     if (closed) {
       frameBuffer.clear();
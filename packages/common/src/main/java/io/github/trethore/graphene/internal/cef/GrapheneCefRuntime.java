@@ -76,7 +76,8 @@ public final class GrapheneCefRuntime implements GrapheneBrowserRuntime {
       return;
     }
     CefAppBuilder builder = GrapheneCefInstaller.createBuilder(config);
-    builder.setAppHandler(new GrapheneCefAppHandler(config.browserFileAccessPolicy()));
+    builder.setAppHandler(
+        new GrapheneCefAppHandler(config.browserFileAccessPolicy(), bridgeRuntime.binaryStore()));
     builder.setProgressHandler(
         (state, percent) ->
             startupPresenter.update(state.name(), percent < 0 ? -1.0 : percent / 100.0));
@@ -1,10 +1,13 @@
 package io.github.trethore.graphene.internal.cef;
 
 import io.github.trethore.graphene.api.url.GrapheneClasspathUrls;
+import io.github.trethore.graphene.internal.bridge.GrapheneBridgeBinaryStore;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
 import io.github.trethore.graphene.internal.resource.GrapheneMimeTypes;
 import io.github.trethore.graphene.internal.url.GrapheneAppUrls;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Map;
+import java.util.Objects;
 import org.cef.browser.CefBrowser;
 import org.cef.browser.CefFrame;
 import org.cef.callback.CefCallback;
@@ -17,23 +20,58 @@ import org.cef.network.CefRequest;
 import org.cef.network.CefResponse;
 
 final class GrapheneClasspathSchemeHandlerFactory implements CefSchemeHandlerFactory {
+  private static final int NO_BROWSER = -1;
+
+  private final GrapheneBridgeBinaryStore binaryStore;
+  private final GrapheneAssetCache assetCache;
+
+  GrapheneClasspathSchemeHandlerFactory(
+      GrapheneBridgeBinaryStore binaryStore, GrapheneAssetCache assetCache) {
+    this.binaryStore = Objects.requireNonNull(binaryStore, "binaryStore");
+    this.assetCache = Objects.requireNonNull(assetCache, "assetCache");
+  }
+
   @Override
   public CefResourceHandler create(
       CefBrowser browser, CefFrame frame, String schemeName, CefRequest request) {
-    return new ClasspathResourceHandler();
+    int browserIdentifier = browser == null ? NO_BROWSER : browser.getIdentifier();
+    return new ClasspathResourceHandler(binaryStore, assetCache, browserIdentifier);
   }
 
   private static final class ClasspathResourceHandler extends CefResourceHandlerAdapter {
     private static final byte[] EMPTY_RESPONSE = new byte[0];
+    private static final String BINARY_MIME_TYPE = "application/octet-stream";
+    private static final Map<String, String> BINARY_HEADERS =
+        Map.of("Access-Control-Allow-Origin", "*", "Cache-Control", "no-store");
 
+    private final GrapheneBridgeBinaryStore binaryStore;
+    private final GrapheneAssetCache assetCache;
+    private final int browserIdentifier;
     private byte[] responseBytes = EMPTY_RESPONSE;
     private String mimeType = "text/plain";
     private int readOffset;
     private boolean found;
+    private boolean binary;
+
+    private ClasspathResourceHandler(
+        GrapheneBridgeBinaryStore binaryStore,
+        GrapheneAssetCache assetCache,
+        int browserIdentifier) {
+      this.binaryStore = binaryStore;
+      this.assetCache = assetCache;
+      this.browserIdentifier = browserIdentifier;
+    }
 
     @Override
     public boolean processRequest(CefRequest request, CefCallback callback) {
-      String resourcePath = normalizeResourcePath(request.getURL());
+      String url = request.getURL();
+      if (GrapheneBridgeBinaryStore.isBinaryUrl(url)) {
+        processBinaryRequest(url);
+        callback.Continue();
+        return true;
+      }
+
+      String resourcePath = normalizeResourcePath(url);
       ResourceResult resource = readResource(resourcePath);
       responseBytes = resource.bytes();
       found = resource.found();
@@ -45,9 +83,22 @@ final class GrapheneClasspathSchemeHandlerFactory implements CefSchemeHandlerFac
       return true;
     }
 
+    private void processBinaryRequest(String url) {
+      byte[] payload =
+          browserIdentifier == NO_BROWSER ? null : binaryStore.take(browserIdentifier, url);
+      binary = true;
+      found = payload != null;
+      responseBytes = found ? payload : EMPTY_RESPONSE;
+      mimeType = BINARY_MIME_TYPE;
+      readOffset = 0;
+    }
+
     @Override
     public void getResponseHeaders(
         CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+      if (binary) {
+        response.setHeaderMap(BINARY_HEADERS);
+      }
       response.setMimeType(mimeType);
       response.setStatus(found ? 200 : 404);
       responseLength.set(responseBytes.length);
@@ -80,15 +131,13 @@ final class GrapheneClasspathSchemeHandlerFactory implements CefSchemeHandlerFac
       return appPath.isBlank() ? GrapheneClasspathUrls.normalizeResourcePath(url) : appPath;
     }
 
-    private static ResourceResult readResource(String path) {
+    private ResourceResult readResource(String path) {
       if (path.isBlank()) {
         return ResourceResult.notFound();
       }
-      try (InputStream input =
-          GrapheneClasspathSchemeHandlerFactory.class.getClassLoader().getResourceAsStream(path)) {
-        return input == null
-            ? ResourceResult.notFound()
-            : ResourceResult.found(input.readAllBytes());
+      try {
+        GrapheneAssetCache.Asset asset = assetCache.readClasspathResource(path);
+        return asset == null ? ResourceResult.notFound() : ResourceResult.found(asset.bytes());
       } catch (IOException exception) {
         return ResourceResult.notFound();
       }
@@ -0,0 +1,82 @@
+package io.github.trethore.graphene.internal.http;
+
+import com.sun.net.httpserver.Headers;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/** Cache validators and conditional request evaluation for served assets (RFC 9110 13.1). */
+final class GrapheneHttpCaching {
+  static final String HEADER_CACHE_CONTROL = "Cache-Control";
+  static final String HEADER_ETAG = "ETag";
+  static final String HEADER_LAST_MODIFIED = "Last-Modified";
+  static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+  private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+  private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+  private static final String WEAK_PREFIX = "W/";
+  private static final DateTimeFormatter HTTP_DATE =
+      DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+          .withZone(ZoneOffset.UTC);
+
+  private GrapheneHttpCaching() {}
+
+  static String formatHttpDate(long epochMillis) {
+    return HTTP_DATE.format(Instant.ofEpochMilli(epochMillis));
+  }
+
+  /**
+   * Returns a strong validator for a file streamed from disk, derived from its modification time
+   * and size so that large files are never hashed.
+   */
+  static String fileEntityTag(long lastModifiedMillis, long size) {
+    return '"' + Long.toHexString(lastModifiedMillis) + '-' + Long.toHexString(size) + '"';
+  }
+
+  /**
+   * Returns whether the client's cached copy is current. {@code If-None-Match} takes precedence,
+   * and {@code If-Modified-Since} is only consulted when the asset's modification time is known.
+   */
+  static boolean isNotModified(Headers requestHeaders, String entityTag, long lastModifiedMillis) {
+    String ifNoneMatch = requestHeaders.getFirst(HEADER_IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      return entityTag != null && matchesAnyEntityTag(ifNoneMatch, entityTag);
+    }
+
+    String ifModifiedSince = requestHeaders.getFirst(HEADER_IF_MODIFIED_SINCE);
+    if (ifModifiedSince == null
+        || lastModifiedMillis == GrapheneAssetCache.Asset.UNKNOWN_LAST_MODIFIED) {
+      return false;
+    }
+    try {
+      long sinceSeconds =
+          ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+              .toEpochSecond();
+      return lastModifiedMillis / 1000 <= sinceSeconds;
+    } catch (DateTimeException ignored) {
+      // Invalid dates are ignored as the specification requires.
+      return false;
+    }
+  }
+
+  private static boolean matchesAnyEntityTag(String ifNoneMatch, String entityTag) {
+    for (String candidate : ifNoneMatch.split(",")) {
+      String trimmedCandidate = candidate.trim();
+      if (trimmedCandidate.equals("*")) {
+        return true;
+      }
+      // If-None-Match uses the weak comparison function.
+      if (trimmedCandidate.startsWith(WEAK_PREFIX)) {
+        trimmedCandidate = trimmedCandidate.substring(WEAK_PREFIX.length());
+      }
+      if (trimmedCandidate.equals(entityTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,99 @@
+package io.github.trethore.graphene.internal.http;
+
+import com.sun.net.httpserver.Headers;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/** {@code Accept-Encoding} negotiation for served assets (RFC 9110 12.5.3). */
+final class GrapheneHttpContentEncoding {
+  static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+  static final String HEADER_VARY = "Vary";
+  static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
+  private static final String ANY_CODING = "*";
+  private static final String QUALITY_PARAMETER = "q=";
+
+  private GrapheneHttpContentEncoding() {}
+
+  /** Returns the codings the client accepts, ignoring ones it rejects with {@code q=0}. */
+  static Set<Coding> acceptedCodings(Headers requestHeaders) {
+    Set<Coding> acceptedCodings = EnumSet.noneOf(Coding.class);
+    Set<Coding> rejectedCodings = EnumSet.noneOf(Coding.class);
+    boolean acceptsAnyCoding = false;
+    for (String acceptEncoding : requestHeaders.getOrDefault(HEADER_ACCEPT_ENCODING, List.of())) {
+      for (String element : acceptEncoding.split(",")) {
+        String[] parts = element.split(";");
+        String token = parts[0].trim().toLowerCase(Locale.ROOT);
+        boolean accepted = parseQuality(parts) > 0;
+        if (token.equals(ANY_CODING)) {
+          acceptsAnyCoding = accepted;
+          continue;
+        }
+
+        Coding coding = Coding.fromToken(token);
+        if (coding != null) {
+          (accepted ? acceptedCodings : rejectedCodings).add(coding);
+        }
+      }
+    }
+
+    if (acceptsAnyCoding) {
+      // "*" matches every coding not listed explicitly.
+      EnumSet<Coding> unlistedCodings = EnumSet.allOf(Coding.class);
+      unlistedCodings.removeAll(rejectedCodings);
+      acceptedCodings.addAll(unlistedCodings);
+    }
+    acceptedCodings.removeAll(rejectedCodings);
+    return acceptedCodings;
+  }
+
+  private static double parseQuality(String[] parts) {
+    for (int index = 1; index < parts.length; index++) {
+      String parameter = parts[index].trim().toLowerCase(Locale.ROOT);
+      if (!parameter.startsWith(QUALITY_PARAMETER)) {
+        continue;
+      }
+      try {
+        return Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length()));
+      } catch (NumberFormatException ignored) {
+        // Malformed weights are treated as a rejection.
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  /** Content codings the server can send, in order of preference. */
+  enum Coding {
+    BROTLI("br", ".br"),
+    GZIP("gzip", ".gz");
+
+    private final String token;
+    private final String fileSuffix;
+
+    Coding(String token, String fileSuffix) {
+      this.token = token;
+      this.fileSuffix = fileSuffix;
+    }
+
+    String token() {
+      return token;
+    }
+
+    /** Suffix of a precompressed sibling, such as {@code app.js.gz}. */
+    String fileSuffix() {
+      return fileSuffix;
+    }
+
+    private static Coding fromToken(String token) {
+      for (Coding coding : values()) {
+        if (coding.token.equals(token)) {
+          return coding;
+        }
+      }
+      return null;
+    }
+  }
+}
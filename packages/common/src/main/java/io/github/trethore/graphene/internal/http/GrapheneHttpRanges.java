@@ -0,0 +1,121 @@
+package io.github.trethore.graphene.internal.http;
+
+import com.sun.net.httpserver.Headers;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/** Single-range {@code Range} request evaluation for served assets (RFC 9110 14). */
+final class GrapheneHttpRanges {
+  static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+  static final String HEADER_CONTENT_RANGE = "Content-Range";
+  static final String BYTES_UNIT = "bytes";
+
+  private static final String HEADER_RANGE = "Range";
+  private static final String HEADER_IF_RANGE = "If-Range";
+  private static final String BYTES_PREFIX = BYTES_UNIT + "=";
+
+  private GrapheneHttpRanges() {}
+
+  /**
+   * Returns the requested range of a representation of {@code contentLength} bytes, {@link
+   * ByteRange#FULL} when the whole representation should be sent, or {@link
+   * ByteRange#UNSATISFIABLE}. Multiple ranges and malformed headers are answered with the full
+   * representation, which the specification allows.
+   */
+  static ByteRange requestedRange(
+      Headers requestHeaders, long contentLength, String entityTag, long lastModifiedMillis) {
+    String range = requestHeaders.getFirst(HEADER_RANGE);
+    if (range == null
+        || !ifRangeMatches(
+            requestHeaders.getFirst(HEADER_IF_RANGE), entityTag, lastModifiedMillis)) {
+      return ByteRange.FULL;
+    }
+
+    String trimmedRange = range.trim();
+    if (!trimmedRange.regionMatches(true, 0, BYTES_PREFIX, 0, BYTES_PREFIX.length())) {
+      return ByteRange.FULL;
+    }
+    String rangeSpec = trimmedRange.substring(BYTES_PREFIX.length()).trim();
+    int separatorIndex = rangeSpec.indexOf('-');
+    if (separatorIndex < 0 || rangeSpec.indexOf(',') >= 0) {
+      return ByteRange.FULL;
+    }
+
+    try {
+      String firstBytePosition = rangeSpec.substring(0, separatorIndex).trim();
+      String lastBytePosition = rangeSpec.substring(separatorIndex + 1).trim();
+      if (firstBytePosition.isEmpty()) {
+        // Suffix range: the final N bytes.
+        long suffixLength = Long.parseLong(lastBytePosition);
+        if (suffixLength <= 0 || contentLength == 0) {
+          return ByteRange.UNSATISFIABLE;
+        }
+        long start = Math.max(0, contentLength - suffixLength);
+        return new ByteRange(start, contentLength - start);
+      }
+
+      long start = Long.parseLong(firstBytePosition);
+      if (start < 0) {
+        return ByteRange.FULL;
+      }
+      if (start >= contentLength) {
+        return ByteRange.UNSATISFIABLE;
+      }
+      long end =
+          lastBytePosition.isEmpty()
+              ? contentLength - 1
+              : Math.min(Long.parseLong(lastBytePosition), contentLength - 1);
+      if (end < start) {
+        return ByteRange.FULL;
+      }
+      return new ByteRange(start, end - start + 1);
+    } catch (NumberFormatException ignored) {
+      // Malformed ranges are ignored as the specification requires.
+      return ByteRange.FULL;
+    }
+  }
+
+  static String contentRange(ByteRange range, long contentLength) {
+    return BYTES_UNIT
+        + ' '
+        + range.start()
+        + '-'
+        + (range.start() + range.length() - 1)
+        + '/'
+        + contentLength;
+  }
+
+  static String unsatisfiedContentRange(long contentLength) {
+    return BYTES_UNIT + " */" + contentLength;
+  }
+
+  // If-Range only honours the range while the client's copy is current, using strong comparison.
+  private static boolean ifRangeMatches(String ifRange, String entityTag, long lastModifiedMillis) {
+    if (ifRange == null) {
+      return true;
+    }
+
+    String trimmedIfRange = ifRange.trim();
+    if (trimmedIfRange.startsWith("\"") || trimmedIfRange.startsWith("W/")) {
+      return trimmedIfRange.equals(entityTag);
+    }
+    if (lastModifiedMillis == GrapheneAssetCache.Asset.UNKNOWN_LAST_MODIFIED) {
+      return false;
+    }
+    try {
+      long ifRangeSeconds =
+          ZonedDateTime.parse(trimmedIfRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+      return lastModifiedMillis / 1000 == ifRangeSeconds;
+    } catch (DateTimeException ignored) {
+      return false;
+    }
+  }
+
+  /** A byte range of {@code length} bytes starting at {@code start}. */
+  record ByteRange(long start, long length) {
+    static final ByteRange FULL = new ByteRange(0, -1);
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+  }
+}
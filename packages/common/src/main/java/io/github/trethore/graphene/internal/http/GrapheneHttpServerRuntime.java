@@ -7,23 +7,35 @@ import com.sun.net.httpserver.HttpServer;
 import io.github.trethore.graphene.api.config.GrapheneHttpConfig;
 import io.github.trethore.graphene.api.runtime.GrapheneHttpServer;
 import io.github.trethore.graphene.api.url.AssetId;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
 import io.github.trethore.graphene.internal.resource.GrapheneMimeTypes;
 import io.github.trethore.graphene.internal.url.GrapheneHttpUrls;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, AutoCloseable {
   private static final String PATH_DELIMITER = "/";
@@ -33,24 +45,33 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
   private static final String HEADER_CONTENT_TYPE = "Content-Type";
   private static final String HEADER_ALLOW = "Allow";
   private static final String CONTENT_TYPE_TEXT_PLAIN = "text/plain";
+  private static final String DEFAULT_CACHE_CONTROL = "no-cache";
+  private static final int MIN_COMPRESSIBLE_BYTES = 1024;
   private static final String HTTP_SCHEME = "http";
   private static final byte[] EMPTY_BYTES = new byte[0];
   private static final GrapheneHttpServerRuntime DISABLED =
-      new GrapheneHttpServerRuntime("", -1, "", null, false);
+      new GrapheneHttpServerRuntime("", -1, "", null, null, false);
 
   private final String host;
   private final int port;
   private final String baseUrl;
   private final HttpServer server;
+  private final ExecutorService requestExecutor;
   private final GrapheneHttpUrls urls;
   private volatile boolean running;
 
   private GrapheneHttpServerRuntime(
-      String host, int port, String baseUrl, HttpServer server, boolean running) {
+      String host,
+      int port,
+      String baseUrl,
+      HttpServer server,
+      ExecutorService requestExecutor,
+      boolean running) {
     this.host = host;
     this.port = port;
     this.baseUrl = baseUrl;
     this.server = server;
+    this.requestExecutor = requestExecutor;
     this.running = running;
     this.urls = new GrapheneHttpUrls(this::runningBaseUrl);
   }
@@ -60,6 +81,12 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
   }
 
   public static GrapheneHttpServerRuntime start(Map<String, GrapheneHttpConfig> consumerConfigs) {
+    return start(consumerConfigs, GrapheneAssetCache.shared());
+  }
+
+  static GrapheneHttpServerRuntime start(
+      Map<String, GrapheneHttpConfig> consumerConfigs, GrapheneAssetCache assetCache) {
+    Objects.requireNonNull(assetCache, "assetCache");
     Map<String, GrapheneHttpConfig> validatedConsumerConfigs =
         validateConsumerConfigs(consumerConfigs);
     if (validatedConsumerConfigs.isEmpty()) {
@@ -70,13 +97,34 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
     InetAddress bindAddress = resolveLoopbackAddress(mergedConfig.bindHost());
     HttpServer server = createServer(mergedConfig, bindAddress);
     Map<String, HttpMount> mounts = createMounts(validatedConsumerConfigs);
-    server.createContext(PATH_DELIMITER, new RoutingHttpHandler(mounts));
+    server.createContext(PATH_DELIMITER, new RoutingHttpHandler(mounts, assetCache));
+    ExecutorService requestExecutor = createRequestExecutor(mergedConfig.requestExecution());
+    server.setExecutor(
+        new BoundedExecutor(
+            requestExecutor, mergedConfig.requestExecution().maxConcurrentRequests()));
     server.start();
 
     int boundPort = server.getAddress().getPort();
     String baseUrl = buildBaseUrl(bindAddress.getHostAddress(), boundPort);
     return new GrapheneHttpServerRuntime(
-        bindAddress.getHostAddress(), boundPort, baseUrl, server, true);
+        bindAddress.getHostAddress(), boundPort, baseUrl, server, requestExecutor, true);
+  }
+
+  private static ExecutorService createRequestExecutor(HttpRequestExecution execution) {
+    if (execution.mode() == GrapheneHttpConfig.RequestExecution.VIRTUAL_THREADS) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("Graphene HTTP Virtual ", 1).factory());
+    }
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        execution.maxConcurrentRequests(),
+        runnable -> {
+          Thread thread =
+              new Thread(runnable, "Graphene HTTP Worker " + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
   }
 
   private static Map<String, GrapheneHttpConfig> validateConsumerConfigs(
@@ -104,7 +152,9 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
               httpConfig
                   .spaFallback()
                   .map(AbstractGrapheneHttpHandler::requireSafeRequestPath)
-                  .orElse(null)));
+                  .orElse(null),
+              httpConfig.cacheControl(),
+              httpConfig.immutableResourcePattern().map(Pattern::compile).orElse(null)));
     }
 
     return Map.copyOf(mounts);
@@ -114,6 +164,7 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       Map<String, GrapheneHttpConfig> consumerConfigs) {
     OwnedValue<String> selectedBindHost = null;
     OwnedValue<HttpPortBinding> selectedPortBinding = null;
+    OwnedValue<HttpRequestExecution> selectedRequestExecution = null;
 
     for (Map.Entry<String, GrapheneHttpConfig> consumerConfigEntry : consumerConfigs.entrySet()) {
       String consumerId = consumerConfigEntry.getKey();
@@ -124,6 +175,12 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       selectedPortBinding =
           mergeOwnedValue(
               selectedPortBinding, HttpPortBinding.of(httpConfig), consumerId, "HTTP port binding");
+      selectedRequestExecution =
+          mergeOwnedValue(
+              selectedRequestExecution,
+              HttpRequestExecution.of(httpConfig),
+              consumerId,
+              "HTTP request execution");
     }
 
     String bindHost = selectedBindHost == null ? "127.0.0.1" : selectedBindHost.value();
@@ -131,8 +188,12 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
         selectedPortBinding == null
             ? HttpPortBinding.of(GrapheneHttpConfig.builder().build())
             : selectedPortBinding.value();
+    HttpRequestExecution requestExecution =
+        selectedRequestExecution == null
+            ? HttpRequestExecution.of(GrapheneHttpConfig.builder().build())
+            : selectedRequestExecution.value();
     return new MergedHttpServerConfig(
-        bindHost, portBinding.fixedPort(), portBinding.randomPortRange());
+        bindHost, portBinding.fixedPort(), portBinding.randomPortRange(), requestExecution);
   }
 
   private static <T> OwnedValue<T> mergeOwnedValue(
@@ -207,20 +268,18 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
     }
   }
 
-  private static InputStream openClasspathResource(String path) {
-    ClassLoader classLoader = GrapheneHttpServerRuntime.class.getClassLoader();
-    return classLoader.getResourceAsStream(path);
-  }
-
-  private static ResourceResponse loadClasspathResource(String normalizedPath) {
-    try (InputStream inputStream = openClasspathResource(normalizedPath)) {
-      if (inputStream == null) {
+  private static ResourceResponse loadClasspathResource(
+      GrapheneAssetCache assetCache, String normalizedPath) {
+    try {
+      GrapheneAssetCache.Asset asset = assetCache.readClasspathResource(normalizedPath);
+      if (asset == null) {
         return new ResourceResponse(404, CONTENT_TYPE_TEXT_PLAIN, EMPTY_BYTES);
       }
 
-      byte[] payload = inputStream.readAllBytes();
-      String contentType = GrapheneMimeTypes.resolve(normalizedPath);
-      return new ResourceResponse(200, contentType, payload);
+      return ResourceResponse.found(
+          GrapheneMimeTypes.resolve(normalizedPath),
+          asset,
+          ResourceSource.classpath(normalizedPath));
     } catch (IOException ignored) {
       // Failed to read classpath resource payload.
       return new ResourceResponse(404, CONTENT_TYPE_TEXT_PLAIN, EMPTY_BYTES);
@@ -263,6 +322,31 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
 
     running = false;
     server.stop(0);
+    requestExecutor.shutdownNow();
+  }
+
+  /** Runs at most {@code maxConcurrentRequests} exchanges at once; the rest wait for a permit. */
+  private static final class BoundedExecutor implements Executor {
+    private final Executor delegate;
+    private final Semaphore permits;
+
+    private BoundedExecutor(Executor delegate, int maxConcurrentRequests) {
+      this.delegate = delegate;
+      this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      delegate.execute(
+          () -> {
+            permits.acquireUninterruptibly();
+            try {
+              command.run();
+            } finally {
+              permits.release();
+            }
+          });
+    }
   }
 
   @SuppressWarnings("java:S6206")
@@ -270,11 +354,122 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
     private final int statusCode;
     private final String contentType;
     private final byte[] payload;
+    private final String entityTag;
+    private final long lastModifiedMillis;
+    private final String cacheControl;
+    private final String contentEncoding;
+    private final ResourceSource source;
+    private final Path streamedFile;
+    private final long contentLength;
 
     private ResourceResponse(int statusCode, String contentType, byte[] payload) {
+      this(
+          statusCode,
+          contentType,
+          payload,
+          null,
+          GrapheneAssetCache.Asset.UNKNOWN_LAST_MODIFIED,
+          null,
+          null,
+          null,
+          null,
+          -1);
+    }
+
+    private ResourceResponse(
+        int statusCode,
+        String contentType,
+        byte[] payload,
+        String entityTag,
+        long lastModifiedMillis,
+        String cacheControl,
+        String contentEncoding,
+        ResourceSource source,
+        Path streamedFile,
+        long streamedFileSize) {
       this.statusCode = statusCode;
       this.contentType = contentType;
       this.payload = payload == null ? EMPTY_BYTES : payload;
+      this.entityTag = entityTag;
+      this.lastModifiedMillis = lastModifiedMillis;
+      this.cacheControl = cacheControl;
+      this.contentEncoding = contentEncoding;
+      this.source = source;
+      this.streamedFile = streamedFile;
+      this.contentLength = streamedFile == null ? this.payload.length : streamedFileSize;
+    }
+
+    private static ResourceResponse found(
+        String contentType, GrapheneAssetCache.Asset asset, ResourceSource source) {
+      return new ResourceResponse(
+          200,
+          contentType,
+          asset.bytes(),
+          asset.entityTag(),
+          asset.lastModifiedMillis(),
+          DEFAULT_CACHE_CONTROL,
+          null,
+          source,
+          null,
+          -1);
+    }
+
+    /** A file too large for the asset cache, sent straight from disk on every request. */
+    private static ResourceResponse streamed(
+        String contentType, Path file, BasicFileAttributes attributes, ResourceSource source) {
+      long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+      return new ResourceResponse(
+          200,
+          contentType,
+          EMPTY_BYTES,
+          GrapheneHttpCaching.fileEntityTag(lastModifiedMillis, attributes.size()),
+          lastModifiedMillis,
+          DEFAULT_CACHE_CONTROL,
+          null,
+          source,
+          file,
+          attributes.size());
+    }
+
+    private ResourceResponse withCacheControl(String cacheControl) {
+      if (statusCode != 200) {
+        return this;
+      }
+      return new ResourceResponse(
+          statusCode,
+          contentType,
+          payload,
+          entityTag,
+          lastModifiedMillis,
+          cacheControl,
+          contentEncoding,
+          source,
+          streamedFile,
+          contentLength);
+    }
+
+    private ResourceResponse withEncoding(
+        GrapheneHttpContentEncoding.Coding coding, GrapheneAssetCache.Asset encodedAsset) {
+      return new ResourceResponse(
+          statusCode,
+          contentType,
+          encodedAsset.bytes(),
+          encodedAsset.entityTag(),
+          lastModifiedMillis,
+          cacheControl,
+          coding.token(),
+          source,
+          null,
+          -1);
+    }
+
+    /** Whether another representation could be negotiated through {@code Accept-Encoding}. */
+    private boolean isNegotiable() {
+      return statusCode == 200
+          && source != null
+          && streamedFile == null
+          && payload.length >= MIN_COMPRESSIBLE_BYTES
+          && GrapheneMimeTypes.isCompressible(contentType);
     }
 
     private int statusCode() {
@@ -288,6 +483,58 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
     private byte[] payload() {
       return payload;
     }
+
+    private String entityTag() {
+      return entityTag;
+    }
+
+    private long lastModifiedMillis() {
+      return lastModifiedMillis;
+    }
+
+    private String cacheControl() {
+      return cacheControl;
+    }
+
+    private String contentEncoding() {
+      return contentEncoding;
+    }
+
+    private ResourceSource source() {
+      return source;
+    }
+
+    private long contentLength() {
+      return contentLength;
+    }
+
+    /** Whether byte ranges can be served; encoded representations are always sent whole. */
+    private boolean acceptsRanges() {
+      return statusCode == 200 && source != null && contentEncoding == null;
+    }
+
+    private void writeBody(OutputStream outputStream, long start, long length) throws IOException {
+      if (streamedFile == null) {
+        outputStream.write(payload, Math.toIntExact(start), Math.toIntExact(length));
+        return;
+      }
+
+      // The exchange body is not a socket channel, so transferTo copies through a small reusable
+      // buffer and heap use stays flat regardless of the file size.
+      try (FileChannel fileChannel = FileChannel.open(streamedFile, StandardOpenOption.READ)) {
+        WritableByteChannel bodyChannel = Channels.newChannel(outputStream);
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+          long transferred = fileChannel.transferTo(position, remaining, bodyChannel);
+          if (transferred <= 0) {
+            throw new IOException("File shrank while streaming: " + streamedFile);
+          }
+          position += transferred;
+          remaining -= transferred;
+        }
+      }
+    }
   }
 
   private abstract static class AbstractGrapheneHttpHandler implements HttpHandler {
@@ -351,6 +598,32 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       }
     }
 
+    private static void setEncodingHeaders(Headers responseHeaders, ResourceResponse response) {
+      if (response.isNegotiable()) {
+        responseHeaders.set(
+            GrapheneHttpContentEncoding.HEADER_VARY,
+            GrapheneHttpContentEncoding.HEADER_ACCEPT_ENCODING);
+      }
+      if (response.contentEncoding() != null) {
+        responseHeaders.set(
+            GrapheneHttpContentEncoding.HEADER_CONTENT_ENCODING, response.contentEncoding());
+      }
+    }
+
+    private static void setCacheHeaders(Headers responseHeaders, ResourceResponse response) {
+      if (response.cacheControl() != null) {
+        responseHeaders.set(GrapheneHttpCaching.HEADER_CACHE_CONTROL, response.cacheControl());
+      }
+      if (response.entityTag() != null) {
+        responseHeaders.set(GrapheneHttpCaching.HEADER_ETAG, response.entityTag());
+      }
+      if (response.lastModifiedMillis() != GrapheneAssetCache.Asset.UNKNOWN_LAST_MODIFIED) {
+        responseHeaders.set(
+            GrapheneHttpCaching.HEADER_LAST_MODIFIED,
+            GrapheneHttpCaching.formatHttpDate(response.lastModifiedMillis()));
+      }
+    }
+
     @Override
     public final void handle(HttpExchange exchange) throws IOException {
       if (exchange == null) {
@@ -382,26 +655,143 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
           return;
         }
 
-        ResourceResponse response = loadResourceResponse(requestPath, true);
-        send(
-            exchange,
-            response.statusCode(),
-            response.contentType(),
-            response.payload(),
-            isHeadRequest);
+        ResourceResponse response =
+            encodeResourceResponse(
+                loadResourceResponse(requestPath, true), exchange.getRequestHeaders());
+        setEncodingHeaders(exchange.getResponseHeaders(), response);
+        setCacheHeaders(exchange.getResponseHeaders(), response);
+        if (response.statusCode() == 200
+            && !isPostRequest
+            && GrapheneHttpCaching.isNotModified(
+                exchange.getRequestHeaders(),
+                response.entityTag(),
+                response.lastModifiedMillis())) {
+          exchange.sendResponseHeaders(304, -1);
+          return;
+        }
+
+        if (!response.acceptsRanges()) {
+          send(
+              exchange,
+              response.statusCode(),
+              response.contentType(),
+              response.payload(),
+              isHeadRequest);
+          return;
+        }
+
+        sendRanged(exchange, response, isHeadRequest, isPostRequest);
+      }
+    }
+
+    private static void sendRanged(
+        HttpExchange exchange, ResourceResponse response, boolean headRequest, boolean postRequest)
+        throws IOException {
+      Headers responseHeaders = exchange.getResponseHeaders();
+      responseHeaders.set(HEADER_CONTENT_TYPE, response.contentType());
+      responseHeaders.set(GrapheneHttpRanges.HEADER_ACCEPT_RANGES, GrapheneHttpRanges.BYTES_UNIT);
+
+      long contentLength = response.contentLength();
+      GrapheneHttpRanges.ByteRange range =
+          postRequest
+              ? GrapheneHttpRanges.ByteRange.FULL
+              : GrapheneHttpRanges.requestedRange(
+                  exchange.getRequestHeaders(),
+                  contentLength,
+                  response.entityTag(),
+                  response.lastModifiedMillis());
+      if (range == GrapheneHttpRanges.ByteRange.UNSATISFIABLE) {
+        responseHeaders.set(
+            GrapheneHttpRanges.HEADER_CONTENT_RANGE,
+            GrapheneHttpRanges.unsatisfiedContentRange(contentLength));
+        exchange.sendResponseHeaders(416, -1);
+        return;
+      }
+
+      int statusCode = 200;
+      long start = 0;
+      long length = contentLength;
+      if (range != GrapheneHttpRanges.ByteRange.FULL) {
+        statusCode = 206;
+        start = range.start();
+        length = range.length();
+        responseHeaders.set(
+            GrapheneHttpRanges.HEADER_CONTENT_RANGE,
+            GrapheneHttpRanges.contentRange(range, contentLength));
+      }
+
+      if (headRequest) {
+        responseHeaders.set("Content-Length", Long.toString(length));
+        exchange.sendResponseHeaders(statusCode, -1);
+        return;
+      }
+
+      // A zero length tells the server to use chunked encoding, so empty bodies send -1 instead.
+      exchange.sendResponseHeaders(statusCode, length == 0 ? -1 : length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        response.writeBody(outputStream, start, length);
       }
     }
 
     protected abstract ResourceResponse loadResourceResponse(
         String requestPath, boolean allowSpaFallback);
+
+    protected ResourceResponse encodeResourceResponse(
+        ResourceResponse response, Headers requestHeaders) {
+      return response;
+    }
   }
 
   private static final class RoutingHttpHandler extends AbstractGrapheneHttpHandler {
-    private final AssetHttpHandler assetHttpHandler = new AssetHttpHandler();
+    private final GrapheneAssetCache assetCache;
+    private final AssetHttpHandler assetHttpHandler;
     private final ModHttpHandler modHttpHandler;
 
-    private RoutingHttpHandler(Map<String, HttpMount> mounts) {
-      this.modHttpHandler = new ModHttpHandler(mounts);
+    private RoutingHttpHandler(Map<String, HttpMount> mounts, GrapheneAssetCache assetCache) {
+      this.assetCache = Objects.requireNonNull(assetCache, "assetCache");
+      this.assetHttpHandler = new AssetHttpHandler(assetCache);
+      this.modHttpHandler = new ModHttpHandler(mounts, assetCache);
+    }
+
+    /**
+     * Prefers a precompressed sibling such as {@code app.js.br} in the client's accepted codings,
+     * and otherwise gzips the payload once through the asset cache.
+     */
+    @Override
+    protected ResourceResponse encodeResourceResponse(
+        ResourceResponse response, Headers requestHeaders) {
+      if (!response.isNegotiable()) {
+        return response;
+      }
+
+      Set<GrapheneHttpContentEncoding.Coding> acceptedCodings =
+          GrapheneHttpContentEncoding.acceptedCodings(requestHeaders);
+      if (acceptedCodings.isEmpty()) {
+        return response;
+      }
+
+      try {
+        for (GrapheneHttpContentEncoding.Coding coding : acceptedCodings) {
+          GrapheneAssetCache.Asset precompressed =
+              response.source().readPrecompressed(assetCache, coding, response);
+          if (precompressed != null) {
+            return response.withEncoding(coding, precompressed);
+          }
+        }
+
+        if (acceptedCodings.contains(GrapheneHttpContentEncoding.Coding.GZIP)) {
+          GrapheneAssetCache.Asset gzipped =
+              assetCache.gzip(
+                  new GrapheneAssetCache.Asset(
+                      response.payload(), response.entityTag(), response.lastModifiedMillis()));
+          if (gzipped.bytes().length < response.payload().length) {
+            return response.withEncoding(GrapheneHttpContentEncoding.Coding.GZIP, gzipped);
+          }
+        }
+      } catch (IOException ignored) {
+        // Fall back to the identity representation.
+      }
+      return response;
     }
 
     @Override
@@ -419,17 +809,25 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
   }
 
   private static final class AssetHttpHandler extends AbstractGrapheneHttpHandler {
+    private final GrapheneAssetCache assetCache;
+
+    private AssetHttpHandler(GrapheneAssetCache assetCache) {
+      this.assetCache = Objects.requireNonNull(assetCache, "assetCache");
+    }
+
     @Override
     protected ResourceResponse loadResourceResponse(String requestPath, boolean allowSpaFallback) {
-      return loadClasspathResource(requestPath);
+      return loadClasspathResource(assetCache, requestPath);
     }
   }
 
   private static final class ModHttpHandler extends AbstractGrapheneHttpHandler {
     private final Map<String, HttpMount> mounts;
+    private final GrapheneAssetCache assetCache;
 
-    private ModHttpHandler(Map<String, HttpMount> mounts) {
+    private ModHttpHandler(Map<String, HttpMount> mounts, GrapheneAssetCache assetCache) {
       this.mounts = Objects.requireNonNull(mounts, "mounts");
+      this.assetCache = Objects.requireNonNull(assetCache, "assetCache");
     }
 
     private ResourceResponse loadFileResource(Path fileRoot, String normalizedPath) {
@@ -461,9 +859,16 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       }
 
       try {
-        byte[] payload = Files.readAllBytes(realResolvedPath);
         String contentType = GrapheneMimeTypes.resolve(normalizedPath);
-        return new ResourceResponse(200, contentType, payload);
+        ResourceSource source = ResourceSource.file(realRoot, realResolvedPath);
+        BasicFileAttributes attributes =
+            Files.readAttributes(realResolvedPath, BasicFileAttributes.class);
+        if (!assetCache.isCacheable(attributes.size())) {
+          return ResourceResponse.streamed(contentType, realResolvedPath, attributes, source);
+        }
+
+        GrapheneAssetCache.Asset asset = assetCache.readFile(realResolvedPath);
+        return ResourceResponse.found(contentType, asset, source);
       } catch (IOException ignored) {
         // Failed to read filesystem resource payload.
         return new ResourceResponse(500, CONTENT_TYPE_TEXT_PLAIN, EMPTY_BYTES);
@@ -482,7 +887,7 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
         return fileSystemResponse;
       }
 
-      return loadClasspathResource(toMountedClasspathPath(modId, normalizedPath));
+      return loadClasspathResource(assetCache, toMountedClasspathPath(modId, normalizedPath));
     }
 
     private String toMountedClasspathPath(String modId, String normalizedPath) {
@@ -497,7 +902,7 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       }
 
       if (normalizedPath.startsWith(ASSETS_PREFIX)) {
-        return loadClasspathResource(normalizedPath);
+        return loadClasspathResource(assetCache, normalizedPath);
       }
 
       if (normalizedPath.startsWith(MODS_PREFIX)) {
@@ -520,7 +925,8 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
       }
 
       ResourceResponse directResponse =
-          loadMountedResource(modRequestPath.modId(), mount, modRequestPath.resourcePath());
+          loadMountedResource(modRequestPath.modId(), mount, modRequestPath.resourcePath())
+              .withCacheControl(mount.cacheControlFor(modRequestPath.resourcePath()));
       if (directResponse.statusCode() != 404) {
         return directResponse;
       }
@@ -532,7 +938,8 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
         return directResponse;
       }
 
-      return loadSpaFallbackResource(modRequestPath.modId(), mount, spaFallbackResourcePath);
+      return loadSpaFallbackResource(modRequestPath.modId(), mount, spaFallbackResourcePath)
+          .withCacheControl(mount.cacheControl());
     }
 
     private ModRequestPath parseRequestPath(String requestPath) {
@@ -565,10 +972,69 @@ public final class GrapheneHttpServerRuntime implements GrapheneHttpServer, Auto
     }
   }
 
-  private record MergedHttpServerConfig(
-      String bindHost, Integer fixedPort, GrapheneHttpConfig.PortRange randomPortRange) {}
+  private record HttpRequestExecution(
+      GrapheneHttpConfig.RequestExecution mode, int maxConcurrentRequests) {
+    private static HttpRequestExecution of(GrapheneHttpConfig httpConfig) {
+      return new HttpRequestExecution(
+          httpConfig.requestExecution(), httpConfig.maxConcurrentRequests());
+    }
+  }
 
-  private record HttpMount(Path fileRoot, String spaFallbackResourcePath) {}
+  private record MergedHttpServerConfig(
+      String bindHost,
+      Integer fixedPort,
+      GrapheneHttpConfig.PortRange randomPortRange,
+      HttpRequestExecution requestExecution) {}
+
+  private record HttpMount(
+      Path fileRoot,
+      String spaFallbackResourcePath,
+      String cacheControl,
+      Pattern immutableResourcePattern) {
+    private String cacheControlFor(String resourcePath) {
+      if (immutableResourcePattern != null
+          && immutableResourcePattern
+              .matcher(AbstractGrapheneHttpHandler.normalizeRequestPath(resourcePath))
+              .matches()) {
+        return GrapheneHttpCaching.IMMUTABLE_CACHE_CONTROL;
+      }
+      return cacheControl;
+    }
+  }
 
   private record ModRequestPath(String modId, String resourcePath) {}
+
+  /** Where a found resource was loaded from, used to look up its precompressed siblings. */
+  private record ResourceSource(Path fileRoot, Path file, String classpathPath) {
+    private static ResourceSource file(Path fileRoot, Path file) {
+      return new ResourceSource(fileRoot, file, null);
+    }
+
+    private static ResourceSource classpath(String classpathPath) {
+      return new ResourceSource(null, null, classpathPath);
+    }
+
+    private GrapheneAssetCache.Asset readPrecompressed(
+        GrapheneAssetCache assetCache,
+        GrapheneHttpContentEncoding.Coding coding,
+        ResourceResponse identity)
+        throws IOException {
+      if (classpathPath != null) {
+        return assetCache.readClasspathResource(classpathPath + coding.fileSuffix());
+      }
+
+      Path sibling = file.resolveSibling(file.getFileName() + coding.fileSuffix());
+      if (!Files.isRegularFile(sibling)
+          || !sibling.toRealPath().startsWith(fileRoot)
+          || !Files.isReadable(sibling)) {
+        return null;
+      }
+
+      GrapheneAssetCache.Asset precompressed = assetCache.readFile(sibling);
+      // A sibling older than its source was not regenerated after an edit.
+      return precompressed.lastModifiedMillis() < identity.lastModifiedMillis()
+          ? null
+          : precompressed;
+    }
+  }
 }
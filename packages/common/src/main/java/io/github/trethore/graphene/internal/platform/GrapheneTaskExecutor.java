@@ -9,6 +9,15 @@ public interface GrapheneTaskExecutor {
 
   <T> CompletableFuture<T> supply(Supplier<T> action);
 
+  /**
+   * Runs {@code action} on this executor's thread later, never inline from the calling thread. The
+   * default delegates to {@link #execute(Runnable)}, which suits executors that always queue;
+   * executors whose {@code execute} runs inline on their own thread must override it.
+   */
+  default void defer(Runnable action) {
+    execute(action);
+  }
+
   default <T> CompletableFuture<T> supplyStage(Supplier<CompletionStage<T>> action) {
     return supply(action).thenCompose(stage -> stage);
   }
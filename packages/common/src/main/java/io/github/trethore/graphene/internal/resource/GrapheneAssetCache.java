@@ -0,0 +1,231 @@
+package io.github.trethore.graphene.internal.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Byte-bounded LRU cache of asset payloads shared by the HTTP server and the {@code app://} scheme.
+ * Classpath entries are immutable once loaded; filesystem entries are revalidated against their
+ * modification time and size on every lookup so edits under a file root are served immediately.
+ * Each asset carries a strong entity tag computed once from its content, and gzip encodings are
+ * cached alongside their source under the same byte budget. Returned arrays are shared between
+ * callers and must not be modified.
+ */
+public final class GrapheneAssetCache {
+  private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+  private static final String CLASSPATH_KEY_PREFIX = "classpath:";
+  private static final String FILE_KEY_PREFIX = "file:";
+  private static final String GZIP_KEY_PREFIX = "gzip:";
+  private static final String GZIP_ENTITY_TAG_SUFFIX = "-gzip";
+  private static final int MAX_MISSING_CLASSPATH_RESOURCES = 1024;
+  private static final int ETAG_DIGEST_BYTES = 16;
+  private static final GrapheneAssetCache SHARED = new GrapheneAssetCache(DEFAULT_MAX_BYTES);
+
+  private final Object lock = new Object();
+  private final LinkedHashMap<String, Asset> entriesByKey = new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<String> missingClasspathKeys = new HashSet<>();
+  private final long maxBytes;
+  private final long maxEntryBytes;
+  private final ClassLoader classLoader;
+  private long cachedBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public GrapheneAssetCache(long maxBytes) {
+    this(maxBytes, GrapheneAssetCache.class.getClassLoader());
+  }
+
+  GrapheneAssetCache(long maxBytes, ClassLoader classLoader) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be >= 1");
+    }
+    this.maxBytes = maxBytes;
+    // A single large asset may not flush the rest of the cache.
+    this.maxEntryBytes = Math.max(1, maxBytes / 8);
+    this.classLoader = Objects.requireNonNull(classLoader, "classLoader");
+  }
+
+  public static GrapheneAssetCache shared() {
+    return SHARED;
+  }
+
+  /** Returns a classpath resource, or {@code null} when it does not exist. */
+  public Asset readClasspathResource(String path) throws IOException {
+    Objects.requireNonNull(path, "path");
+    String key = CLASSPATH_KEY_PREFIX + path;
+    Asset cached = lookup(key, asset -> true);
+    if (cached != null || isKnownMissing(key)) {
+      return cached;
+    }
+
+    byte[] bytes;
+    try (InputStream inputStream = classLoader.getResourceAsStream(path)) {
+      if (inputStream == null) {
+        rememberMissing(key);
+        return null;
+      }
+      bytes = inputStream.readAllBytes();
+    }
+    Asset asset = new Asset(bytes, entityTag(bytes), Asset.UNKNOWN_LAST_MODIFIED);
+    store(key, asset);
+    return asset;
+  }
+
+  /** Returns a regular file, reloading it when its modification time or size changed. */
+  public Asset readFile(Path file) throws IOException {
+    Path normalizedFile = Objects.requireNonNull(file, "file").toAbsolutePath().normalize();
+    String key = FILE_KEY_PREFIX + normalizedFile;
+    BasicFileAttributes attributes =
+        Files.readAttributes(normalizedFile, BasicFileAttributes.class);
+    long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+    Asset cached =
+        lookup(
+            key,
+            asset ->
+                asset.lastModifiedMillis() == lastModifiedMillis
+                    && asset.bytes().length == attributes.size());
+    if (cached != null) {
+      return cached;
+    }
+
+    byte[] bytes = Files.readAllBytes(normalizedFile);
+    Asset asset = new Asset(bytes, entityTag(bytes), lastModifiedMillis);
+    if (bytes.length == attributes.size()) {
+      store(key, asset);
+    }
+    return asset;
+  }
+
+  /**
+   * Returns the gzip encoding of {@code asset}. The result is keyed by the source entity tag, so
+   * identical content is compressed at most once while it stays cached.
+   */
+  public Asset gzip(Asset asset) throws IOException {
+    Objects.requireNonNull(asset, "asset");
+    String key = GZIP_KEY_PREFIX + asset.entityTag();
+    Asset cached = lookup(key, gzipped -> true);
+    if (cached != null) {
+      return cached;
+    }
+
+    ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream(asset.bytes().length / 4);
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBytes)) {
+      gzipOutputStream.write(asset.bytes());
+    }
+    // A distinct representation needs a distinct strong validator.
+    String entityTag = asset.entityTag();
+    Asset gzipped =
+        new Asset(
+            compressedBytes.toByteArray(),
+            entityTag.substring(0, entityTag.length() - 1) + GZIP_ENTITY_TAG_SUFFIX + '"',
+            asset.lastModifiedMillis());
+    store(key, gzipped);
+    return gzipped;
+  }
+
+  /** Returns whether an asset of {@code size} bytes fits in a single cache entry. */
+  public boolean isCacheable(long size) {
+    return size <= maxEntryBytes;
+  }
+
+  public Stats stats() {
+    synchronized (lock) {
+      return new Stats(hits, misses, evictions, entriesByKey.size(), cachedBytes);
+    }
+  }
+
+  public void clear() {
+    synchronized (lock) {
+      entriesByKey.clear();
+      missingClasspathKeys.clear();
+      cachedBytes = 0;
+    }
+  }
+
+  private static String entityTag(byte[] bytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      return '"' + HexFormat.of().formatHex(digest, 0, ETAG_DIGEST_BYTES) + '"';
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 is not available", exception);
+    }
+  }
+
+  private Asset lookup(String key, Predicate<Asset> fresh) {
+    synchronized (lock) {
+      Asset asset = entriesByKey.get(key);
+      if (asset == null || !fresh.test(asset)) {
+        misses++;
+        return null;
+      }
+      hits++;
+      return asset;
+    }
+  }
+
+  private boolean isKnownMissing(String key) {
+    synchronized (lock) {
+      return missingClasspathKeys.contains(key);
+    }
+  }
+
+  // The classpath cannot change at runtime, so absent resources are remembered in a small set that
+  // is reset when full rather than scanned for again on every request.
+  private void rememberMissing(String key) {
+    synchronized (lock) {
+      if (missingClasspathKeys.size() >= MAX_MISSING_CLASSPATH_RESOURCES) {
+        missingClasspathKeys.clear();
+      }
+      missingClasspathKeys.add(key);
+    }
+  }
+
+  private void store(String key, Asset asset) {
+    if (asset.bytes().length > maxEntryBytes) {
+      return;
+    }
+
+    synchronized (lock) {
+      Asset previous = entriesByKey.put(key, asset);
+      if (previous != null) {
+        cachedBytes -= previous.bytes().length;
+      }
+      cachedBytes += asset.bytes().length;
+
+      Iterator<Map.Entry<String, Asset>> eldest = entriesByKey.entrySet().iterator();
+      while (cachedBytes > maxBytes && eldest.hasNext()) {
+        Map.Entry<String, Asset> evicted = eldest.next();
+        eldest.remove();
+        cachedBytes -= evicted.getValue().bytes().length;
+        evictions++;
+      }
+    }
+  }
+
+  /** Point-in-time cache counters; a revalidated stale file counts as a miss. */
+  public record Stats(long hits, long misses, long evictions, int entryCount, long cachedBytes) {}
+
+  /**
+   * A loaded asset. {@code entityTag} is a quoted strong validator derived from the content, and
+   * {@code lastModifiedMillis} is {@link #UNKNOWN_LAST_MODIFIED} for classpath resources.
+   */
+  public record Asset(byte[] bytes, String entityTag, long lastModifiedMillis) {
+    public static final long UNKNOWN_LAST_MODIFIED = -1L;
+  }
+}
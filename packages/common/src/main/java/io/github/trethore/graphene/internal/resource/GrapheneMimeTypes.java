@@ -3,6 +3,7 @@ package io.github.trethore.graphene.internal.resource;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public final class GrapheneMimeTypes {
   public static final String DEFAULT_MIME_TYPE = "application/octet-stream";
@@ -28,6 +29,16 @@ public final class GrapheneMimeTypes {
           Map.entry("otf", "font/otf"),
           Map.entry("wasm", "application/wasm"));
 
+  // Raster images and WOFF fonts are already compressed and only grow when gzipped again.
+  private static final Set<String> COMPRESSIBLE_MIME_TYPES =
+      Set.of(
+          "application/json",
+          "application/wasm",
+          "image/svg+xml",
+          "image/x-icon",
+          "font/ttf",
+          "font/otf");
+
   private GrapheneMimeTypes() {}
 
   public static String resolve(String path) {
@@ -40,4 +51,11 @@ public final class GrapheneMimeTypes {
     String extension = normalizedPath.substring(extensionSeparator + 1);
     return MIME_TYPES.getOrDefault(extension, DEFAULT_MIME_TYPE);
   }
+
+  public static boolean isCompressible(String mimeType) {
+    String normalizedMimeType =
+        Objects.requireNonNull(mimeType, "mimeType").toLowerCase(Locale.ROOT);
+    return normalizedMimeType.startsWith("text/")
+        || COMPRESSIBLE_MIME_TYPES.contains(normalizedMimeType);
+  }
 }
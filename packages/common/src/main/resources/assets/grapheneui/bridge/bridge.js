@@ -7,12 +7,20 @@
 	const KIND_REQUEST = "request";
 	const KIND_RESPONSE = "response";
 	const KIND_READY = "ready";
+	const KIND_BATCH = "batch";
+	const KIND_STREAM = "stream";
+	const KIND_STREAM_NEXT = "stream_next";
+	const KIND_STREAM_END = "stream_end";
+	const KIND_STREAM_CANCEL = "stream_cancel";
 	const ERROR_NO_HANDLER = "handler_not_found";
 	const ERROR_HANDLER_FAILURE = "js_handler_error";
 	const ERROR_INVALID_RESPONSE = "invalid_response";
+	const ERROR_BINARY_UNAVAILABLE = "binary_unavailable";
 	const INSTALLED_FLAG = "__grapheneInstalled";
 	const RECEIVE_FN_NAME = "__grapheneBridgeReceiveFromJava";
+	const RECEIVE_BATCH_FN_NAME = "__grapheneBridgeReceiveBatchFromJava";
 	const READY_RETRY_DELAY_MS = 50;
+	const MAX_BATCH_MESSAGES = 64;
 
 	if (globalThis.grapheneBridge?.[INSTALLED_FLAG]) {
 		return;
@@ -26,8 +34,13 @@
 	 */
 
 	let nextRequestSequence = 0;
+	/** @type {{message: Object, resolve: (responseText: string) => void, reject: (error: Error) => void}[] | null} */
+	let pendingBatch = null;
+	/** @type {Promise<void> | null} */
+	let pendingDelivery = null;
 	const eventListenersByChannel = new Map();
 	const requestHandlersByChannel = new Map();
+	const streamsById = new Map();
 	const readyState = createReadyState();
 
 	function noop() {}
@@ -165,7 +178,7 @@
 		};
 	}
 
-	function sendToJava(message) {
+	function sendQueryToJava(message) {
 		return new Promise(function (resolve, reject) {
 			const cefQuery = resolveCefQuery();
 			if (!cefQuery) {
@@ -177,6 +190,99 @@
 		});
 	}
 
+	function scheduleMicrotask(task) {
+		if (typeof globalThis.queueMicrotask === "function") {
+			globalThis.queueMicrotask(task);
+		} else {
+			Promise.resolve().then(task);
+		}
+	}
+
+	/**
+	 * Queues a message for the current microtask's batch. Messages sent in the same turn share a
+	 * single cefQuery; a lone message is sent as-is. Requests are answered only when their handler
+	 * completes, so each one flushes the pending batch and takes its own query rather than holding
+	 * back the rest of the batch.
+	 */
+	function sendToJava(message) {
+		if (message.kind === KIND_REQUEST) {
+			flushBatch();
+			return sendQueryToJava(message);
+		}
+
+		return new Promise(function (resolve, reject) {
+			if (pendingBatch === null) {
+				pendingBatch = [];
+				scheduleMicrotask(flushBatch);
+			}
+
+			pendingBatch.push({ message: message, resolve: resolve, reject: reject });
+			if (pendingBatch.length >= MAX_BATCH_MESSAGES) {
+				flushBatch();
+			}
+		});
+	}
+
+	function flushBatch() {
+		const entries = pendingBatch;
+		pendingBatch = null;
+		if (entries === null || entries.length === 0) {
+			return;
+		}
+
+		const cefQuery = resolveCefQuery();
+		if (!cefQuery) {
+			rejectBatch(entries, new Error("cefQuery is unavailable"));
+			return;
+		}
+
+		if (entries.length === 1) {
+			const entry = entries[0];
+			cefQuery(createCefQueryRequest(entry.message, entry.resolve, entry.reject));
+			return;
+		}
+
+		const batchMessage = Object.assign(createBaseMessage(KIND_BATCH), {
+			payload: entries.map(function (entry) {
+				return entry.message;
+			}),
+		});
+		cefQuery(
+			createCefQueryRequest(
+				batchMessage,
+				function (responseText) {
+					settleBatch(entries, responseText);
+				},
+				function (error) {
+					rejectBatch(entries, error);
+				},
+			),
+		);
+	}
+
+	function settleBatch(entries, responseText) {
+		const results = parseJsonOrNull(responseText);
+		if (!Array.isArray(results) || results.length !== entries.length) {
+			rejectBatch(entries, new Error("Bridge returned an invalid batch response"));
+			return;
+		}
+
+		entries.forEach(function (entry, index) {
+			const result = results[index];
+			if (result?.ok) {
+				entry.resolve(result.response);
+			} else {
+				entry.reject(new Error(result?.message ?? "Bridge batch entry failed"));
+			}
+		});
+	}
+
+	function rejectBatch(entries, error) {
+		entries.forEach(function (entry) {
+			entry.reject(error);
+		});
+	}
+
 	function notifyReadyListeners() {
 		readyState.readyListeners.forEach(function (listener) {
 			try {
@@ -244,7 +350,7 @@
 		}
 
 		readyState.readyRequestInFlight = true;
-		sendToJava(createBaseMessage(KIND_READY))
+		sendQueryToJava(createBaseMessage(KIND_READY))
 			.then(function () {
 				readyState.readyRequestInFlight = false;
 				markReady();
@@ -325,12 +431,189 @@
 			.catch(noop);
 	}
 
+	/**
+	 * Opens a stream served by a Java stream handler. Chunks are buffered until the caller pulls
+	 * them; ending the iteration early cancels the Java sink.
+	 */
+	function openStream(channel, payload) {
+		const id = nextRequestId();
+		const stream = {
+			chunks: [],
+			waiters: [],
+			done: false,
+			error: null,
+		};
+		streamsById.set(id, stream);
+
+		sendToJava(
+			Object.assign(createBaseMessage(KIND_STREAM), {
+				id: id,
+				channel: channel,
+				payload: normalizePayload(payload),
+			}),
+		).then(
+			function (responseText) {
+				const response = parseResponse(responseText);
+				if (response.ok === false) {
+					finishStream(id, toError(response));
+				}
+			},
+			function (error) {
+				finishStream(id, error);
+			},
+		);
+
+		const iterator = {
+			next: function () {
+				if (stream.chunks.length > 0) {
+					return Promise.resolve({ value: stream.chunks.shift(), done: false });
+				}
+
+				if (stream.error !== null) {
+					const error = stream.error;
+					stream.error = null;
+					return Promise.reject(error);
+				}
+
+				if (stream.done) {
+					return Promise.resolve({ value: undefined, done: true });
+				}
+
+				return new Promise(function (resolve, reject) {
+					stream.waiters.push({ resolve: resolve, reject: reject });
+				});
+			},
+			return: function () {
+				if (streamsById.get(id) === stream) {
+					sendToJava(
+						Object.assign(createBaseMessage(KIND_STREAM_CANCEL), {
+							id: id,
+							channel: channel,
+						}),
+					).catch(noop);
+					finishStream(id, null);
+				}
+
+				stream.chunks.length = 0;
+				return Promise.resolve({ value: undefined, done: true });
+			},
+			[Symbol.asyncIterator]: function () {
+				return iterator;
+			},
+		};
+		return iterator;
+	}
+
+	function pushStreamChunk(message) {
+		const stream = streamsById.get(message.id);
+		if (!stream) {
+			return;
+		}
+
+		const waiter = stream.waiters.shift();
+		if (waiter) {
+			waiter.resolve({ value: message.payload, done: false });
+		} else {
+			stream.chunks.push(message.payload);
+		}
+	}
+
+	function finishStream(id, error) {
+		const stream = streamsById.get(id);
+		if (!stream) {
+			return;
+		}
+
+		streamsById.delete(id);
+		stream.done = true;
+		const waiters = stream.waiters.splice(0);
+		if (error !== null && waiters.length === 0) {
+			stream.error = error;
+		}
+
+		waiters.forEach(function (waiter, index) {
+			if (error !== null && index === 0) {
+				waiter.reject(error);
+			} else {
+				waiter.resolve({ value: undefined, done: true });
+			}
+		});
+	}
+
 	function receiveFromJava(messageJson) {
-		const message = parseJsonOrNull(messageJson);
+		dispatchJavaMessage(parseJsonOrNull(messageJson));
+	}
+
+	function receiveBatchFromJava(batchJson) {
+		const messages = parseJsonOrNull(batchJson);
+		if (!Array.isArray(messages)) {
+			return;
+		}
+
+		messages.forEach(dispatchJavaMessage);
+	}
+
+	function dispatchJavaMessage(message) {
 		if (!isBridgeMessage(message)) {
 			return;
 		}
 
+		if (typeof message.binary !== "string" && pendingDelivery === null) {
+			deliverJavaMessage(message);
+			return;
+		}
+
+		// Binary payloads are fetched asynchronously; later messages wait behind them to keep order.
+		const delivery = (pendingDelivery ?? Promise.resolve())
+			.then(function () {
+				return resolveBinaryPayload(message);
+			})
+			.then(
+				function () {
+					deliverJavaMessage(message);
+				},
+				function (error) {
+					rejectBinaryMessage(message, error);
+				},
+			);
+		pendingDelivery = delivery;
+		delivery.then(function () {
+			if (pendingDelivery === delivery) {
+				pendingDelivery = null;
+			}
+		});
+	}
+
+	function resolveBinaryPayload(message) {
+		if (typeof message.binary !== "string") {
+			return null;
+		}
+
+		return fetch(message.binary)
+			.then(function (response) {
+				if (!response.ok) {
+					throw new Error("Binary payload is no longer available");
+				}
+				return response.arrayBuffer();
+			})
+			.then(function (payload) {
+				message.payload = payload;
+			});
+	}
+
+	function rejectBinaryMessage(message, error) {
+		if (message.kind !== KIND_REQUEST) {
+			reportSuppressedError("Dropped binary event on '" + message.channel + "'", error);
+			return;
+		}
+
+		const messageText = error?.message ?? String(error);
+		sendToJava(
+			createErrorResponse(message, ERROR_BINARY_UNAVAILABLE, messageText),
+		).catch(noop);
+	}
+
+	function deliverJavaMessage(message) {
 		if (message.kind === KIND_EVENT) {
 			dispatchChannelEvent(message);
 			return;
@@ -338,11 +621,22 @@
 
 		if (message.kind === KIND_REQUEST) {
 			handleRequest(message);
+			return;
+		}
+
+		if (message.kind === KIND_STREAM_NEXT) {
+			pushStreamChunk(message);
+			return;
+		}
+
+		if (message.kind === KIND_STREAM_END) {
+			finishStream(message.id, message.ok === false ? toError(message) : null);
 		}
 	}
 
 	function install() {
 		globalThis[RECEIVE_FN_NAME] = receiveFromJava;
+		globalThis[RECEIVE_BATCH_FN_NAME] = receiveBatchFromJava;
 
 		globalThis.grapheneBridge = {
 			[INSTALLED_FLAG]: true,
@@ -392,6 +686,7 @@
 					return response.payload;
 				});
 			},
+			stream: openStream,
 		};
 	}
 
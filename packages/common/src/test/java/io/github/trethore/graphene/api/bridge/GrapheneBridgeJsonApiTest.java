@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import io.github.trethore.graphene.api.GrapheneSubscription;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -122,13 +123,25 @@ final class GrapheneBridgeJsonApiTest {
     }
 
     @Override
-    public GrapheneSubscription onEvent(String channel, GrapheneBridgeEventListener listener) {
+    public boolean isWritable() {
+      return true;
+    }
+
+    @Override
+    public GrapheneSubscription onWritabilityChanged(GrapheneBridgeWritabilityListener listener) {
+      return () -> {};
+    }
+
+    @Override
+    public GrapheneSubscription onEvent(
+        String channel, GrapheneBridgeExecution execution, GrapheneBridgeEventListener listener) {
       eventListenersByChannel.put(channel, listener);
       return () -> eventListenersByChannel.remove(channel, listener);
     }
 
     @Override
-    public GrapheneSubscription onRequest(String channel, GrapheneBridgeRequestHandler handler) {
+    public GrapheneSubscription onRequest(
+        String channel, GrapheneBridgeExecution execution, GrapheneBridgeRequestHandler handler) {
       requestHandlersByChannel.put(channel, handler);
       return () -> requestHandlersByChannel.remove(channel, handler);
     }
@@ -139,6 +152,34 @@ final class GrapheneBridgeJsonApiTest {
       emittedPayloadJson = payloadJson;
     }
 
+    @Override
+    public boolean offer(String channel, String payloadJson) {
+      emit(channel, payloadJson);
+      return true;
+    }
+
+    @Override
+    public GrapheneBridgeMetrics metrics() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public GrapheneSubscription onStream(
+        String channel, GrapheneBridgeExecution execution, GrapheneBridgeStreamHandler handler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void emitBinary(String channel, ByteBuffer payload) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<String> requestBinary(
+        String channel, ByteBuffer payload, Duration timeout) {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     public CompletableFuture<String> request(String channel, String payloadJson, Duration timeout) {
       requestedChannel = channel;
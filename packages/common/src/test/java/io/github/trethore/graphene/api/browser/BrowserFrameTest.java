@@ -1,11 +1,13 @@
 package io.github.trethore.graphene.api.browser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class BrowserFrameTest {
@@ -20,6 +22,20 @@ class BrowserFrameTest {
     assertTrue(frame.pixels().isReadOnly());
   }
 
+  @Test
+  void reportsTheLayoutItWasCreatedWith() {
+    BrowserFrame frame =
+        new BrowserFrame(
+            1,
+            1,
+            1,
+            List.of(new BrowserDirtyRegion(0, 0, 1, 1)),
+            ByteBuffer.allocateDirect(4),
+            BrowserPixelFormat.RGBX_8888_SRGB);
+
+    assertEquals(BrowserPixelFormat.RGBX_8888_SRGB, frame.pixelFormat());
+  }
+
   @Test
   void rejectsMissingOrOutOfBoundsDirtyRegions() {
     List<BrowserDirtyRegion> emptyDirtyRegions = List.of();
@@ -30,6 +46,56 @@ class BrowserFrameTest {
     assertThrows(IllegalArgumentException.class, () -> frame(1, outOfBoundsDirtyRegions));
   }
 
+  @Test
+  void runsReleaseActionOnceAfterTheLastReferenceOfAWrappedFrame() {
+    AtomicInteger releases = new AtomicInteger();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(4);
+    BrowserFrame frame =
+        BrowserFrame.wrap(
+            1,
+            1,
+            1,
+            List.of(new BrowserDirtyRegion(0, 0, 1, 1)),
+            pixels,
+            releases::incrementAndGet);
+
+    pixels.put(0, (byte) 7);
+    assertEquals(7, frame.pixels().get(0));
+    assertTrue(frame.retain());
+    frame.release();
+    assertEquals(0, releases.get());
+    frame.release();
+
+    assertEquals(1, releases.get());
+    assertFalse(frame.retain());
+    assertThrows(IllegalStateException.class, frame::release);
+  }
+
+  @Test
+  void refusesToExposeThePixelsOfARecycledFrame() {
+    BrowserFrame frame =
+        BrowserFrame.wrap(
+            1,
+            1,
+            1,
+            List.of(new BrowserDirtyRegion(0, 0, 1, 1)),
+            ByteBuffer.allocateDirect(4),
+            () -> {});
+
+    frame.release();
+
+    assertThrows(IllegalStateException.class, frame::pixels);
+  }
+
+  @Test
+  void copiedFramesCanAlwaysBeRetained() {
+    BrowserFrame frame = frame(1, List.of(new BrowserDirtyRegion(0, 0, 1, 1)));
+
+    frame.release();
+
+    assertTrue(frame.retain());
+  }
+
   private static BrowserFrame frame(int width, List<BrowserDirtyRegion> dirtyRegions) {
     return new BrowserFrame(width, 1, 1, dirtyRegions, ByteBuffer.allocateDirect(width * 4));
   }
@@ -13,6 +13,7 @@ import io.github.trethore.graphene.api.browser.menu.BrowserContextMenuPolicy;
 import io.github.trethore.graphene.api.browser.menu.BrowserContextMenuPresenter;
 import io.github.trethore.graphene.api.browser.navigation.BrowserNavigationPolicy;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,18 @@ class BrowserOptionsTest {
     assertEquals(30, builder.maximumFrameRate(30).build().maximumFrameRate());
   }
 
+  @Test
+  void configuresFrameRatePolicy() {
+    BrowserFrameRatePolicy adaptive = BrowserFrameRatePolicy.adaptive(5);
+
+    assertSame(BrowserFrameRatePolicy.fixed(), BrowserOptions.defaults().frameRatePolicy());
+    assertEquals(
+        adaptive, BrowserOptions.builder().frameRatePolicy(adaptive).build().frameRatePolicy());
+    assertThrows(IllegalArgumentException.class, () -> BrowserFrameRatePolicy.adaptive(0));
+    assertThrows(
+        IllegalArgumentException.class, () -> BrowserFrameRatePolicy.adaptive(5, Duration.ZERO));
+  }
+
   @Test
   void validatesRgbBackgroundColor() {
     BrowserOptions options =
@@ -49,6 +62,28 @@ class BrowserOptionsTest {
     assertEquals(0xFFFFFF, builder.build().backgroundColor());
   }
 
+  @Test
+  void configuresPixelFormat() {
+    assertEquals(
+        BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB, BrowserOptions.defaults().pixelFormat());
+    assertEquals(
+        BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB,
+        BrowserOptions.builder()
+            .pixelFormat(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB)
+            .build()
+            .pixelFormat());
+    assertEquals(
+        BrowserPixelFormat.RGBX_8888_SRGB,
+        BrowserOptions.builder()
+            .transparent(false)
+            .pixelFormat(BrowserPixelFormat.RGBX_8888_SRGB)
+            .build()
+            .pixelFormat());
+    BrowserOptions.Builder transparentRgbx =
+        BrowserOptions.builder().pixelFormat(BrowserPixelFormat.RGBX_8888_SRGB);
+    assertThrows(IllegalArgumentException.class, transparentRgbx::build);
+  }
+
   @Test
   void configuresDialogPresenters() {
     BrowserFileDialogPresenter filePresenter =
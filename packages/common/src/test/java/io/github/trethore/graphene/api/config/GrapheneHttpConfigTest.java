@@ -20,6 +20,10 @@ final class GrapheneHttpConfigTest {
     assertEquals(21_000, config.randomPortRange().orElseThrow().maxPort());
     assertTrue(config.fileRoot().isEmpty());
     assertTrue(config.spaFallback().isEmpty());
+    assertEquals(GrapheneHttpConfig.RequestExecution.VIRTUAL_THREADS, config.requestExecution());
+    assertEquals(64, config.maxConcurrentRequests());
+    assertEquals("no-cache", config.cacheControl());
+    assertTrue(config.immutableResourcePattern().isEmpty());
   }
 
   @Test
@@ -52,6 +56,11 @@ final class GrapheneHttpConfigTest {
     assertThrows(IllegalArgumentException.class, () -> builder.randomPortInRange(21_000, 20_000));
     assertThrows(IllegalArgumentException.class, () -> builder.fileRoot(""));
     assertThrows(IllegalArgumentException.class, () -> builder.spaFallback(" "));
+    assertThrows(IllegalArgumentException.class, () -> builder.maxConcurrentRequests(0));
+    assertThrows(IllegalArgumentException.class, () -> builder.maxConcurrentRequests(1025));
+    assertThrows(IllegalArgumentException.class, () -> builder.cacheControl(" "));
+    assertThrows(IllegalArgumentException.class, () -> builder.cacheControl("no-cache\r\nX: y"));
+    assertThrows(IllegalArgumentException.class, () -> builder.immutableResourcePattern("(["));
   }
 
   @Test
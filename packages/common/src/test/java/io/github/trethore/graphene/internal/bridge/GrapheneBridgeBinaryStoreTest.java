@@ -0,0 +1,75 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+final class GrapheneBridgeBinaryStoreTest {
+  private static final int BROWSER = 1;
+  private static final int OTHER_BROWSER = 2;
+
+  @Test
+  void servesEachPayloadOnceToItsBrowser() {
+    GrapheneBridgeBinaryStore store = new GrapheneBridgeBinaryStore();
+    String url = store.store(BROWSER, ByteBuffer.wrap(new byte[] {4, 5, 6}));
+
+    assertTrue(GrapheneBridgeBinaryStore.isBinaryUrl(url));
+    assertNull(store.take(OTHER_BROWSER, url));
+    assertArrayEquals(new byte[] {4, 5, 6}, store.take(BROWSER, url));
+    assertNull(store.take(BROWSER, url));
+  }
+
+  @Test
+  void copiesOnlyTheRemainingBytes() {
+    GrapheneBridgeBinaryStore store = new GrapheneBridgeBinaryStore();
+    ByteBuffer payload = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+    payload.position(2);
+
+    String url = store.store(BROWSER, payload);
+    payload.put(2, (byte) 9);
+
+    assertArrayEquals(new byte[] {3, 4}, store.take(BROWSER, url));
+  }
+
+  @Test
+  void expiresPayloadsThatAreNeverFetched() {
+    AtomicLong clock = new AtomicLong();
+    GrapheneBridgeBinaryStore store = new GrapheneBridgeBinaryStore(clock::get, 10, 1024);
+    String url = store.store(BROWSER, ByteBuffer.wrap(new byte[] {1}));
+
+    clock.set(11);
+
+    assertNull(store.take(BROWSER, url));
+  }
+
+  @Test
+  void evictsOldestPayloadsWhenFull() {
+    GrapheneBridgeBinaryStore store = new GrapheneBridgeBinaryStore(() -> 0, 10, 4);
+    String first = store.store(BROWSER, ByteBuffer.wrap(new byte[] {1, 2}));
+    String second = store.store(BROWSER, ByteBuffer.wrap(new byte[] {3, 4}));
+    String third = store.store(BROWSER, ByteBuffer.wrap(new byte[] {5, 6}));
+
+    assertNull(store.take(BROWSER, first));
+    assertArrayEquals(new byte[] {3, 4}, store.take(BROWSER, second));
+    assertArrayEquals(new byte[] {5, 6}, store.take(BROWSER, third));
+    assertThrows(
+        IllegalArgumentException.class, () -> store.store(BROWSER, ByteBuffer.allocate(5)));
+  }
+
+  @Test
+  void discardsPayloadsOfClosedBrowsers() {
+    GrapheneBridgeBinaryStore store = new GrapheneBridgeBinaryStore();
+    String closed = store.store(BROWSER, ByteBuffer.wrap(new byte[] {1}));
+    String open = store.store(OTHER_BROWSER, ByteBuffer.wrap(new byte[] {2}));
+
+    store.discard(BROWSER);
+
+    assertNull(store.take(BROWSER, closed));
+    assertArrayEquals(new byte[] {2}, store.take(OTHER_BROWSER, open));
+  }
+}
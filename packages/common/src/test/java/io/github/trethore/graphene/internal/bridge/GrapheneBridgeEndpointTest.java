@@ -1,17 +1,29 @@
 package io.github.trethore.graphene.internal.bridge;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.trethore.graphene.api.GrapheneSubscription;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeChannelMetrics;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeExecution;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeMetrics;
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeStreamSink;
 import io.github.trethore.graphene.api.browser.bridge.BrowserBridgePolicy;
 import io.github.trethore.graphene.internal.platform.GrapheneTaskExecutor;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
 
@@ -307,6 +319,420 @@ final class GrapheneBridgeEndpointTest {
     assertFalse(endpoint.isReady());
   }
 
+  @Test
+  void batchesEventsEmittedDuringOneTick() {
+    TestBrowser browser = new TestBrowser();
+    QueuedTaskExecutor taskExecutor = new QueuedTaskExecutor();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser, taskExecutor);
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    taskExecutor.runAll();
+    assertTrue(endpoint.isReady());
+    browser.executedScripts.clear();
+
+    endpoint.emit("test:first", "1");
+    endpoint.emit("test:second", "2");
+    assertTrue(browser.executedScripts.isEmpty());
+
+    taskExecutor.runAll();
+    assertEquals(1, browser.executedScripts.size());
+    String script = browser.executedScripts.getFirst();
+    assertTrue(script.startsWith("window.__grapheneBridgeReceiveBatchFromJava("));
+    assertTrue(script.indexOf("test:first") < script.indexOf("test:second"));
+  }
+
+  @Test
+  void conflatesLatestEventsInBothDirections() {
+    TestBrowser browser = new TestBrowser();
+    QueuedTaskExecutor taskExecutor = new QueuedTaskExecutor();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser, taskExecutor);
+    List<String> latestPayloads = new ArrayList<>();
+    List<String> allPayloads = new ArrayList<>();
+    endpoint.onLatestEvent("test:state", (channel, payloadJson) -> latestPayloads.add(payloadJson));
+    endpoint.onEvent("test:state", (channel, payloadJson) -> allPayloads.add(payloadJson));
+    endpoint.emitLatest("test:hud", "1");
+    endpoint.emitLatest("test:hud", "2");
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    taskExecutor.runAll();
+
+    String flushedScript = browser.executedScripts.getLast();
+    assertTrue(flushedScript.contains("test:hud"));
+    assertTrue(flushedScript.contains("\\\"payload\\\":2"));
+    assertFalse(flushedScript.contains("\\\"payload\\\":1"));
+
+    for (int value = 1; value <= 3; value++) {
+      endpoint.handleQuery(
+          mainFrame(browser.currentUrl()),
+          "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\","
+              + "\"channel\":\"test:state\",\"payload\":"
+              + value
+              + "}",
+          new TestQueryCallback());
+    }
+    taskExecutor.runAll();
+
+    assertEquals(List.of("3"), latestPayloads);
+    assertEquals(List.of("1", "2", "3"), allPayloads);
+  }
+
+  @Test
+  void routesBatchedPacketsAndAnswersThemInOrder() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser);
+    List<String> events = new ArrayList<>();
+    endpoint.onEvent("test:event", (channel, payloadJson) -> events.add(payloadJson));
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    TestQueryCallback callback = new TestQueryCallback();
+
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"batch\",\"payload\":["
+            + "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\","
+            + "\"channel\":\"test:event\",\"payload\":1},"
+            + "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\","
+            + "\"channel\":\"test:event\",\"payload\":2},"
+            + "{\"bridge\":\"other\"}]}",
+        callback);
+
+    assertEquals(List.of("1", "2"), events);
+    assertEquals(
+        "[{\"ok\":true,\"response\":\"{}\"},{\"ok\":true,\"response\":\"{}\"},"
+            + "{\"ok\":false,\"code\":400,\"message\":\"Invalid bridge packet in batch\"}]",
+        callback.successResponse);
+  }
+
+  @Test
+  void defersTheFlushWhenTheExecutorRunsTasksInlineOnItsOwnThread() {
+    TestBrowser browser = new TestBrowser();
+    OwnerThreadTaskExecutor taskExecutor = new OwnerThreadTaskExecutor();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser, taskExecutor);
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    taskExecutor.runDeferred();
+    assertTrue(endpoint.isReady());
+    browser.executedScripts.clear();
+
+    endpoint.emit("test:first", "1");
+    endpoint.emit("test:second", "2");
+    endpoint.emit("test:third", "3");
+    assertTrue(browser.executedScripts.isEmpty());
+
+    taskExecutor.runDeferred();
+    assertEquals(1, browser.executedScripts.size());
+    assertTrue(
+        browser
+            .executedScripts
+            .getFirst()
+            .startsWith("window.__grapheneBridgeReceiveBatchFromJava("));
+  }
+
+  @Test
+  void neverHoldsABatchOrAFastRequestBehindANeverCompletingHandler() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser);
+    List<String> events = new ArrayList<>();
+    endpoint.onEvent("test:event", (channel, payloadJson) -> events.add(payloadJson));
+    endpoint.onRequest("test:wait", (channel, payloadJson) -> new CompletableFuture<>());
+    endpoint.onRequest(
+        "test:fast", (channel, payloadJson) -> CompletableFuture.completedFuture("{\"fast\":1}"));
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    TestQueryCallback batchCallback = new TestQueryCallback();
+    TestQueryCallback waitCallback = new TestQueryCallback();
+    TestQueryCallback fastCallback = new TestQueryCallback();
+
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"batch\",\"payload\":["
+            + "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\","
+            + "\"id\":\"js-1\",\"channel\":\"test:wait\",\"payload\":1},"
+            + "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\","
+            + "\"channel\":\"test:event\",\"payload\":2}]}",
+        batchCallback);
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\","
+            + "\"id\":\"js-2\",\"channel\":\"test:wait\",\"payload\":3}",
+        waitCallback);
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\","
+            + "\"id\":\"js-3\",\"channel\":\"test:fast\",\"payload\":4}",
+        fastCallback);
+
+    assertEquals(List.of("2"), events);
+    assertEquals(
+        "[{\"ok\":false,\"code\":400,"
+            + "\"message\":\"Bridge requests must be sent on their own query\"},"
+            + "{\"ok\":true,\"response\":\"{}\"}]",
+        batchCallback.successResponse);
+    assertNull(waitCallback.successResponse);
+    assertTrue(fastCallback.successResponse.contains("\"id\":\"js-3\""));
+    assertTrue(fastCallback.successResponse.contains("\"fast\":1"));
+  }
+
+  @Test
+  void runsHandlersWithTheirRequestedExecution() throws Exception {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeExecutors executors = new GrapheneBridgeExecutors(GrapheneTaskExecutor.direct());
+    try {
+      GrapheneBridgeEndpoint endpoint =
+          new GrapheneBridgeEndpoint(
+              browser,
+              executors,
+              new GrapheneBridgeBinaryStore(),
+              new GrapheneBridgeExposureConfig(
+                  BrowserBridgePolicy.defaultPolicy(), browser.currentUrl(), ""));
+      CompletableFuture<String> eventThread = new CompletableFuture<>();
+      endpoint.onEvent(
+          "test:event",
+          GrapheneBridgeExecution.VIRTUAL_THREAD,
+          (channel, payloadJson) -> eventThread.complete(Thread.currentThread().getName()));
+      endpoint.onRequest(
+          "test:request",
+          GrapheneBridgeExecution.WORKER_POOL,
+          (channel, payloadJson) ->
+              CompletableFuture.completedFuture("\"" + Thread.currentThread().getName() + "\""));
+      endpoint.onPageLoadEnd(browser.currentUrl());
+      CompletableFuture<String> response = new CompletableFuture<>();
+      BridgeQueryCallback responseCallback =
+          new BridgeQueryCallback() {
+            @Override
+            public void success(String responseJson) {
+              response.complete(responseJson);
+            }
+
+            @Override
+            public void failure(int errorCode, String errorMessage) {
+              response.completeExceptionally(new AssertionError(errorMessage));
+            }
+          };
+
+      endpoint.handleQuery(
+          mainFrame(browser.currentUrl()),
+          "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\","
+              + "\"channel\":\"test:event\",\"payload\":1}",
+          new TestQueryCallback());
+      endpoint.handleQuery(
+          mainFrame(browser.currentUrl()),
+          "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\","
+              + "\"id\":\"js-1\",\"channel\":\"test:request\",\"payload\":2}",
+          responseCallback);
+
+      assertTrue(eventThread.get(5, TimeUnit.SECONDS).startsWith("Graphene Bridge Virtual "));
+      assertTrue(response.get(5, TimeUnit.SECONDS).contains("Graphene Bridge Worker "));
+    } finally {
+      executors.shutdown();
+    }
+  }
+
+  @Test
+  void emitsBinaryPayloadThroughTheBinaryStore() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeBinaryStore binaryStore = new GrapheneBridgeBinaryStore();
+    GrapheneBridgeEndpoint endpoint =
+        new GrapheneBridgeEndpoint(
+            browser,
+            new GrapheneBridgeExecutors(GrapheneTaskExecutor.direct()),
+            binaryStore,
+            new GrapheneBridgeExposureConfig(
+                BrowserBridgePolicy.defaultPolicy(), browser.currentUrl(), ""));
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    ByteBuffer payload = ByteBuffer.wrap(new byte[] {1, 2, 3});
+
+    endpoint.emitBinary("test:binary", payload);
+
+    String outboundScript = browser.executedScripts.getLast();
+    String urlMarker = "\\\"binary\\\":\\\"";
+    int urlStart = outboundScript.indexOf(urlMarker) + urlMarker.length();
+    String binaryUrl = outboundScript.substring(urlStart, outboundScript.indexOf("\\\"", urlStart));
+    assertTrue(GrapheneBridgeBinaryStore.isBinaryUrl(binaryUrl));
+    assertFalse(outboundScript.contains("payload"));
+    assertEquals(0, payload.position());
+    assertArrayEquals(new byte[] {1, 2, 3}, binaryStore.take(browser.identifier(), binaryUrl));
+  }
+
+  @Test
+  void streamsChunksUntilTheSinkCompletes() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = readyEndpoint(browser);
+    endpoint.onStream(
+        "test:stream",
+        (channel, payloadJson, sink) -> {
+          sink.next(payloadJson);
+          sink.next("{\"page\":2}");
+          sink.complete();
+          sink.next("{\"page\":3}");
+        });
+    TestQueryCallback callback = new TestQueryCallback();
+    int bootstrapScriptCount = browser.executedScripts.size();
+
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"stream\","
+            + "\"id\":\"js-1\",\"channel\":\"test:stream\",\"payload\":{\"page\":1}}",
+        callback);
+
+    assertEquals("{}", callback.successResponse);
+    String outboundScripts =
+        String.join(
+            "\n",
+            browser.executedScripts.subList(bootstrapScriptCount, browser.executedScripts.size()));
+    assertEquals(2, outboundScripts.split("stream_next", -1).length - 1);
+    assertTrue(outboundScripts.contains("page\\\":2}"));
+    assertTrue(outboundScripts.contains("stream_end"));
+    assertFalse(outboundScripts.contains("page\\\":3}"));
+  }
+
+  @Test
+  void cancelsStreamsFromThePageAndOnNavigation() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = readyEndpoint(browser);
+    List<GrapheneBridgeStreamSink> sinks = new ArrayList<>();
+    List<String> cancelled = new ArrayList<>();
+    endpoint.onStream(
+        "test:stream",
+        (channel, payloadJson, sink) -> {
+          sinks.add(sink);
+          sink.onCancel(() -> cancelled.add(payloadJson));
+        });
+    for (int index = 1; index <= 2; index++) {
+      endpoint.handleQuery(
+          mainFrame(browser.currentUrl()),
+          "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"stream\",\"id\":\"js-"
+              + index
+              + "\",\"channel\":\"test:stream\",\"payload\":"
+              + index
+              + "}",
+          new TestQueryCallback());
+    }
+
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"stream_cancel\",\"id\":\"js-1\"}",
+        new TestQueryCallback());
+
+    assertEquals(List.of("1"), cancelled);
+    assertTrue(sinks.get(0).isCancelled());
+    assertFalse(sinks.get(1).isCancelled());
+
+    endpoint.onNavigationRequested();
+
+    assertEquals(List.of("1", "2"), cancelled);
+    assertTrue(sinks.get(1).isCancelled());
+  }
+
+  @Test
+  void recordsPerChannelMetrics() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser);
+    endpoint.emit("test:event", "{\"value\":1}");
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    endpoint.onRequest(
+        "test:request", (channel, payloadJson) -> CompletableFuture.completedFuture("1"));
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\","
+            + "\"id\":\"js-1\",\"channel\":\"test:request\",\"payload\":[1,2]}",
+        new TestQueryCallback());
+    CompletableFuture<String> response = endpoint.request("test:reply", null);
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"response\",\"id\":\""
+            + extractRequestId(browser.executedScripts.getLast())
+            + "\",\"channel\":\"test:reply\",\"ok\":false}",
+        new TestQueryCallback());
+
+    GrapheneBridgeMetrics metrics = endpoint.metrics();
+
+    assertTrue(response.isCompletedExceptionally());
+    assertEquals(0, metrics.queuedOutboundMessages());
+    GrapheneBridgeChannelMetrics event = metrics.channels().get("test:event");
+    assertEquals(1, event.outboundMessages());
+    assertEquals(11, event.outboundPayloadSize());
+    GrapheneBridgeChannelMetrics request = metrics.channels().get("test:request");
+    assertEquals(1, request.inboundMessages());
+    assertEquals(5, request.inboundPayloadSize());
+    assertEquals(1, request.handlerLatency().count());
+    GrapheneBridgeChannelMetrics reply = metrics.channels().get("test:reply");
+    assertEquals(1, reply.requestLatency().count());
+    assertEquals(1, reply.requestFailures());
+    assertEquals(0, reply.requestTimeouts());
+  }
+
+  @Test
+  void timesOutUnansweredRequests() throws Exception {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = readyEndpoint(browser);
+
+    CompletableFuture<String> response = endpoint.request("test:slow", null, Duration.ofMillis(20));
+
+    ExecutionException failure =
+        assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, failure.getCause());
+    assertEquals(1, endpoint.metrics().channels().get("test:slow").requestTimeouts());
+  }
+
+  @Test
+  void signalsBackpressureWhileTheOutboundQueueIsNearlyFull() {
+    TestBrowser browser = new TestBrowser();
+    GrapheneBridgeEndpoint endpoint = endpoint(browser);
+    List<Boolean> writabilityChanges = new ArrayList<>();
+    endpoint.onWritabilityChanged(writabilityChanges::add);
+
+    int offered = 0;
+    while (endpoint.offer("test:bulk", Integer.toString(offered))) {
+      offered++;
+    }
+    endpoint.emitInternal("graphene:control", "true");
+
+    assertFalse(endpoint.isWritable());
+    assertEquals(List.of(false), writabilityChanges);
+    assertEquals(offered + 1, endpoint.metrics().queuedOutboundMessages());
+
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+
+    assertTrue(endpoint.isWritable());
+    assertEquals(List.of(false, true), writabilityChanges);
+    String firstBatch =
+        browser.executedScripts.stream()
+            .filter(script -> script.startsWith("window.__grapheneBridgeReceiveBatchFromJava("))
+            .findFirst()
+            .orElseThrow();
+    assertTrue(firstBatch.indexOf("graphene:control") < firstBatch.indexOf("test:bulk"));
+  }
+
+  private static GrapheneBridgeEndpoint readyEndpoint(TestBrowser browser) {
+    GrapheneBridgeEndpoint endpoint = endpoint(browser);
+    endpoint.onPageLoadEnd(browser.currentUrl());
+    endpoint.handleQuery(
+        mainFrame(browser.currentUrl()),
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"ready\"}",
+        new TestQueryCallback());
+    return endpoint;
+  }
+
   private static GrapheneBridgeEndpoint endpoint(TestBrowser browser) {
     return endpoint(browser, GrapheneTaskExecutor.direct());
   }
@@ -397,6 +823,32 @@ final class GrapheneBridgeEndpointTest {
     }
   }
 
+  /** Runs tasks inline like a game loop called from its own thread, queuing only deferred ones. */
+  private static final class OwnerThreadTaskExecutor implements GrapheneTaskExecutor {
+    private final List<Runnable> deferredActions = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable action) {
+      action.run();
+    }
+
+    @Override
+    public void defer(Runnable action) {
+      deferredActions.add(action);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+      return CompletableFuture.completedFuture(action.get());
+    }
+
+    private void runDeferred() {
+      List<Runnable> actions = List.copyOf(deferredActions);
+      deferredActions.clear();
+      actions.forEach(Runnable::run);
+    }
+  }
+
   private static final class QueuedTaskExecutor implements GrapheneTaskExecutor {
     private final List<Runnable> actions = new ArrayList<>();
 
@@ -0,0 +1,53 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.trethore.graphene.api.bridge.GrapheneBridgeLatency;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+final class GrapheneBridgeLatencyHistogramTest {
+  @Test
+  void bucketsCoverEveryValueWithBoundedError() {
+    long[] values = {0, 1, 7, 8, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = GrapheneBridgeLatencyHistogram.bucketIndex(value);
+      long upperBound = GrapheneBridgeLatencyHistogram.bucketUpperBound(index);
+      assertTrue(upperBound >= value, "upper bound below " + value);
+      assertTrue(upperBound - value <= value / 8, "bucket too wide for " + value);
+      if (index > 0) {
+        assertTrue(GrapheneBridgeLatencyHistogram.bucketUpperBound(index - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  void reportsPercentilesAndMax() {
+    GrapheneBridgeLatencyHistogram histogram = new GrapheneBridgeLatencyHistogram();
+    for (int value = 1; value <= 100; value++) {
+      histogram.record(value * 1_000L);
+    }
+
+    GrapheneBridgeLatency latency = histogram.snapshot();
+
+    assertEquals(100, latency.count());
+    assertWithinEighth(50_000, latency.p50());
+    assertWithinEighth(90_000, latency.p90());
+    assertWithinEighth(99_000, latency.p99());
+    assertEquals(Duration.ofNanos(100_000), latency.max());
+  }
+
+  @Test
+  void emptyHistogramReportsEmptyLatency() {
+    assertSame(GrapheneBridgeLatency.EMPTY, new GrapheneBridgeLatencyHistogram().snapshot());
+  }
+
+  private static void assertWithinEighth(long expectedNanos, Duration actual) {
+    long actualNanos = actual.toNanos();
+    assertTrue(
+        actualNanos >= expectedNanos && actualNanos <= expectedNanos + expectedNanos / 8,
+        "expected about " + expectedNanos + " but was " + actualNanos);
+  }
+}
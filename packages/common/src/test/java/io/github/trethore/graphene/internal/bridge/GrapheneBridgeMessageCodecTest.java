@@ -1,13 +1,14 @@
 package io.github.trethore.graphene.internal.bridge;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.junit.jupiter.api.Test;
@@ -24,21 +25,71 @@ final class GrapheneBridgeMessageCodecTest {
     GrapheneBridgePacket packet =
         codec.parsePacket(
             """
-                        {
-                          "bridge":"grapheneui",
-                          "version":1,
-                          "kind":"event",
-                          "channel":"debug:event",
-                          "payload":{"ok":true}
-                        }
-                        """);
+            {
+              "bridge":"grapheneui",
+              "version":1,
+              "kind":"event",
+              "channel":"debug:event",
+              "payload":{"ok":true}
+            }
+            """);
 
     assertNotNull(packet);
     assertEquals(GrapheneBridgeProtocol.NAME, packet.bridge);
     assertEquals(GrapheneBridgeProtocol.KIND_EVENT, packet.kind);
     assertEquals("debug:event", packet.channel);
-    assertNotNull(packet.payload);
-    assertTrue(packet.payload.getAsJsonObject().get("ok").getAsBoolean());
+    assertEquals("{\"ok\":true}", packet.payloadJson);
+  }
+
+  @Test
+  void parsePacketKeepsThePayloadTextVerbatim() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+    String payload = "{ \"text\": \"caf\\u00e9 \\\"quoted\\\"\", \"values\": [1, -2.5e3, null] }";
+
+    GrapheneBridgePacket packet =
+        codec.parsePacket(
+            "{\"bridge\":\"grapheneui\",\"kind\":\"request\",\"id\":\"7\",\"payload\":"
+                + payload
+                + ",\"extra\":{\"nested\":[true,false]}}");
+
+    assertNotNull(packet);
+    assertEquals("request", packet.kind);
+    assertEquals("7", packet.id);
+    assertEquals(payload, packet.payloadJson);
+  }
+
+  @Test
+  void parsePacketDecodesEnvelopeStringsAndResponseErrors() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+
+    GrapheneBridgePacket packet =
+        codec.parsePacket(
+            """
+            {"bridge":"grapheneui","kind":"response","id":12,"channel":"a\\u003ab",
+             "ok":false,"error":{"code":"denied","message":"line\\nbreak"}}
+            """);
+
+    assertNotNull(packet);
+    assertEquals("12", packet.id);
+    assertEquals("a:b", packet.channel);
+    assertEquals(Boolean.FALSE, packet.ok);
+    assertEquals("denied", packet.error.code);
+    assertEquals("line\nbreak", packet.error.message);
+    assertEquals("null", packet.payloadJson);
+  }
+
+  @Test
+  void parsePacketRejectsMalformedJson() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+
+    assertNull(codec.parsePacket("{\"bridge\":\"grapheneui\",\"payload\":{\"a\":}}"));
+    assertNull(codec.parsePacket("{\"bridge\":\"grapheneui\",\"payload\":[1,]}"));
+    assertNull(codec.parsePacket("{\"bridge\":\"grapheneui\"} trailing"));
+    assertNull(codec.parsePacket("{\"bridge\":\"grapheneui\",\"payload\":01}"));
+    assertNull(codec.parsePacket("{\"bridge\":\"grapheneui\",\"payload\":\"\\x\"}"));
+    assertNull(
+        codec.parsePacket(
+            "{\"bridge\":\"grapheneui\",\"payload\":" + "[".repeat(300) + "]".repeat(300) + "}"));
   }
 
   @Test
@@ -51,16 +102,55 @@ final class GrapheneBridgeMessageCodecTest {
   }
 
   @Test
-  void parsePayloadJsonThrowsForInvalidJson() {
+  void requirePayloadJsonThrowsForInvalidJson() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+
+    assertThrows(IllegalArgumentException.class, () -> codec.requirePayloadJson("{"));
+  }
+
+  @Test
+  void requirePayloadJsonKeepsStrictJsonAndNormalizesLenientJson() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+    String strict = "{\"a\": [1, 2]}";
+
+    assertSame(strict, codec.requirePayloadJson(strict));
+    assertEquals("null", codec.requirePayloadJson(null));
+    assertEquals("{\"a\":1}", codec.requirePayloadJson("{a:1}"));
+  }
+
+  @Test
+  void createOutboundPacketJsonSplicesThePayload() {
+    GrapheneBridgeMessageCodec codec = createCodec();
+
+    assertEquals(
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"event\",\"channel\":\"ui:open\","
+            + "\"payload\":{\"html\":\"<b>\"}}",
+        codec.createOutboundPacketJson("event", null, "ui:open", "{\"html\":\"<b>\"}"));
+    assertEquals(
+        "{\"bridge\":\"grapheneui\",\"version\":1,\"kind\":\"request\",\"id\":\"1\","
+            + "\"channel\":\"ui:open\"}",
+        codec.createOutboundPacketJson("request", "1", "ui:open", "null"));
+  }
+
+  @Test
+  void createErrorResponseJsonContainsTheError() {
     GrapheneBridgeMessageCodec codec = createCodec();
 
-    assertThrows(IllegalArgumentException.class, () -> codec.parsePayloadJson("{"));
+    JsonObject response =
+        JsonParser.parseString(codec.createErrorResponseJson("id-1", null, null, "<failed>"))
+            .getAsJsonObject();
+
+    assertFalse(response.get("ok").getAsBoolean());
+    assertFalse(response.has("channel"));
+    assertFalse(response.has("payload"));
+    assertEquals("bridge_error", response.getAsJsonObject("error").get("code").getAsString());
+    assertEquals("<failed>", response.getAsJsonObject("error").get("message").getAsString());
   }
 
   @Test
   void createSuccessResponseJsonContainsExpectedFields() {
     GrapheneBridgeMessageCodec codec = createCodec();
-    JsonElement payload = codec.parsePayloadJson("{\"sum\":12}");
+    String payload = codec.requirePayloadJson("{\"sum\":12}");
 
     String responseJson = codec.createSuccessResponseJson("id-1", "debug:sum", payload);
     JsonObject response = JsonParser.parseString(responseJson).getAsJsonObject();
@@ -1,53 +1,284 @@
 package io.github.trethore.graphene.internal.bridge;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 final class GrapheneBridgeOutboundQueueTest {
   @Test
   void queuesBeforeReadyAndFlushesInOrder() {
-    List<String> dispatchedMessages = new ArrayList<>();
-    GrapheneBridgeOutboundQueue queue =
-        new GrapheneBridgeOutboundQueue(dispatchedMessages::add, 16);
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, Runnable::run, 16);
 
     queue.queueOrDispatch("first");
     queue.queueOrDispatch("second");
-    assertTrue(dispatchedMessages.isEmpty());
+    assertTrue(dispatchedBatches.isEmpty());
 
     queue.markReadyAndFlush();
-    assertEquals(List.of("first", "second"), dispatchedMessages);
+    assertEquals(List.of(List.of("first", "second")), dispatchedBatches);
 
     queue.queueOrDispatch("third");
-    assertEquals(List.of("first", "second", "third"), dispatchedMessages);
+    assertEquals(List.of(List.of("first", "second"), List.of("third")), dispatchedBatches);
   }
 
   @Test
   void clearDropsQueuedMessages() {
-    List<String> dispatchedMessages = new ArrayList<>();
-    GrapheneBridgeOutboundQueue queue =
-        new GrapheneBridgeOutboundQueue(dispatchedMessages::add, 16);
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, Runnable::run, 16);
 
     queue.queueOrDispatch("queued");
     queue.clear();
     queue.markReadyAndFlush();
 
-    assertTrue(dispatchedMessages.isEmpty());
+    assertTrue(dispatchedBatches.isEmpty());
   }
 
   @Test
   void dropsTheOldestMessageWhenFull() {
-    List<String> dispatchedMessages = new ArrayList<>();
-    GrapheneBridgeOutboundQueue queue = new GrapheneBridgeOutboundQueue(dispatchedMessages::add, 2);
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, Runnable::run, 2);
 
     queue.queueOrDispatch("first");
     queue.queueOrDispatch("second");
     queue.queueOrDispatch("third");
     queue.markReadyAndFlush();
 
-    assertEquals(List.of("second", "third"), dispatchedMessages);
+    assertEquals(List.of(List.of("second", "third")), dispatchedBatches);
+  }
+
+  @Test
+  void batchesMessagesUntilTheScheduledFlushRuns() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    List<Runnable> scheduledFlushes = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, scheduledFlushes::add, 16);
+    queue.markReadyAndFlush();
+
+    queue.queueOrDispatch("first");
+    queue.queueOrDispatch("second");
+    queue.queueOrDispatch("third");
+    assertTrue(dispatchedBatches.isEmpty());
+    assertEquals(1, scheduledFlushes.size());
+
+    scheduledFlushes.getFirst().run();
+    assertEquals(List.of(List.of("first", "second", "third")), dispatchedBatches);
+  }
+
+  @Test
+  void dispatchesImmediatelyWhenTheBatchIsFull() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    List<Runnable> scheduledFlushes = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(dispatchedBatches::add, scheduledFlushes::add, 16, 2, 8);
+    queue.markReadyAndFlush();
+
+    queue.queueOrDispatch("a");
+    queue.queueOrDispatch("b");
+    assertEquals(List.of(List.of("a", "b")), dispatchedBatches);
+
+    queue.queueOrDispatch("cccc");
+    queue.queueOrDispatch("ddddd");
+    assertEquals(List.of(List.of("a", "b"), List.of("cccc")), dispatchedBatches);
+
+    scheduledFlushes.forEach(Runnable::run);
+    assertEquals(List.of(List.of("a", "b"), List.of("cccc"), List.of("ddddd")), dispatchedBatches);
+  }
+
+  @Test
+  void dispatchesOutsideTheLockWithoutReorderingBatches() throws Exception {
+    List<List<String>> dispatchedBatches = new CopyOnWriteArrayList<>();
+    CountDownLatch dispatching = new CountDownLatch(1);
+    CountDownLatch releaseDispatch = new CountDownLatch(1);
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(
+            batch -> {
+              if (batch.equals(List.of("first"))) {
+                dispatching.countDown();
+                awaitUninterruptibly(releaseDispatch);
+              }
+              dispatchedBatches.add(batch);
+            },
+            Runnable::run,
+            16,
+            1,
+            1024);
+    queue.markReadyAndFlush();
+    Thread dispatcher = new Thread(() -> queue.queueOrDispatch("first"));
+    dispatcher.start();
+    assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          queue.queueOrDispatch("second");
+          queue.queueOrDispatch("third");
+        });
+    assertTrue(dispatchedBatches.isEmpty());
+    releaseDispatch.countDown();
+    dispatcher.join(5_000);
+
+    assertEquals(List.of(List.of("first"), List.of("second"), List.of("third")), dispatchedBatches);
+  }
+
+  @Test
+  void keepsBatchedMessagesForTheNextReadyDocument() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    List<Runnable> scheduledFlushes = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, scheduledFlushes::add, 16);
+    queue.markReadyAndFlush();
+
+    queue.queueOrDispatch("pending");
+    queue.markNotReady();
+    scheduledFlushes.forEach(Runnable::run);
+    assertTrue(dispatchedBatches.isEmpty());
+
+    queue.markReadyAndFlush();
+    assertEquals(List.of(List.of("pending")), dispatchedBatches);
+  }
+
+  @Test
+  void replacesPendingMessagesWithTheSameConflationKey() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, Runnable::run, 16);
+
+    queue.queueOrDispatch("position:1", "position");
+    queue.queueOrDispatch("chat:1");
+    queue.queueOrDispatch("position:2", "position");
+    queue.queueOrDispatch("chat:2");
+    queue.markReadyAndFlush();
+
+    assertEquals(List.of(List.of("position:2", "chat:1", "chat:2")), dispatchedBatches);
+
+    queue.queueOrDispatch("position:3", "position");
+    assertEquals(List.of("position:3"), dispatchedBatches.getLast());
+  }
+
+  @Test
+  void holdsConflatedReplacementsToTheCharacterBudget() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    List<Boolean> writabilityChanges = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(
+            dispatchedBatches::add, Runnable::run, 16, 32, 16, 1024, writabilityChanges::add);
+
+    queue.queueOrDispatch("chat:1");
+    queue.queueOrDispatch("state:1", "state");
+    queue.queueOrDispatch("chat:2");
+    assertTrue(queue.isWritable());
+
+    queue.queueOrDispatch("state:2-far-larger-value", "state");
+    assertEquals(1, queue.droppedMessageCount());
+    assertFalse(queue.isWritable());
+    assertEquals(List.of(false), writabilityChanges);
+
+    queue.queueOrDispatch("state:3-beyond-the-whole-budget", "state");
+    assertEquals(2, queue.droppedMessageCount());
+    queue.markReadyAndFlush();
+
+    assertEquals(List.of(List.of("chat:2")), dispatchedBatches);
+    assertTrue(queue.isWritable());
+  }
+
+  @Test
+  void drainsControlMessagesAheadOfBulkMessages() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue = newQueue(dispatchedBatches, Runnable::run, 16);
+
+    queue.queueOrDispatch("bulk:1");
+    queue.queueOrDispatch("request:1", GrapheneBridgeOutboundQueue.Priority.CONTROL);
+    queue.queueOrDispatch("bulk:2");
+    queue.queueOrDispatch("request:2", GrapheneBridgeOutboundQueue.Priority.CONTROL);
+    queue.markReadyAndFlush();
+
+    assertEquals(List.of(List.of("request:1", "request:2", "bulk:1", "bulk:2")), dispatchedBatches);
+  }
+
+  @Test
+  void dropsBulkMessagesBeforeControlMessagesWhenOverBudget() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(
+            dispatchedBatches::add, Runnable::run, 16, 12, 16, 1024, ignored -> {});
+
+    queue.queueOrDispatch("control1", GrapheneBridgeOutboundQueue.Priority.CONTROL);
+    queue.queueOrDispatch("bulk");
+    queue.queueOrDispatch("control2", GrapheneBridgeOutboundQueue.Priority.CONTROL);
+    queue.queueOrDispatch("bulk:2");
+    queue.markReadyAndFlush();
+
+    assertEquals(List.of(List.of("control2")), dispatchedBatches);
+    assertEquals(3, queue.droppedMessageCount());
+  }
+
+  @Test
+  void neverDropsStreamPacketsWhenOverBudget() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(
+            dispatchedBatches::add, Runnable::run, 2, Long.MAX_VALUE, 2, 1024, ignored -> {});
+
+    queue.queueOrDispatch("bulk");
+    queue.queueOrDispatch("next:1", GrapheneBridgeOutboundQueue.Priority.STREAM);
+    queue.queueOrDispatch("next:2", GrapheneBridgeOutboundQueue.Priority.STREAM);
+    queue.queueOrDispatch("end", GrapheneBridgeOutboundQueue.Priority.STREAM);
+    queue.queueOrDispatch("request", GrapheneBridgeOutboundQueue.Priority.CONTROL);
+    queue.queueOrDispatch("bulk:2");
+    queue.markReadyAndFlush();
+
+    assertEquals(
+        List.of(List.of("request", "next:1"), List.of("next:2", "end")), dispatchedBatches);
+    assertEquals(2, queue.droppedMessageCount());
+  }
+
+  @Test
+  void rejectsOffersUntilTheQueueDrainsBelowHalf() {
+    List<List<String>> dispatchedBatches = new ArrayList<>();
+    List<Boolean> writabilityChanges = new ArrayList<>();
+    GrapheneBridgeOutboundQueue queue =
+        new GrapheneBridgeOutboundQueue(
+            dispatchedBatches::add,
+            Runnable::run,
+            4,
+            Long.MAX_VALUE,
+            4,
+            1024,
+            writabilityChanges::add);
+
+    assertTrue(queue.offer("first"));
+    assertTrue(queue.offer("second"));
+    assertTrue(queue.offer("third"));
+    assertFalse(queue.isWritable());
+    assertFalse(queue.offer("rejected"));
+    assertEquals(3, queue.queuedMessageCount());
+    assertEquals(List.of(false), writabilityChanges);
+
+    queue.markReadyAndFlush();
+
+    assertTrue(queue.isWritable());
+    assertEquals(List.of(false, true), writabilityChanges);
+    assertEquals(List.of(List.of("first", "second", "third")), dispatchedBatches);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static GrapheneBridgeOutboundQueue newQueue(
+      List<List<String>> dispatchedBatches, Executor flushExecutor, int maxQueuedMessages) {
+    return new GrapheneBridgeOutboundQueue(
+        dispatchedBatches::add, flushExecutor, maxQueuedMessages, maxQueuedMessages, 1024);
   }
 }
@@ -0,0 +1,141 @@
+package io.github.trethore.graphene.internal.bridge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+final class GrapheneBridgeTimeoutWheelTest {
+  private static final long TICK_NANOS = 10;
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<String> expired = new ArrayList<>();
+  private final List<CompletableFuture<Void>> tickerTasks = new ArrayList<>();
+
+  @Test
+  void expiresKeysOnceTheirDeadlineTickPasses() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(8);
+    wheel.schedule("short", 15);
+    wheel.schedule("long", 35);
+
+    clock.set(19);
+    wheel.advance();
+    assertTrue(expired.isEmpty());
+
+    clock.set(20);
+    wheel.advance();
+    assertEquals(List.of("short"), expired);
+
+    clock.set(40);
+    wheel.advance();
+    assertEquals(List.of("short", "long"), expired);
+  }
+
+  @Test
+  void keepsKeysThatWrapAroundTheWheelUntilTheirRound() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(4);
+    wheel.schedule("near", 10);
+    wheel.schedule("far", 50);
+
+    clock.set(10);
+    wheel.advance();
+    assertEquals(List.of("near"), expired);
+
+    clock.set(49);
+    wheel.advance();
+    assertEquals(List.of("near"), expired);
+
+    clock.set(50);
+    wheel.advance();
+    assertEquals(List.of("near", "far"), expired);
+  }
+
+  @Test
+  void startsOneTickerWhileKeysArePendingAndStopsWhenEmpty() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(8);
+    wheel.schedule("first", 10);
+    wheel.schedule("second", 10);
+    assertEquals(1, tickerTasks.size());
+
+    clock.set(10);
+    wheel.advance();
+    assertTrue(tickerTasks.getFirst().isCancelled());
+
+    wheel.schedule("third", 10);
+    assertEquals(2, tickerTasks.size());
+  }
+
+  @Test
+  void cancelledKeysNeverExpireAndReleaseTheTicker() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(8);
+    GrapheneBridgeTimeoutWheel.Timeout cancelled = wheel.schedule("cancelled", 10);
+    wheel.schedule("kept", 10);
+
+    cancelled.cancel();
+    clock.set(10);
+    wheel.advance();
+
+    assertEquals(List.of("kept"), expired);
+    GrapheneBridgeTimeoutWheel.Timeout last = wheel.schedule("last", 10);
+    last.cancel();
+    assertTrue(tickerTasks.getLast().isCancelled());
+  }
+
+  @Test
+  void skipsTheTicksThatPassedWhileTheWheelWasIdle() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(8);
+    wheel.schedule("cancelled", 10).cancel();
+
+    clock.set(TICK_NANOS * 1_000_000_000_000L);
+    wheel.schedule("late", 15);
+    clock.addAndGet(19);
+    assertTimeoutPreemptively(Duration.ofSeconds(5), wheel::advance);
+    assertTrue(expired.isEmpty());
+
+    clock.addAndGet(1);
+    assertTimeoutPreemptively(Duration.ofSeconds(5), wheel::advance);
+    assertEquals(List.of("late"), expired);
+  }
+
+  @Test
+  void catchesUpAStalledTickerInOneSweep() {
+    GrapheneBridgeTimeoutWheel wheel = wheel(8);
+    wheel.schedule("first", 10);
+    wheel.schedule("second", 75);
+
+    clock.set(TICK_NANOS * 1_000_000_000_000L);
+    wheel.schedule("pending", 30);
+    assertTimeoutPreemptively(Duration.ofSeconds(5), wheel::advance);
+    assertEquals(List.of("first", "second"), expired.stream().sorted().toList());
+
+    clock.addAndGet(30);
+    wheel.advance();
+    assertEquals("pending", expired.getLast());
+    assertEquals(3, expired.size());
+  }
+
+  @Test
+  void rejectsSlotCountsThatAreNotPowersOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> wheel(6));
+  }
+
+  private GrapheneBridgeTimeoutWheel wheel(int slotCount) {
+    return new GrapheneBridgeTimeoutWheel(
+        TICK_NANOS,
+        slotCount,
+        clock::get,
+        (tick, periodNanos) -> {
+          CompletableFuture<Void> task = new CompletableFuture<>();
+          tickerTasks.add(task);
+          return task;
+        },
+        expired::add);
+  }
+}
@@ -0,0 +1,180 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GrapheneDirtyRegionCoalescerTest {
+  private static final GrapheneDirtyRegionCoalescer EXACT =
+      new GrapheneDirtyRegionCoalescer(new GrapheneDirtyRegionCoalescer.CostModel(0, 64));
+
+  @Test
+  void mergesOverlappingAndAdjacentRectanglesIntoOne() {
+    List<BrowserDirtyRegion> coalesced =
+        EXACT.coalesce(
+            List.of(
+                new BrowserDirtyRegion(0, 0, 10, 10),
+                new BrowserDirtyRegion(5, 0, 10, 10),
+                new BrowserDirtyRegion(15, 0, 5, 10)));
+
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 20, 10)), coalesced);
+  }
+
+  @Test
+  void keepsDistantCaretsSeparate() {
+    GrapheneDirtyRegionCoalescer coalescer = new GrapheneDirtyRegionCoalescer();
+    BrowserDirtyRegion caret = new BrowserDirtyRegion(10, 10, 2, 16);
+    BrowserDirtyRegion spinner = new BrowserDirtyRegion(1500, 900, 32, 32);
+
+    List<BrowserDirtyRegion> coalesced = coalescer.coalesce(List.of(caret, spinner));
+
+    assertEquals(2, coalesced.size());
+    assertTrue(coalesced.contains(caret));
+    assertTrue(coalesced.contains(spinner));
+  }
+
+  @Test
+  void mergesNearbyRectanglesWhenTheGapIsCheap() {
+    GrapheneDirtyRegionCoalescer coalescer = new GrapheneDirtyRegionCoalescer();
+
+    List<BrowserDirtyRegion> coalesced =
+        coalescer.coalesce(
+            List.of(new BrowserDirtyRegion(0, 0, 16, 16), new BrowserDirtyRegion(20, 4, 16, 16)));
+
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 36, 20)), coalesced);
+  }
+
+  @Test
+  void splitsCrossIntoDisjointBands() {
+    List<BrowserDirtyRegion> cross =
+        List.of(new BrowserDirtyRegion(10, 0, 10, 30), new BrowserDirtyRegion(0, 10, 30, 10));
+
+    List<BrowserDirtyRegion> coalesced = EXACT.coalesce(cross);
+
+    assertEquals(
+        List.of(
+            new BrowserDirtyRegion(10, 0, 10, 10),
+            new BrowserDirtyRegion(0, 10, 30, 10),
+            new BrowserDirtyRegion(10, 20, 10, 10)),
+        coalesced);
+  }
+
+  @Test
+  void joinsScrolledRowStripsIntoOneRectangle() {
+    List<BrowserDirtyRegion> strips = new ArrayList<>();
+    for (int row = 0; row < 40; row++) {
+      strips.add(new BrowserDirtyRegion(0, row * 2, 800, 2));
+    }
+
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 800, 80)), EXACT.coalesce(strips));
+  }
+
+  @Test
+  void fallsBackToBoundingBoxAboveRegionLimit() {
+    GrapheneDirtyRegionCoalescer coalescer =
+        new GrapheneDirtyRegionCoalescer(new GrapheneDirtyRegionCoalescer.CostModel(0, 2));
+
+    List<BrowserDirtyRegion> coalesced =
+        coalescer.coalesce(
+            List.of(
+                new BrowserDirtyRegion(0, 0, 1, 1),
+                new BrowserDirtyRegion(10, 10, 1, 1),
+                new BrowserDirtyRegion(20, 20, 1, 1)));
+
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 21, 21)), coalesced);
+  }
+
+  @Test
+  void coversRandomDamageExactlyOnceWithoutOverhead() {
+    Random random = new Random(42);
+    for (int iteration = 0; iteration < 200; iteration++) {
+      List<BrowserDirtyRegion> damage = new ArrayList<>();
+      int regionCount = 2 + random.nextInt(8);
+      for (int index = 0; index < regionCount; index++) {
+        damage.add(
+            new BrowserDirtyRegion(
+                random.nextInt(24),
+                random.nextInt(24),
+                1 + random.nextInt(8),
+                1 + random.nextInt(8)));
+      }
+
+      List<BrowserDirtyRegion> coalesced = EXACT.coalesce(damage);
+
+      int[][] expected = coverage(damage);
+      int[][] actual = coverage(coalesced);
+      for (int y = 0; y < expected.length; y++) {
+        for (int x = 0; x < expected[y].length; x++) {
+          assertEquals(expected[y][x] > 0 ? 1 : 0, actual[y][x], "pixel " + x + "," + y);
+        }
+      }
+    }
+  }
+
+  @Test
+  void neverDropsDamagedPixelsUnderDefaultCostModel() {
+    GrapheneDirtyRegionCoalescer coalescer = new GrapheneDirtyRegionCoalescer();
+    Random random = new Random(7);
+    for (int iteration = 0; iteration < 200; iteration++) {
+      List<BrowserDirtyRegion> damage = new ArrayList<>();
+      int regionCount = 2 + random.nextInt(12);
+      for (int index = 0; index < regionCount; index++) {
+        damage.add(
+            new BrowserDirtyRegion(
+                random.nextInt(180),
+                random.nextInt(180),
+                1 + random.nextInt(20),
+                1 + random.nextInt(20)));
+      }
+
+      List<BrowserDirtyRegion> coalesced = coalescer.coalesce(damage);
+
+      int[][] expected = coverage(damage);
+      int[][] actual = coverage(coalesced);
+      assertTrue(coalesced.size() <= coalescer.costModel().maximumRegions());
+      for (int y = 0; y < expected.length; y++) {
+        for (int x = 0; x < expected[y].length; x++) {
+          assertTrue(actual[y][x] <= 1, "pixel " + x + "," + y + " covered twice");
+          if (expected[y][x] > 0) {
+            assertEquals(1, actual[y][x], "pixel " + x + "," + y);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void returnsSingleAndEmptyListsUnchanged() {
+    BrowserDirtyRegion region = new BrowserDirtyRegion(1, 2, 3, 4);
+
+    assertEquals(List.of(), EXACT.coalesce(List.of()));
+    assertEquals(List.of(region), EXACT.coalesce(List.of(region)));
+  }
+
+  @Test
+  void rejectsInvalidCostModel() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new GrapheneDirtyRegionCoalescer.CostModel(-1, 1));
+    assertThrows(
+        IllegalArgumentException.class, () -> new GrapheneDirtyRegionCoalescer.CostModel(0, 0));
+    assertThrows(NullPointerException.class, () -> new GrapheneDirtyRegionCoalescer(null));
+  }
+
+  private static int[][] coverage(List<BrowserDirtyRegion> regions) {
+    int[][] counts = new int[200][200];
+    for (BrowserDirtyRegion region : regions) {
+      for (int y = region.y(); y < region.y() + region.height(); y++) {
+        for (int x = region.x(); x < region.x() + region.width(); x++) {
+          counts[y][x]++;
+        }
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,78 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class GrapheneFrameBufferPoolTest {
+  @Test
+  void reusesRecycledBuffersOfTheCurrentSize() {
+    GrapheneFrameBufferPool pool = new GrapheneFrameBufferPool(2);
+
+    ByteBuffer first = pool.acquire(16);
+    pool.recycle(first);
+    ByteBuffer second = pool.acquire(16);
+
+    assertSame(first, second);
+    assertTrue(second.isDirect());
+    assertEquals(0, second.position());
+    assertEquals(16, second.limit());
+    assertEquals(new GrapheneFrameBufferPool.Occupancy(2, 16, 1, 0, 1, 1), pool.occupancy());
+  }
+
+  @Test
+  void returnsTheContentTagARecycledBufferWasReturnedWith() {
+    GrapheneFrameBufferPool pool = new GrapheneFrameBufferPool();
+
+    GrapheneFrameBufferPool.TaggedBuffer fresh = pool.acquireTagged(8);
+    pool.recycle(fresh.buffer(), 42);
+    GrapheneFrameBufferPool.TaggedBuffer reused = pool.acquireTagged(8);
+
+    assertEquals(GrapheneFrameBufferPool.UNTAGGED, fresh.contentTag());
+    assertSame(fresh.buffer(), reused.buffer());
+    assertEquals(42, reused.contentTag());
+  }
+
+  @Test
+  void discardsBuffersBeyondCapacityOrOfAStaleSize() {
+    GrapheneFrameBufferPool pool = new GrapheneFrameBufferPool(1);
+    ByteBuffer first = pool.acquire(16);
+    ByteBuffer second = pool.acquire(16);
+    ByteBuffer third = pool.acquire(16);
+
+    pool.recycle(first);
+    pool.recycle(second);
+    ByteBuffer resized = pool.acquire(32);
+    pool.recycle(third);
+
+    assertNotSame(first, resized);
+    assertEquals(32, resized.capacity());
+    assertEquals(new GrapheneFrameBufferPool.Occupancy(1, 32, 1, 0, 4, 0), pool.occupancy());
+  }
+
+  @Test
+  void dropsIdleBuffersWhenCleared() {
+    GrapheneFrameBufferPool pool = new GrapheneFrameBufferPool();
+    ByteBuffer borrowed = pool.acquire(8);
+    pool.recycle(pool.acquire(8));
+
+    pool.clear();
+    pool.recycle(borrowed);
+
+    assertEquals(0, pool.occupancy().availableBuffers());
+    assertEquals(0, pool.occupancy().borrowedBuffers());
+  }
+
+  @Test
+  void rejectsInvalidSizes() {
+    GrapheneFrameBufferPool pool = new GrapheneFrameBufferPool();
+
+    assertThrows(IllegalArgumentException.class, () -> new GrapheneFrameBufferPool(0));
+    assertThrows(IllegalArgumentException.class, () -> pool.acquire(0));
+  }
+}
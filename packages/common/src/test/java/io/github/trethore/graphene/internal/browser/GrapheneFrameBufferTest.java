@@ -1,12 +1,16 @@
 package io.github.trethore.graphene.internal.browser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserFrameMetrics;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
 import java.nio.ByteBuffer;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -32,6 +36,7 @@ class GrapheneFrameBufferTest {
 
     BrowserFrame first =
         frameBuffer.capture(2, 1, List.of(new BrowserDirtyRegion(0, 0, 2, 1)), pixels);
+    assertTrue(first.retain());
     pixels.put(0, (byte) 9);
     BrowserFrame second = frameBuffer.capture(2, 1, List.of(), pixels);
 
@@ -42,6 +47,7 @@ class GrapheneFrameBufferTest {
     assertTrue(first.pixels().isReadOnly());
     assertEquals(List.of(new BrowserDirtyRegion(0, 0, 2, 1)), second.dirtyRegions());
     assertEquals(second, frameBuffer.latestFrame());
+    first.release();
   }
 
   @Test
@@ -105,4 +111,221 @@ class GrapheneFrameBufferTest {
     assertEquals(List.of(new BrowserDirtyRegion(1, 1, 1, 1)), clipped.dirtyRegions());
     assertEquals(List.of(new BrowserDirtyRegion(0, 0, 1, 1)), resized.dirtyRegions());
   }
+
+  @Test
+  void coalescesPaintDamageWithTheConfiguredCostModel() {
+    List<BrowserDirtyRegion> damage =
+        List.of(new BrowserDirtyRegion(0, 0, 1, 1), new BrowserDirtyRegion(2, 0, 1, 1));
+    GrapheneFrameBuffer defaultBuffer = new GrapheneFrameBuffer();
+    GrapheneFrameBuffer exactBuffer =
+        new GrapheneFrameBuffer(
+            BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB,
+            new GrapheneDirtyRegionCoalescer.CostModel(0, 64));
+    ByteBuffer pixels = ByteBuffer.allocateDirect(16);
+    defaultBuffer.capture(4, 1, List.of(), pixels);
+    exactBuffer.capture(4, 1, List.of(), pixels);
+
+    assertEquals(
+        List.of(new BrowserDirtyRegion(0, 0, 3, 1)),
+        defaultBuffer.capture(4, 1, damage, pixels).dirtyRegions());
+    assertEquals(damage, exactBuffer.capture(4, 1, damage, pixels).dirtyRegions());
+  }
+
+  @Test
+  void reusesPooledStorageOnceSupersededFramesAreReleased() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(16);
+    frameBuffer.capture(2, 2, List.of(), pixels);
+    frameBuffer.capture(2, 2, List.of(), pixels);
+    long allocations = frameBuffer.poolOccupancy().allocations();
+
+    for (int frame = 0; frame < 100; frame++) {
+      frameBuffer.capture(2, 2, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), pixels);
+    }
+
+    GrapheneFrameBufferPool.Occupancy occupancy = frameBuffer.poolOccupancy();
+    assertEquals(allocations, occupancy.allocations());
+    assertEquals(1, occupancy.borrowedBuffers());
+  }
+
+  @Test
+  void reportsPooledStorageAcrossMainAndPopupFrames() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(16);
+    frameBuffer.capture(2, 2, List.of(), pixels);
+    frameBuffer.capture(2, 2, List.of(), pixels);
+    frameBuffer.setPopupBounds(new BrowserDirtyRegion(0, 0, 1, 1));
+    frameBuffer.capturePopup(1, 1, ByteBuffer.allocateDirect(4));
+    frameBuffer.capture(2, 2, List.of(), pixels);
+    BrowserFrameMetrics warmedUp = frameBuffer.metrics();
+
+    for (int frame = 0; frame < 10; frame++) {
+      frameBuffer.capture(2, 2, List.of(new BrowserDirtyRegion(1, 1, 1, 1)), pixels);
+    }
+
+    BrowserFrameMetrics metrics = frameBuffer.metrics();
+    assertEquals(warmedUp.allocatedBuffers(), metrics.allocatedBuffers());
+    assertTrue(metrics.reusedBuffers() >= warmedUp.reusedBuffers() + 20);
+    // The main store, the composite store and the popup.
+    assertEquals(3, metrics.borrowedBuffers());
+    frameBuffer.clear();
+    assertEquals(0, frameBuffer.metrics().borrowedBuffers());
+    assertEquals(0, frameBuffer.metrics().idleBuffers());
+  }
+
+  @Test
+  void keepsRetainedFramesIntactWhileNewerFramesArrive() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(4);
+    pixels.put(0, (byte) 1);
+    frameBuffer.capture(1, 1, List.of(), pixels);
+    BrowserFrame retained = frameBuffer.retainLatestFrame();
+
+    for (int frame = 2; frame < 10; frame++) {
+      pixels.put(0, (byte) frame);
+      frameBuffer.capture(1, 1, List.of(), pixels);
+    }
+
+    assertEquals(1, retained.pixels().get(0));
+    assertEquals(9, frameBuffer.latestFrame().pixels().get(0));
+    retained.release();
+    assertFalse(retained.retain());
+    assertThrows(IllegalStateException.class, retained::pixels);
+  }
+
+  @Test
+  void releasesPooledStorageWhenCleared() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    frameBuffer.capture(1, 1, List.of(), ByteBuffer.allocateDirect(4));
+    BrowserFrame frame = frameBuffer.latestFrame();
+
+    frameBuffer.clear();
+
+    assertFalse(frame.retain());
+    assertNull(frameBuffer.retainLatestFrame());
+    assertEquals(0, frameBuffer.poolOccupancy().borrowedBuffers());
+  }
+
+  @Test
+  void copiesOnlyRectanglesDamagedSinceARecycledStoreWasWritten() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(12);
+    pixels.put(0, (byte) 1).put(4, (byte) 1);
+    frameBuffer.capture(3, 1, List.of(), pixels);
+    pixels.put(0, (byte) 2);
+    frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), pixels);
+
+    pixels.put(0, (byte) 3).put(4, (byte) 7);
+    BrowserFrame frame =
+        frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), pixels);
+
+    assertEquals(3, frame.pixels().get(0));
+    assertEquals(1, frame.pixels().get(4));
+  }
+
+  @Test
+  void copiesCompleteFramesAfterAResizeWithTheSameByteCount() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer pixels = ByteBuffer.allocateDirect(8);
+    frameBuffer.capture(2, 1, List.of(), pixels);
+    frameBuffer.capture(2, 1, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), pixels);
+
+    pixels.put(4, (byte) 5);
+    BrowserFrame resized =
+        frameBuffer.capture(1, 2, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), pixels);
+
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 1, 2)), resized.dirtyRegions());
+    assertEquals(5, resized.pixels().get(4));
+  }
+
+  @Test
+  void keepsThePopupOnTopWhenOnlyTheMainFrameChanges() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    ByteBuffer main = ByteBuffer.allocateDirect(12);
+    main.put(new byte[] {1, 0, 0, 0, 2, 0, 0, 0, 3, 0, 0, 0}).flip();
+    frameBuffer.capture(3, 1, List.of(), main);
+    frameBuffer.setPopupBounds(new BrowserDirtyRegion(2, 0, 1, 1));
+    ByteBuffer popup = ByteBuffer.allocateDirect(4);
+    popup.put(new byte[] {20, 21, 22, 23}).flip();
+    frameBuffer.capturePopup(1, 1, popup);
+
+    BrowserFrame latest = null;
+    for (byte value = 4; value < 10; value++) {
+      main.put(4, value).put(8, value);
+      latest = frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(1, 0, 2, 1)), main);
+    }
+
+    assertNotNull(latest);
+    assertEquals(List.of(new BrowserDirtyRegion(1, 0, 2, 1)), latest.dirtyRegions());
+    assertEquals(1, latest.pixels().get(0));
+    assertEquals(9, latest.pixels().get(4));
+    assertEquals(20, latest.pixels().get(8));
+    assertEquals(23, latest.pixels().get(11));
+  }
+
+  @Test
+  void clipsPopupsThatExtendBeyondTheMainFrame() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer();
+    frameBuffer.capture(2, 2, List.of(), ByteBuffer.allocateDirect(16));
+    frameBuffer.setPopupBounds(new BrowserDirtyRegion(1, 1, 2, 2));
+    ByteBuffer popup = ByteBuffer.allocateDirect(16);
+    for (int index = 0; index < 16; index++) {
+      popup.put(index, (byte) (30 + index));
+    }
+
+    BrowserFrame composited = frameBuffer.capturePopup(2, 2, popup);
+
+    assertNotNull(composited);
+    assertEquals(List.of(new BrowserDirtyRegion(1, 1, 1, 1)), composited.dirtyRegions());
+    assertEquals(30, composited.pixels().get(12));
+    assertEquals(0, composited.pixels().get(8));
+  }
+
+  @Test
+  void convertsPaintedAndPopupPixelsToTheConfiguredLayout() {
+    GrapheneFrameBuffer frameBuffer =
+        new GrapheneFrameBuffer(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB);
+    ByteBuffer main = ByteBuffer.allocateDirect(8);
+    main.put(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}).flip();
+
+    BrowserFrame captured =
+        frameBuffer.capture(2, 1, List.of(new BrowserDirtyRegion(0, 0, 2, 1)), main);
+    ByteBuffer capturedPixels = captured.pixels();
+
+    assertEquals(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB, captured.pixelFormat());
+    assertEquals(3, capturedPixels.get(0));
+    assertEquals(1, capturedPixels.get(2));
+    assertEquals(4, capturedPixels.get(3));
+
+    frameBuffer.setPopupBounds(new BrowserDirtyRegion(1, 0, 1, 1));
+    ByteBuffer popup = ByteBuffer.allocateDirect(4);
+    popup.put(new byte[] {20, 21, 22, 23}).flip();
+    BrowserFrame composited = frameBuffer.capturePopup(1, 1, popup);
+
+    assertEquals(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB, composited.pixelFormat());
+    assertEquals(3, composited.pixels().get(0));
+    assertEquals(22, composited.pixels().get(4));
+    assertEquals(20, composited.pixels().get(6));
+  }
+
+  @Test
+  void forcesOpaqueAlphaForRgbxFrames() {
+    GrapheneFrameBuffer frameBuffer = new GrapheneFrameBuffer(BrowserPixelFormat.RGBX_8888_SRGB);
+    ByteBuffer pixels = ByteBuffer.allocateDirect(12);
+    pixels.put(new byte[] {1, 2, 3, 0, 4, 5, 6, 0, 7, 8, 9, 0}).flip();
+    frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(0, 0, 3, 1)), pixels);
+    frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(0, 0, 3, 1)), pixels);
+    pixels.put(4, (byte) 40);
+
+    BrowserFrame frame =
+        frameBuffer.capture(3, 1, List.of(new BrowserDirtyRegion(1, 0, 1, 1)), pixels);
+    ByteBuffer converted = frame.pixels();
+
+    assertEquals(BrowserPixelFormat.RGBX_8888_SRGB, frame.pixelFormat());
+    assertEquals(6, converted.get(4));
+    assertEquals(40, converted.get(6));
+    for (int pixel = 0; pixel < 3; pixel++) {
+      assertEquals((byte) 0xFF, converted.get(pixel * 4 + 3));
+    }
+  }
 }
@@ -1,6 +1,7 @@
 package io.github.trethore.graphene.internal.browser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
@@ -85,6 +86,37 @@ class GrapheneFrameEventBusTest {
     }
   }
 
+  @Test
+  void holdsPooledFramesOnlyUntilTheyAreDispatched() {
+    TestTaskExecutor executor = new TestTaskExecutor();
+    try (GrapheneFrameEventBus eventBus = new GrapheneFrameEventBus(executor)) {
+      List<Long> receivedSequences = new ArrayList<>();
+      eventBus.subscribe(frame -> receivedSequences.add(frame.sequence()));
+      BrowserFrame first = pooledFrame(1);
+      BrowserFrame second = pooledFrame(2);
+
+      eventBus.publish(first);
+      eventBus.publish(second);
+      first.release();
+      second.release();
+
+      assertFalse(first.retain());
+      executor.runNext();
+      assertEquals(List.of(2L), receivedSequences);
+      assertFalse(second.retain());
+    }
+  }
+
+  private static BrowserFrame pooledFrame(long sequence) {
+    return BrowserFrame.wrap(
+        1,
+        1,
+        sequence,
+        List.of(new BrowserDirtyRegion(0, 0, 1, 1)),
+        ByteBuffer.allocateDirect(4),
+        () -> {});
+  }
+
   private static BrowserFrame frame(long sequence) {
     return new BrowserFrame(
         1, 1, sequence, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), ByteBuffer.allocateDirect(4));
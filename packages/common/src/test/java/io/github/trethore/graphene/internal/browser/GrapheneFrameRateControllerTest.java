@@ -0,0 +1,85 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserFrameRatePolicy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GrapheneFrameRateControllerTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final List<BrowserDirtyRegion> FULL =
+      List.of(new BrowserDirtyRegion(0, 0, 100, 100));
+
+  @Test
+  void keepsTheMaximumFrameRateForFixedPolicies() {
+    GrapheneFrameRateController controller =
+        new GrapheneFrameRateController(BrowserFrameRatePolicy.fixed(), 60, 0);
+
+    assertEquals(60, controller.targetFrameRate(10 * SECOND));
+    assertEquals(0, controller.frameRateChange(10 * SECOND));
+  }
+
+  @Test
+  void idlesStaticPagesAfterTheIdleDelay() {
+    GrapheneFrameRateController controller = adaptiveController();
+
+    assertEquals(60, controller.targetFrameRate(SECOND / 2));
+    assertEquals(5, controller.frameRateChange(SECOND));
+    assertEquals(0, controller.frameRateChange(2 * SECOND));
+  }
+
+  @Test
+  void returnsToTheMaximumOnInput() {
+    GrapheneFrameRateController controller = adaptiveController();
+    controller.frameRateChange(2 * SECOND);
+
+    controller.recordInput(3 * SECOND);
+
+    assertEquals(60, controller.frameRateChange(3 * SECOND));
+    assertEquals(5, controller.frameRateChange(4 * SECOND));
+  }
+
+  @Test
+  void detectsAnimationsCappedAtTheIdleRate() {
+    GrapheneFrameRateController controller = adaptiveController();
+    controller.frameRateChange(2 * SECOND);
+
+    long now = 2 * SECOND;
+    for (int paint = 0; paint < 10; paint++) {
+      now += SECOND / 5;
+      controller.recordPaint(now, FULL, 100, 100);
+    }
+
+    assertEquals(60, controller.frameRateChange(now));
+  }
+
+  @Test
+  void ignoresSlowOrTinyRepaints() {
+    GrapheneFrameRateController controller = adaptiveController();
+    long now = 0;
+    for (int paint = 0; paint < 10; paint++) {
+      now += SECOND;
+      controller.recordPaint(now, FULL, 100, 100);
+      controller.recordPaint(now + 1, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), 100, 100);
+    }
+
+    assertEquals(5, controller.targetFrameRate(now));
+  }
+
+  @Test
+  void neverIdlesAboveTheMaximumFrameRate() {
+    GrapheneFrameRateController controller =
+        new GrapheneFrameRateController(BrowserFrameRatePolicy.adaptive(30), 20, 0);
+
+    assertEquals(20, controller.targetFrameRate(10 * SECOND));
+  }
+
+  private static GrapheneFrameRateController adaptiveController() {
+    return new GrapheneFrameRateController(
+        BrowserFrameRatePolicy.adaptive(5, Duration.ofSeconds(1)), 60, 0);
+  }
+}
@@ -0,0 +1,188 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class GrapheneFrameStagerTest {
+  private static final int WIDE = 10_000;
+
+  @Test
+  void stagesDirtyRegionsPackedInTextureLayout() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(true, worker::add);
+
+    stager.stage(frame(4, 1, 2, List.of(new BrowserDirtyRegion(1, 0, 1, 1))));
+    assertNull(stager.take(2));
+    worker.poll().run();
+    GrapheneFrameStager.StagedFrame staged = stager.take(2);
+
+    assertNotNull(staged);
+    assertFalse(staged.complete());
+    assertTrue(staged.appliesTo(1));
+    assertFalse(staged.appliesTo(0));
+    assertEquals(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB, staged.pixelFormat());
+    GrapheneFrameStager.StagedRegion region = staged.regions().getFirst();
+    assertEquals(new BrowserDirtyRegion(1, 0, 1, 1), region.region());
+    ByteBuffer pixels = staged.pixels(region);
+    assertEquals(4, pixels.remaining());
+    assertEquals(6, pixels.get(0));
+    assertEquals(4, pixels.get(2));
+    assertEquals(7, pixels.get(3));
+    stager.recycle(staged);
+  }
+
+  @Test
+  void mergesDamageOfFramesSkippedBeforeTheWorkerRan() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(true, worker::add);
+    AtomicInteger releases = new AtomicInteger();
+    BrowserFrame skipped =
+        pooledFrame(WIDE, 1, 5, List.of(new BrowserDirtyRegion(0, 0, 1, 1)), releases);
+
+    stager.stage(skipped);
+    skipped.release();
+    stager.stage(frame(WIDE, 1, 6, List.of(new BrowserDirtyRegion(WIDE - 1, 0, 1, 1))));
+
+    assertEquals(1, releases.get());
+    assertEquals(1, worker.size());
+    worker.poll().run();
+    GrapheneFrameStager.StagedFrame staged = stager.take(6);
+
+    assertNotNull(staged);
+    assertTrue(staged.appliesTo(4));
+    assertEquals(
+        List.of(new BrowserDirtyRegion(0, 0, 1, 1), new BrowserDirtyRegion(WIDE - 1, 0, 1, 1)),
+        regions(staged));
+  }
+
+  @Test
+  void extendsAnUnconsumedStagedFrameWithTheNextFrame() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(true, worker::add);
+
+    stager.stage(frame(WIDE, 1, 2, List.of(new BrowserDirtyRegion(0, 0, 1, 1))));
+    worker.poll().run();
+    stager.stage(frame(WIDE, 1, 3, List.of(new BrowserDirtyRegion(WIDE - 1, 0, 1, 1))));
+    worker.poll().run();
+
+    assertNull(stager.take(2));
+    GrapheneFrameStager.StagedFrame staged = stager.take(3);
+    assertNotNull(staged);
+    assertTrue(staged.appliesTo(1));
+    assertEquals(2, staged.regions().size());
+  }
+
+  @Test
+  void stagesCompleteFramesAfterGapsOrResizes() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(false, worker::add);
+
+    stager.stage(frame(8, 1, 2, List.of(new BrowserDirtyRegion(0, 0, 1, 1))));
+    stager.stage(frame(4, 1, 3, List.of(new BrowserDirtyRegion(0, 0, 1, 1))));
+    worker.poll().run();
+    GrapheneFrameStager.StagedFrame staged = stager.take(3);
+
+    assertNotNull(staged);
+    assertTrue(staged.complete());
+    assertTrue(staged.appliesTo(Long.MIN_VALUE));
+    assertEquals(BrowserPixelFormat.RGBX_8888_SRGB, staged.pixelFormat());
+    assertEquals(List.of(new BrowserDirtyRegion(0, 0, 4, 1)), regions(staged));
+    ByteBuffer pixels = staged.pixels(staged.regions().getFirst());
+    assertEquals((byte) 0xFF, pixels.get(3));
+  }
+
+  @Test
+  void discardsStagedFramesOlderThanTheRenderedFrame() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(true, worker::add);
+
+    stager.stage(frame(8, 1, 2, List.of(new BrowserDirtyRegion(0, 0, 1, 1))));
+    worker.poll().run();
+
+    assertNull(stager.take(1));
+    assertNull(stager.take(3));
+    assertNull(stager.take(2));
+  }
+
+  @Test
+  void releasesPendingFramesWhenClosed() {
+    ArrayDeque<Runnable> worker = new ArrayDeque<>();
+    GrapheneFrameStager stager = new GrapheneFrameStager(true, worker::add);
+    AtomicInteger releases = new AtomicInteger();
+    BrowserFrame frame =
+        pooledFrame(2, 1, 1, List.of(new BrowserDirtyRegion(0, 0, 2, 1)), releases);
+
+    stager.stage(frame);
+    frame.release();
+    stager.close();
+    worker.poll().run();
+
+    assertEquals(1, releases.get());
+    assertNull(stager.take(1));
+    stager.stage(frame(2, 1, 2, List.of(new BrowserDirtyRegion(0, 0, 2, 1))));
+    assertTrue(worker.isEmpty());
+  }
+
+  @Test
+  void choosesRgbaOrderedTextureLayouts() {
+    assertEquals(
+        BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB,
+        GrapheneFrameStager.textureFormat(BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB, true));
+    assertEquals(
+        BrowserPixelFormat.RGBX_8888_SRGB,
+        GrapheneFrameStager.textureFormat(BrowserPixelFormat.RGBX_8888_SRGB, true));
+    assertEquals(
+        BrowserPixelFormat.RGBX_8888_SRGB,
+        GrapheneFrameStager.textureFormat(BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB, false));
+  }
+
+  @Test
+  void requiresFullUploadForLargeOrFragmentedDamage() {
+    assertFalse(
+        GrapheneFrameStager.requiresFullUpload(
+            10, 10, List.of(new BrowserDirtyRegion(0, 0, 2, 2))));
+    assertTrue(
+        GrapheneFrameStager.requiresFullUpload(
+            10, 10, List.of(new BrowserDirtyRegion(0, 0, 9, 5))));
+    assertTrue(GrapheneFrameStager.requiresFullUpload(10, 10, List.of()));
+  }
+
+  private static List<BrowserDirtyRegion> regions(GrapheneFrameStager.StagedFrame staged) {
+    return staged.regions().stream().map(GrapheneFrameStager.StagedRegion::region).toList();
+  }
+
+  private static BrowserFrame frame(
+      int width, int height, long sequence, List<BrowserDirtyRegion> dirtyRegions) {
+    return new BrowserFrame(width, height, sequence, dirtyRegions, pixels(width * height));
+  }
+
+  private static BrowserFrame pooledFrame(
+      int width,
+      int height,
+      long sequence,
+      List<BrowserDirtyRegion> dirtyRegions,
+      AtomicInteger releases) {
+    return BrowserFrame.wrap(
+        width, height, sequence, dirtyRegions, pixels(width * height), releases::incrementAndGet);
+  }
+
+  private static ByteBuffer pixels(int pixelCount) {
+    ByteBuffer pixels = ByteBuffer.allocateDirect(pixelCount * 4);
+    for (int index = 0; index < pixels.capacity(); index++) {
+      pixels.put(index, (byte) index);
+    }
+    return pixels;
+  }
+}
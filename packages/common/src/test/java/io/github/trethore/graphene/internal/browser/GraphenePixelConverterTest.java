@@ -0,0 +1,69 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class GraphenePixelConverterTest {
+  private static final byte[] BGRA = {1, 2, 3, 4, 5, 6, 7, (byte) 0x80};
+
+  @Test
+  void swapsRedAndBlueForRgba() {
+    assertArrayEquals(
+        new byte[] {3, 2, 1, 4, 7, 6, 5, (byte) 0x80},
+        convert(BGRA, BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB));
+  }
+
+  @Test
+  void forcesOpaqueAlphaForRgbx() {
+    assertArrayEquals(
+        new byte[] {3, 2, 1, (byte) 0xFF, 7, 6, 5, (byte) 0xFF},
+        convert(BGRA, BrowserPixelFormat.RGBX_8888_SRGB));
+  }
+
+  @Test
+  void copiesMatchingLayoutsUnchanged() {
+    assertArrayEquals(BGRA, convert(BGRA, BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB));
+  }
+
+  @Test
+  void convertsOnlyTheRequestedRegion() {
+    ByteBuffer source = ByteBuffer.allocateDirect(16);
+    for (int index = 0; index < 16; index++) {
+      source.put(index, (byte) index);
+    }
+    ByteBuffer target = ByteBuffer.allocateDirect(16);
+
+    GraphenePixelConverter.convertRegion(
+        source,
+        BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB,
+        target,
+        BrowserPixelFormat.RGBA_8888_PREMULTIPLIED_SRGB,
+        2,
+        new BrowserDirtyRegion(1, 1, 1, 1));
+
+    byte[] converted = new byte[16];
+    target.get(0, converted);
+    assertArrayEquals(new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 14, 13, 12, 15}, converted);
+  }
+
+  private static byte[] convert(byte[] pixels, BrowserPixelFormat targetFormat) {
+    ByteBuffer source = ByteBuffer.allocateDirect(pixels.length);
+    source.put(pixels).flip();
+    ByteBuffer target = ByteBuffer.allocateDirect(pixels.length);
+    GraphenePixelConverter.convert(
+        source,
+        0,
+        BrowserPixelFormat.BGRA_8888_PREMULTIPLIED_SRGB,
+        target,
+        0,
+        targetFormat,
+        pixels.length / 4);
+    byte[] converted = new byte[pixels.length];
+    target.get(0, converted);
+    return converted;
+  }
+}
@@ -0,0 +1,72 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GraphenePixelKernelTest {
+  private static final GraphenePixelKernel SCALAR = new GrapheneScalarPixelKernel();
+
+  @Test
+  void intLaneKernelMatchesScalarKernelBitForBit() {
+    assertMatchesScalar(new GrapheneIntLanePixelKernel());
+  }
+
+  @Test
+  void vectorKernelMatchesScalarKernelBitForBit() throws ReflectiveOperationException {
+    assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+    GraphenePixelKernel kernel =
+        (GraphenePixelKernel)
+            Class.forName("io.github.trethore.graphene.internal.browser.GrapheneVectorPixelKernel")
+                .getDeclaredConstructor()
+                .newInstance();
+
+    assertMatchesScalar(kernel);
+  }
+
+  @Test
+  void swapsOnlyTheOuterColorChannels() {
+    assertEquals(0x33221144, GrapheneIntLanePixelKernel.swapRedBlue(0x11223344));
+  }
+
+  private static void assertMatchesScalar(GraphenePixelKernel kernel) {
+    Random random = new Random(1234);
+    for (int iteration = 0; iteration < 300; iteration++) {
+      // Wide enough to span several of the vector kernel's staging chunks.
+      int pixelCount = random.nextInt(3000);
+      int sourceOffset = random.nextInt(3) * 4;
+      int targetOffset = random.nextInt(3) * 4;
+      boolean swapRedBlue = random.nextBoolean();
+      boolean opaque = random.nextBoolean();
+      ByteBuffer source = ByteBuffer.allocateDirect(sourceOffset + pixelCount * 4);
+      byte[] bytes = new byte[source.capacity()];
+      random.nextBytes(bytes);
+      source.put(0, bytes);
+      ByteBuffer expected = ByteBuffer.allocateDirect(targetOffset + pixelCount * 4);
+      ByteBuffer actual = ByteBuffer.allocateDirect(expected.capacity());
+
+      SCALAR.convertRow(
+          source.asReadOnlyBuffer(),
+          sourceOffset,
+          expected,
+          targetOffset,
+          pixelCount,
+          swapRedBlue,
+          opaque);
+      kernel.convertRow(
+          source.asReadOnlyBuffer(),
+          sourceOffset,
+          actual,
+          targetOffset,
+          pixelCount,
+          swapRedBlue,
+          opaque);
+
+      assertEquals(expected, actual, "pixels=" + pixelCount + " swap=" + swapRedBlue);
+      assertEquals(0, actual.position());
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package io.github.trethore.graphene.internal.browser;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class GrapheneSurfaceVisibilityStateTest {
+  @Test
+  void suspendsAfterConsecutiveUnrenderedFrames() {
+    GrapheneSurfaceVisibilityState state = new GrapheneSurfaceVisibilityState(3);
+
+    assertFalse(state.frameDelivered());
+    assertFalse(state.frameDelivered());
+    assertTrue(state.frameDelivered());
+    assertTrue(state.suspended());
+    assertFalse(state.frameDelivered());
+  }
+
+  @Test
+  void renderingResetsTheCountAndResumesSuspendedSessions() {
+    GrapheneSurfaceVisibilityState state = new GrapheneSurfaceVisibilityState(2);
+
+    assertFalse(state.frameDelivered());
+    assertFalse(state.rendered());
+    assertFalse(state.frameDelivered());
+    assertTrue(state.frameDelivered());
+    assertTrue(state.rendered());
+    assertFalse(state.suspended());
+    assertFalse(state.rendered());
+  }
+
+  @Test
+  void neverSuspendsWhenDisabled() {
+    GrapheneSurfaceVisibilityState state = new GrapheneSurfaceVisibilityState(0);
+
+    for (int frame = 0; frame < 100; frame++) {
+      assertFalse(state.frameDelivered());
+    }
+    assertFalse(state.suspended());
+  }
+
+  @Test
+  void rejectsNegativeThresholds() {
+    assertThrows(IllegalArgumentException.class, () -> new GrapheneSurfaceVisibilityState(-1));
+  }
+}
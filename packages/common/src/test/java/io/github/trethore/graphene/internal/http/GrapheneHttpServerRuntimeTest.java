@@ -1,13 +1,20 @@
 package io.github.trethore.graphene.internal.http;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.trethore.graphene.api.config.GrapheneHttpConfig;
 import io.github.trethore.graphene.api.url.GrapheneAssetUrls;
+import io.github.trethore.graphene.internal.resource.GrapheneAssetCache;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -15,8 +22,16 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -56,6 +71,26 @@ final class GrapheneHttpServerRuntimeTest {
     return sendRequest("HEAD", url);
   }
 
+  private static HttpResponse<String> sendGet(String url, Map<String, String> headers)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT);
+    headers.forEach(request::header);
+    return HTTP_CLIENT.send(
+        request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+  }
+
+  private static HttpResponse<byte[]> sendGetBytes(String url, String acceptEncoding)
+      throws IOException, InterruptedException {
+    return sendGetBytes(url, Map.of("Accept-Encoding", acceptEncoding));
+  }
+
+  private static HttpResponse<byte[]> sendGetBytes(String url, Map<String, String> headers)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT);
+    headers.forEach(request::header);
+    return HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
   private static boolean tryCreateSymbolicLink(Path linkPath, Path targetPath) {
     try {
       Files.createSymbolicLink(linkPath, targetPath);
@@ -350,5 +385,264 @@ final class GrapheneHttpServerRuntimeTest {
     }
   }
 
+  @Test
+  void answersConditionalRequestsWithNotModified() throws Exception {
+    Path scriptPath = tempDir.resolve("app.js");
+    Files.writeString(scriptPath, "console.log('app');", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(scriptPath, FileTime.from(Instant.parse("2026-03-04T05:06:07.890Z")));
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder().randomPortInRange(30_000, 60_000).fileRoot(tempDir).build();
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config))) {
+      String url = server.baseUrl() + "/mods/my-mod-id/app.js";
+      HttpResponse<String> response = sendGet(url, Map.of());
+      String entityTag = response.headers().firstValue("ETag").orElseThrow();
+
+      assertEquals(200, response.statusCode());
+      assertTrue(entityTag.matches("\"[0-9a-f]{32}\""));
+      assertEquals(
+          "Wed, 04 Mar 2026 05:06:07 GMT",
+          response.headers().firstValue("Last-Modified").orElseThrow());
+      assertEquals("no-cache", response.headers().firstValue("Cache-Control").orElseThrow());
+
+      HttpResponse<String> etagMatch = sendGet(url, Map.of("If-None-Match", "W/" + entityTag));
+      assertEquals(304, etagMatch.statusCode());
+      assertEquals("", etagMatch.body());
+      assertEquals(entityTag, etagMatch.headers().firstValue("ETag").orElseThrow());
+
+      HttpResponse<String> etagMismatch = sendGet(url, Map.of("If-None-Match", "\"stale\""));
+      assertEquals(200, etagMismatch.statusCode());
+
+      HttpResponse<String> notModifiedSince =
+          sendGet(url, Map.of("If-Modified-Since", "Wed, 04 Mar 2026 05:06:07 GMT"));
+      assertEquals(304, notModifiedSince.statusCode());
+
+      HttpResponse<String> modifiedSince =
+          sendGet(url, Map.of("If-Modified-Since", "Wed, 04 Mar 2026 05:06:06 GMT"));
+      assertEquals(200, modifiedSince.statusCode());
+    }
+  }
+
+  @Test
+  void appliesTheMountCacheControlPolicy() throws Exception {
+    Path bundlePath = tempDir.resolve("assets/index-3f2a9c1b.js");
+    Files.createDirectories(bundlePath.getParent());
+    Files.writeString(bundlePath, "bundle", StandardCharsets.UTF_8);
+    Files.writeString(tempDir.resolve("index.html"), "<html></html>", StandardCharsets.UTF_8);
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder()
+            .randomPortInRange(30_000, 60_000)
+            .fileRoot(tempDir)
+            .spaFallback("/index.html")
+            .cacheControl("private, max-age=60")
+            .immutableResourcePattern("assets/.+-[0-9a-f]{8}\\.js")
+            .build();
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config))) {
+      HttpResponse<String> bundle =
+          sendGet(server.baseUrl() + "/mods/my-mod-id/assets/index-3f2a9c1b.js", Map.of());
+      HttpResponse<String> fallback =
+          sendGet(server.baseUrl() + "/mods/my-mod-id/assets/index-3f2a9c1c.css", Map.of());
+      HttpResponse<String> sharedAsset =
+          sendGet(server.baseUrl() + "/assets/grapheneui/example.html", Map.of());
+
+      assertEquals(
+          "public, max-age=31536000, immutable",
+          bundle.headers().firstValue("Cache-Control").orElseThrow());
+      assertEquals("<html></html>", fallback.body());
+      assertEquals(
+          "private, max-age=60", fallback.headers().firstValue("Cache-Control").orElseThrow());
+      assertEquals("no-cache", sharedAsset.headers().firstValue("Cache-Control").orElseThrow());
+      assertTrue(sharedAsset.headers().firstValue("Last-Modified").isEmpty());
+    }
+  }
+
+  @Test
+  void servesPrecompressedSiblingsInTheClientsPreferredCoding() throws Exception {
+    String script = "console.log('graphene');\n".repeat(64);
+    Files.writeString(tempDir.resolve("app.js"), script, StandardCharsets.UTF_8);
+    Files.writeString(tempDir.resolve("app.js.br"), "brotli", StandardCharsets.UTF_8);
+    Files.writeString(tempDir.resolve("app.js.gz"), "gzip", StandardCharsets.UTF_8);
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder().randomPortInRange(30_000, 60_000).fileRoot(tempDir).build();
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config))) {
+      String url = server.baseUrl() + "/mods/my-mod-id/app.js";
+      HttpResponse<byte[]> brotli = sendGetBytes(url, "gzip, br");
+      HttpResponse<byte[]> gzip = sendGetBytes(url, "gzip, br;q=0");
+      HttpResponse<byte[]> identity = sendGetBytes(url, "identity");
+
+      assertEquals("br", brotli.headers().firstValue("Content-Encoding").orElseThrow());
+      assertEquals("brotli", new String(brotli.body(), StandardCharsets.UTF_8));
+      assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElseThrow());
+      assertEquals("gzip", new String(gzip.body(), StandardCharsets.UTF_8));
+      assertTrue(identity.headers().firstValue("Content-Encoding").isEmpty());
+      assertEquals(script, new String(identity.body(), StandardCharsets.UTF_8));
+      assertEquals("Accept-Encoding", identity.headers().firstValue("Vary").orElseThrow());
+      assertNotEquals(
+          brotli.headers().firstValue("ETag").orElseThrow(),
+          identity.headers().firstValue("ETag").orElseThrow());
+    }
+  }
+
+  @Test
+  void gzipsCompressibleResourcesOnceAndSkipsSmallOrBinaryOnes() throws Exception {
+    String stylesheet = "body { color: #222; }\n".repeat(128);
+    Files.writeString(tempDir.resolve("style.css"), stylesheet, StandardCharsets.UTF_8);
+    Files.writeString(tempDir.resolve("tiny.css"), "a{}", StandardCharsets.UTF_8);
+    Files.write(tempDir.resolve("image.png"), new byte[4096]);
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder().randomPortInRange(30_000, 60_000).fileRoot(tempDir).build();
+    GrapheneAssetCache assetCache = new GrapheneAssetCache(1024 * 1024);
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config), assetCache)) {
+      String baseUrl = server.baseUrl() + "/mods/my-mod-id/";
+      HttpResponse<byte[]> first = sendGetBytes(baseUrl + "style.css", "gzip, deflate");
+      long hitsAfterFirst = assetCache.stats().hits();
+      HttpResponse<byte[]> second = sendGetBytes(baseUrl + "style.css", "gzip, deflate");
+
+      assertEquals("gzip", first.headers().firstValue("Content-Encoding").orElseThrow());
+      assertTrue(first.body().length < stylesheet.length());
+      try (GZIPInputStream inputStream =
+          new GZIPInputStream(new ByteArrayInputStream(first.body()))) {
+        assertEquals(stylesheet, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      assertArrayEquals(first.body(), second.body());
+      assertEquals(hitsAfterFirst + 2, assetCache.stats().hits());
+
+      assertTrue(
+          sendGetBytes(baseUrl + "tiny.css", "gzip")
+              .headers()
+              .firstValue("Content-Encoding")
+              .isEmpty());
+      assertTrue(
+          sendGetBytes(baseUrl + "image.png", "gzip")
+              .headers()
+              .firstValue("Content-Encoding")
+              .isEmpty());
+      assertTrue(
+          sendGetBytes(baseUrl + "style.css", "gzip;q=0, *")
+              .headers()
+              .firstValue("Content-Encoding")
+              .isEmpty());
+    }
+  }
+
+  @Test
+  void streamsLargeFilesAndServesSingleByteRanges() throws Exception {
+    byte[] video = new byte[64 * 1024];
+    for (int index = 0; index < video.length; index++) {
+      video[index] = (byte) (index * 31);
+    }
+    Files.write(tempDir.resolve("cutscene.webm"), video);
+    Files.writeString(tempDir.resolve("small.txt"), "0123456789", StandardCharsets.UTF_8);
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder().randomPortInRange(30_000, 60_000).fileRoot(tempDir).build();
+    GrapheneAssetCache assetCache = new GrapheneAssetCache(8 * 1024);
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config), assetCache)) {
+      String url = server.baseUrl() + "/mods/my-mod-id/cutscene.webm";
+      HttpResponse<byte[]> full = sendGetBytes(url, Map.of());
+      String entityTag = full.headers().firstValue("ETag").orElseThrow();
+      HttpResponse<byte[]> middle = sendGetBytes(url, Map.of("Range", "bytes=100-199"));
+      HttpResponse<byte[]> suffix = sendGetBytes(url, Map.of("Range", "bytes=-10"));
+      HttpResponse<byte[]> unsatisfiable = sendGetBytes(url, Map.of("Range", "bytes=70000-"));
+      HttpResponse<byte[]> currentIfRange =
+          sendGetBytes(url, Map.of("Range", "bytes=0-0", "If-Range", entityTag));
+      HttpResponse<byte[]> staleIfRange =
+          sendGetBytes(url, Map.of("Range", "bytes=0-0", "If-Range", "\"stale\""));
+      HttpResponse<byte[]> smallRange =
+          sendGetBytes(
+              server.baseUrl() + "/mods/my-mod-id/small.txt", Map.of("Range", "bytes=2-4"));
+
+      assertEquals(200, full.statusCode());
+      assertArrayEquals(video, full.body());
+      assertEquals("bytes", full.headers().firstValue("Accept-Ranges").orElseThrow());
+      assertTrue(assetCache.stats().cachedBytes() < video.length);
+      assertEquals(206, middle.statusCode());
+      assertEquals(
+          "bytes 100-199/65536", middle.headers().firstValue("Content-Range").orElseThrow());
+      assertArrayEquals(Arrays.copyOfRange(video, 100, 200), middle.body());
+      assertArrayEquals(Arrays.copyOfRange(video, video.length - 10, video.length), suffix.body());
+      assertEquals(416, unsatisfiable.statusCode());
+      assertEquals(
+          "bytes */65536", unsatisfiable.headers().firstValue("Content-Range").orElseThrow());
+      assertEquals(206, currentIfRange.statusCode());
+      assertEquals(1, currentIfRange.body().length);
+      assertEquals(200, staleIfRange.statusCode());
+      assertEquals(video.length, staleIfRange.body().length);
+      assertEquals(206, smallRange.statusCode());
+      assertEquals("234", new String(smallRange.body(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void servesParallelRequestsWhileOtherDownloadsAreStalled() throws Exception {
+    Path largePath = tempDir.resolve("large.bin");
+    Files.write(largePath, new byte[32 * 1024 * 1024]);
+    for (int index = 0; index < 80; index++) {
+      Files.writeString(tempDir.resolve("chunk-" + index + ".js"), "chunk " + index);
+    }
+
+    GrapheneHttpConfig config =
+        GrapheneHttpConfig.builder().randomPortInRange(30_000, 60_000).fileRoot(tempDir).build();
+
+    try (GrapheneHttpServerRuntime server =
+        GrapheneHttpServerRuntime.start(Map.of("my-mod-id", config))) {
+      List<Socket> stalledClients = new ArrayList<>();
+      try {
+        for (int index = 0; index < 4; index++) {
+          stalledClients.add(openStalledDownload(server, "/mods/my-mod-id/large.bin"));
+        }
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int index = 0; index < 80; index++) {
+          HttpRequest request =
+              HttpRequest.newBuilder(
+                      URI.create(server.baseUrl() + "/mods/my-mod-id/chunk-" + index + ".js"))
+                  .timeout(Duration.ofSeconds(10))
+                  .build();
+          responses.add(
+              HTTP_CLIENT.sendAsync(
+                  request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+        }
+
+        for (int index = 0; index < responses.size(); index++) {
+          HttpResponse<String> response = responses.get(index).get(10, TimeUnit.SECONDS);
+          assertEquals(200, response.statusCode());
+          assertEquals("chunk " + index, response.body());
+        }
+      } finally {
+        for (Socket stalledClient : stalledClients) {
+          stalledClient.close();
+        }
+      }
+    }
+  }
+
+  /** Requests a large file and never reads the body, keeping one server thread busy writing it. */
+  private static Socket openStalledDownload(GrapheneHttpServerRuntime server, String path)
+      throws IOException {
+    Socket socket = new Socket();
+    socket.setReceiveBufferSize(4096);
+    socket.connect(new InetSocketAddress(server.host(), server.port()), 2000);
+    OutputStream outputStream = socket.getOutputStream();
+    outputStream.write(
+        ("GET " + path + " HTTP/1.1\r\nHost: " + server.host() + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+    outputStream.flush();
+    return socket;
+  }
+
   private record TestHttpResponse(int statusCode, String body) {}
 }
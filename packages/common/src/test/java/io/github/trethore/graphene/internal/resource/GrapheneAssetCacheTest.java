@@ -0,0 +1,98 @@
+package io.github.trethore.graphene.internal.resource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class GrapheneAssetCacheTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void servesRepeatedClasspathReadsFromMemory() throws IOException {
+    GrapheneAssetCache cache = new GrapheneAssetCache(1024 * 1024);
+
+    GrapheneAssetCache.Asset first = cache.readClasspathResource("assets/grapheneui/example.html");
+    GrapheneAssetCache.Asset second = cache.readClasspathResource("assets/grapheneui/example.html");
+
+    assertSame(first, second);
+    assertEquals(GrapheneAssetCache.Asset.UNKNOWN_LAST_MODIFIED, first.lastModifiedMillis());
+    assertNull(cache.readClasspathResource("assets/grapheneui/missing.html"));
+    GrapheneAssetCache.Stats stats = cache.stats();
+    assertEquals(1, stats.hits());
+    assertEquals(2, stats.misses());
+    assertEquals(1, stats.entryCount());
+    assertEquals(first.bytes().length, stats.cachedBytes());
+  }
+
+  @Test
+  void reloadsFilesWhoseModificationTimeOrSizeChanged() throws IOException {
+    GrapheneAssetCache cache = new GrapheneAssetCache(1024 * 1024);
+    Path file = tempDir.resolve("app.js");
+    Files.writeString(file, "first", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-01-01T00:00:00Z")));
+
+    GrapheneAssetCache.Asset first = cache.readFile(file);
+    assertSame(first, cache.readFile(file));
+
+    Files.writeString(file, "second", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-01-01T00:00:01Z")));
+
+    GrapheneAssetCache.Asset second = cache.readFile(file);
+    assertArrayEquals("second".getBytes(StandardCharsets.UTF_8), second.bytes());
+    assertEquals(Instant.parse("2026-01-01T00:00:01Z").toEpochMilli(), second.lastModifiedMillis());
+    assertNotEquals(first.entityTag(), second.entityTag());
+    assertEquals(1, cache.stats().hits());
+    assertEquals(2, cache.stats().misses());
+    assertEquals(1, cache.stats().entryCount());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntriesOverTheByteBudget() throws IOException {
+    GrapheneAssetCache cache = new GrapheneAssetCache(800);
+    Path recentlyUsed = writeFile("recently-used.bin", 100);
+    cache.readFile(recentlyUsed);
+    for (int index = 0; index < 7; index++) {
+      cache.readFile(writeFile("filler-" + index + ".bin", 100));
+    }
+    cache.readFile(recentlyUsed);
+
+    cache.readFile(writeFile("overflow.bin", 100));
+    cache.readFile(recentlyUsed);
+    cache.readFile(tempDir.resolve("filler-0.bin"));
+
+    GrapheneAssetCache.Stats stats = cache.stats();
+    assertEquals(2, stats.hits());
+    assertEquals(2, stats.evictions());
+    assertEquals(8, stats.entryCount());
+    assertEquals(800, stats.cachedBytes());
+  }
+
+  @Test
+  void doesNotCacheEntriesLargerThanAnEighthOfTheBudget() throws IOException {
+    GrapheneAssetCache cache = new GrapheneAssetCache(800);
+    Path large = writeFile("large.bin", 101);
+
+    cache.readFile(large);
+    cache.readFile(large);
+
+    assertEquals(0, cache.stats().hits());
+    assertEquals(0, cache.stats().entryCount());
+  }
+
+  private Path writeFile(String name, int size) throws IOException {
+    Path file = tempDir.resolve(name);
+    Files.write(file, new byte[size]);
+    return file;
+  }
+}
@@ -1,6 +1,8 @@
 package io.github.trethore.graphene.internal.resource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -18,4 +20,14 @@ final class GrapheneMimeTypesTest {
         GrapheneMimeTypes.DEFAULT_MIME_TYPE, GrapheneMimeTypes.resolve("web/custom.unknown"));
     assertEquals(GrapheneMimeTypes.DEFAULT_MIME_TYPE, GrapheneMimeTypes.resolve("README"));
   }
+
+  @Test
+  void onlyReportsTextLikeMimeTypesAsCompressible() {
+    assertTrue(GrapheneMimeTypes.isCompressible("text/javascript"));
+    assertTrue(GrapheneMimeTypes.isCompressible("application/JSON"));
+    assertTrue(GrapheneMimeTypes.isCompressible("image/svg+xml"));
+    assertFalse(GrapheneMimeTypes.isCompressible("image/png"));
+    assertFalse(GrapheneMimeTypes.isCompressible("font/woff2"));
+    assertFalse(GrapheneMimeTypes.isCompressible(GrapheneMimeTypes.DEFAULT_MIME_TYPE));
+  }
 }
@@ -0,0 +1,93 @@
+package io.github.trethore.graphene.internal.browser;
+
+import java.nio.ByteBuffer;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Converts rows with {@code jdk.incubator.vector} shuffles. Rows are staged in fixed-size chunks
+ * through a small thread-local array because the incubator API cannot load from buffers on every
+ * supported JDK. This class links against the incubator module, is compiled in its own source set,
+ * and must only be loaded after checking that the module is present.
+ */
+final class GrapheneVectorPixelKernel implements GraphenePixelKernel {
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+  private static final int MINIMUM_LANES = 16;
+  // A multiple of every vector length, so only a row's final chunk needs the scalar tail.
+  private static final int CHUNK_BYTES = 4096;
+  private static final VectorShuffle<Byte> SWAP_RED_BLUE =
+      VectorShuffle.fromOp(SPECIES, GrapheneVectorPixelKernel::swappedLane);
+  private static final VectorMask<Byte> ALPHA_LANES = alphaLanes();
+
+  private final ThreadLocal<byte[]> chunks = ThreadLocal.withInitial(() -> new byte[CHUNK_BYTES]);
+
+  GrapheneVectorPixelKernel() {
+    if (SPECIES.length() < MINIMUM_LANES) {
+      throw new UnsupportedOperationException(
+          "Preferred vector species has only " + SPECIES.length() + " byte lanes");
+    }
+  }
+
+  @Override
+  public void convertRow(
+      ByteBuffer source,
+      int sourceOffset,
+      ByteBuffer target,
+      int targetOffset,
+      int pixelCount,
+      boolean swapRedBlue,
+      boolean opaque) {
+    byte[] chunk = chunks.get();
+    int byteCount = pixelCount * 4;
+    for (int chunkOffset = 0; chunkOffset < byteCount; chunkOffset += CHUNK_BYTES) {
+      int chunkBytes = Math.min(CHUNK_BYTES, byteCount - chunkOffset);
+      source.get(sourceOffset + chunkOffset, chunk, 0, chunkBytes);
+      convertChunk(chunk, chunkBytes, swapRedBlue, opaque);
+      target.put(targetOffset + chunkOffset, chunk, 0, chunkBytes);
+    }
+  }
+
+  private static void convertChunk(
+      byte[] chunk, int byteCount, boolean swapRedBlue, boolean opaque) {
+    int vectorBound = SPECIES.loopBound(byteCount);
+    int index = 0;
+    for (; index < vectorBound; index += SPECIES.length()) {
+      ByteVector pixels = ByteVector.fromArray(SPECIES, chunk, index);
+      if (swapRedBlue) {
+        pixels = pixels.rearrange(SWAP_RED_BLUE);
+      }
+      if (opaque) {
+        pixels = pixels.blend((byte) 0xFF, ALPHA_LANES);
+      }
+      pixels.intoArray(chunk, index);
+    }
+    for (; index < byteCount; index += 4) {
+      if (swapRedBlue) {
+        byte first = chunk[index];
+        chunk[index] = chunk[index + 2];
+        chunk[index + 2] = first;
+      }
+      if (opaque) {
+        chunk[index + 3] = (byte) 0xFF;
+      }
+    }
+  }
+
+  private static int swappedLane(int lane) {
+    return switch (lane & 3) {
+      case 0 -> lane + 2;
+      case 2 -> lane - 2;
+      default -> lane;
+    };
+  }
+
+  private static VectorMask<Byte> alphaLanes() {
+    boolean[] lanes = new boolean[SPECIES.length()];
+    for (int lane = 3; lane < lanes.length; lane += 4) {
+      lanes[lane] = true;
+    }
+    return VectorMask.fromArray(SPECIES, lanes, 0);
+  }
+}
@@ -3,6 +3,7 @@ package io.github.trethore.graphene.fabric.internal.browser;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.textures.FilterMode;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.internal.browser.GrapheneFrameStager;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.render.TextureSetup;
 import net.minecraft.client.gui.render.state.BlitRenderState;
@@ -12,20 +13,32 @@ import org.joml.Matrix3x2f;
 public final class GrapheneBrowserGpuRenderer implements AutoCloseable {
   private final GrapheneBrowserGpuTexture texture = new GrapheneBrowserGpuTexture();
   private final GrapheneBrowserFrameUploader uploader = new GrapheneBrowserFrameUploader();
+  private final GrapheneFrameStager stager;
+  private final boolean transparent;
+
+  public GrapheneBrowserGpuRenderer(boolean transparent) {
+    this.transparent = transparent;
+    this.stager = new GrapheneFrameStager(transparent);
+  }
+
+  /** Converts {@code frame} on the staging worker ahead of the next render. */
+  public void stage(BrowserFrame frame) {
+    stager.stage(frame);
+  }
 
   public void render(
-      GuiGraphics graphics,
-      BrowserFrame frame,
-      boolean transparent,
-      int x,
-      int y,
-      int width,
-      int height) {
+      GuiGraphics graphics, BrowserFrame frame, int x, int y, int width, int height) {
     if (width <= 0 || height <= 0) {
       return;
     }
     texture.ensureSize(frame.width(), frame.height());
-    uploader.upload(texture, frame, transparent);
+    if (frame.retain()) {
+      try {
+        uploader.upload(texture, frame, transparent, stager);
+      } finally {
+        frame.release();
+      }
+    }
     graphics.guiRenderState.submitGuiElement(
         new BlitRenderState(
             transparent
@@ -48,6 +61,7 @@ public final class GrapheneBrowserGpuRenderer implements AutoCloseable {
 
   @Override
   public void close() {
+    stager.close();
     texture.close();
   }
 }
@@ -115,6 +115,7 @@ java {
 
 tasks.named<Jar>("sourcesJar") {
   from(project(":packages:common").file("src/main/java"))
+  from(project(":packages:common").file("src/vector/java"))
   from(project(":packages:common").file("src/main/resources"))
 }
 
@@ -1,12 +1,14 @@
 package io.github.trethore.graphene.fabric.api.surface;
 
 import io.github.trethore.graphene.api.GrapheneContext;
+import io.github.trethore.graphene.api.GrapheneSubscription;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
 import io.github.trethore.graphene.api.browser.BrowserOptions;
 import io.github.trethore.graphene.api.browser.BrowserSession;
 import io.github.trethore.graphene.fabric.internal.browser.GrapheneBrowserGpuRenderer;
 import io.github.trethore.graphene.fabric.internal.util.MinecraftReferences;
 import io.github.trethore.graphene.internal.browser.GrapheneSurfaceSizingState;
+import io.github.trethore.graphene.internal.browser.GrapheneSurfaceVisibilityState;
 import java.util.Objects;
 import java.util.Optional;
 import net.minecraft.client.gui.GuiGraphicsExtractor;
@@ -20,10 +22,13 @@ import net.minecraft.client.gui.GuiGraphicsExtractor;
 public final class BrowserSurface implements AutoCloseable {
   private static final String WIDTH_NAME = "width";
   private static final String HEIGHT_NAME = "height";
+  private static final int DEFAULT_SUSPEND_AFTER_UNRENDERED_FRAMES = 30;
 
   private final BrowserSession browser;
-  private final GrapheneBrowserGpuRenderer renderer = new GrapheneBrowserGpuRenderer();
+  private final GrapheneBrowserGpuRenderer renderer;
   private final GrapheneSurfaceSizingState sizing;
+  private final GrapheneSurfaceVisibilityState visibility;
+  private final GrapheneSubscription frameSubscription;
   private boolean closed;
 
   private BrowserSurface(Builder builder) {
@@ -41,6 +46,9 @@ public final class BrowserSurface implements AutoCloseable {
             .browsers()
             .create(
                 builder.url, builder.options, sizing.resolutionWidth(), sizing.resolutionHeight());
+    visibility = new GrapheneSurfaceVisibilityState(builder.suspendAfterUnrenderedFrames);
+    renderer = new GrapheneBrowserGpuRenderer(builder.options.transparent());
+    frameSubscription = browser.onFrame(this::onFrame);
   }
 
   public static Builder builder(GrapheneContext context) {
@@ -84,18 +92,19 @@ public final class BrowserSurface implements AutoCloseable {
     GuiGraphicsExtractor validatedGraphics = Objects.requireNonNull(graphics, "graphics");
     int validatedWidth = requirePositive(renderedWidth, "renderedWidth");
     int validatedHeight = requirePositive(renderedHeight, "renderedHeight");
+    if (visibility.rendered()) {
+      browser.setVisible(true);
+    }
     Optional<BrowserFrame> availableFrame = browser.latestFrame();
     if (availableFrame.isEmpty()) {
       return;
     }
-    renderer.render(
-        validatedGraphics,
-        availableFrame.get(),
-        browser.options().transparent(),
-        x,
-        y,
-        validatedWidth,
-        validatedHeight);
+    BrowserFrame frame = availableFrame.get();
+    try {
+      renderer.render(validatedGraphics, frame, x, y, validatedWidth, validatedHeight);
+    } finally {
+      frame.release();
+    }
   }
 
   /**
@@ -135,10 +144,18 @@ public final class BrowserSurface implements AutoCloseable {
       return;
     }
     closed = true;
+    frameSubscription.unsubscribe();
     renderer.close();
     browser.close();
   }
 
+  private void onFrame(BrowserFrame frame) {
+    renderer.stage(frame);
+    if (visibility.frameDelivered()) {
+      browser.setVisible(false);
+    }
+  }
+
   private void applyResize(GrapheneSurfaceSizingState.Resize resize) {
     if (resize.required()) {
       browser.resize(resize.width(), resize.height());
@@ -172,6 +189,7 @@ public final class BrowserSurface implements AutoCloseable {
     private boolean autoResolution = true;
     private int resolutionWidth = 1;
     private int resolutionHeight = 1;
+    private int suspendAfterUnrenderedFrames = DEFAULT_SUSPEND_AFTER_UNRENDERED_FRAMES;
 
     private Builder(GrapheneContext context) {
       this.context = Objects.requireNonNull(context, "context");
@@ -208,6 +226,18 @@ public final class BrowserSurface implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Hides the browser after this many consecutive frames arrive without the surface being
+     * rendered, and shows it again on the next render. {@code 0} keeps the browser visible.
+     */
+    public Builder suspendAfterUnrenderedFrames(int frames) {
+      if (frames < 0) {
+        throw new IllegalArgumentException("frames must not be negative");
+      }
+      suspendAfterUnrenderedFrames = frames;
+      return this;
+    }
+
     public BrowserSurface build() {
       return new BrowserSurface(this);
     }
@@ -3,29 +3,57 @@ package io.github.trethore.graphene.fabric.internal.browser;
 import com.mojang.blaze3d.systems.RenderSystem;
 import io.github.trethore.graphene.api.browser.BrowserDirtyRegion;
 import io.github.trethore.graphene.api.browser.BrowserFrame;
+import io.github.trethore.graphene.api.browser.BrowserPixelFormat;
+import io.github.trethore.graphene.internal.browser.GrapheneFrameStager;
+import io.github.trethore.graphene.internal.browser.GraphenePixelConverter;
 import java.nio.ByteBuffer;
 
 final class GrapheneBrowserFrameUploader {
-  private static final int MAX_PARTIAL_UPLOADS = 64;
-  private static final double FULL_UPLOAD_THRESHOLD = 0.45;
   private ByteBuffer uploadBuffer;
 
-  void upload(GrapheneBrowserGpuTexture texture, BrowserFrame frame, boolean transparent) {
+  /**
+   * Brings {@code texture} up to {@code frame}. Uploads staged by {@code stager} are written as
+   * they are; without a matching staged upload the frame is converted on the calling thread.
+   */
+  void upload(
+      GrapheneBrowserGpuTexture texture,
+      BrowserFrame frame,
+      boolean transparent,
+      GrapheneFrameStager stager) {
     if (texture.isUploaded(frame.sequence())) {
       return;
     }
+    GrapheneFrameStager.StagedFrame staged = stager.take(frame.sequence());
+    try {
+      if (staged != null && staged.appliesTo(texture.uploadedSequence())) {
+        for (GrapheneFrameStager.StagedRegion region : staged.regions()) {
+          BrowserDirtyRegion bounds = region.region();
+          writeToTexture(
+              texture,
+              staged.pixels(region),
+              bounds.x(),
+              bounds.y(),
+              bounds.width(),
+              bounds.height());
+        }
+        texture.markUploaded(frame.sequence());
+        return;
+      }
+    } finally {
+      stager.recycle(staged);
+    }
     ByteBuffer pixels = frame.pixels();
-    int rowStrideBytes = frame.rowStrideBytes();
+    BrowserPixelFormat textureFormat =
+        GrapheneFrameStager.textureFormat(frame.pixelFormat(), transparent);
     if (shouldUploadFullFrame(frame, texture.canApplyDirtyRegions(frame.sequence()))) {
-      uploadRegion(
-          texture, pixels, rowStrideBytes, transparent, 0, 0, frame.width(), frame.height());
+      uploadRegion(texture, frame, pixels, textureFormat, 0, 0, frame.width(), frame.height());
     } else {
       for (BrowserDirtyRegion region : frame.dirtyRegions()) {
         int width = Math.min(region.width(), frame.width() - region.x());
         int height = Math.min(region.height(), frame.height() - region.y());
         if (width > 0 && height > 0) {
           uploadRegion(
-              texture, pixels, rowStrideBytes, transparent, region.x(), region.y(), width, height);
+              texture, frame, pixels, textureFormat, region.x(), region.y(), width, height);
         }
       }
     }
@@ -34,49 +62,46 @@ final class GrapheneBrowserFrameUploader {
 
   private void uploadRegion(
       GrapheneBrowserGpuTexture texture,
+      BrowserFrame frame,
       ByteBuffer source,
-      int rowStrideBytes,
-      boolean transparent,
+      BrowserPixelFormat textureFormat,
       int x,
       int y,
       int width,
       int height) {
-    int byteCount = Math.multiplyExact(Math.multiplyExact(width, height), 4);
-    ByteBuffer converted = ensureBuffer(byteCount);
-    converted.clear();
-    for (int row = 0; row < height; row++) {
-      int sourceIndex = (y + row) * rowStrideBytes + x * 4;
-      for (int column = 0; column < width; column++) {
-        byte blue = source.get(sourceIndex++);
-        byte green = source.get(sourceIndex++);
-        byte red = source.get(sourceIndex++);
-        byte alpha = source.get(sourceIndex++);
-        converted.put(red).put(green).put(blue).put(transparent ? alpha : (byte) 0xFF);
+    int rowStrideBytes = frame.rowStrideBytes();
+    int rowBytes = Math.multiplyExact(width, 4);
+    int byteCount = Math.multiplyExact(rowBytes, height);
+    ByteBuffer upload;
+    if (frame.pixelFormat() == textureFormat && width == frame.width()) {
+      upload = source.slice(y * rowStrideBytes, byteCount);
+    } else {
+      upload = ensureBuffer(byteCount);
+      for (int row = 0; row < height; row++) {
+        GraphenePixelConverter.convert(
+            source,
+            (y + row) * rowStrideBytes + x * 4,
+            frame.pixelFormat(),
+            upload,
+            row * rowBytes,
+            textureFormat,
+            width);
       }
     }
-    converted.flip();
+    writeToTexture(texture, upload, x, y, width, height);
+  }
+
+  private static void writeToTexture(
+      GrapheneBrowserGpuTexture texture, ByteBuffer pixels, int x, int y, int width, int height) {
     RenderSystem.getDevice()
         .createCommandEncoder()
-        .writeToTexture(texture.texture(), converted, 0, 0, x, y, width, height);
+        .writeToTexture(texture.texture(), pixels, 0, 0, x, y, width, height);
   }
 
   static boolean shouldUploadFullFrame(BrowserFrame frame, boolean consecutiveSequence) {
-    if (!consecutiveSequence || frame.dirtyRegions().size() >= MAX_PARTIAL_UPLOADS) {
-      return true;
-    }
-    long dirtyPixels = 0;
-    long framePixels = (long) frame.width() * frame.height();
-    for (BrowserDirtyRegion region : frame.dirtyRegions()) {
-      int availableWidth = Math.max(0, frame.width() - region.x());
-      int availableHeight = Math.max(0, frame.height() - region.y());
-      int width = Math.clamp(region.width(), 0, availableWidth);
-      int height = Math.clamp(region.height(), 0, availableHeight);
-      dirtyPixels += (long) width * height;
-      if ((double) dirtyPixels / framePixels >= FULL_UPLOAD_THRESHOLD) {
-        return true;
-      }
-    }
-    return dirtyPixels == 0;
+    return !consecutiveSequence
+        || GrapheneFrameStager.requiresFullUpload(
+            frame.width(), frame.height(), frame.dirtyRegions());
   }
 
   private ByteBuffer ensureBuffer(int capacity) {
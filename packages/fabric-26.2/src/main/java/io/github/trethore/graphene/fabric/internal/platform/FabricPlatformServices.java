@@ -14,9 +14,13 @@ import io.github.trethore.graphene.internal.platform.GrapheneWindowMetrics;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
 import org.lwjgl.PointerBuffer;
@@ -55,12 +59,21 @@ public final class FabricPlatformServices {
   }
 
   private static GrapheneTaskExecutor mainThreadExecutor() {
+    // Minecraft.execute runs inline on the client thread, so deferred actions wait for the end of
+    // the current tick instead.
+    Queue<Runnable> deferredActions = new ConcurrentLinkedQueue<>();
+    ClientTickEvents.END_CLIENT_TICK.register(_ -> runDeferredActions(deferredActions));
     return new GrapheneTaskExecutor() {
       @Override
       public void execute(Runnable action) {
         MinecraftReferences.execute(action);
       }
 
+      @Override
+      public void defer(Runnable action) {
+        deferredActions.add(Objects.requireNonNull(action, "action"));
+      }
+
       @Override
       public <T> CompletableFuture<T> supply(Supplier<T> action) {
         CompletableFuture<T> future = new CompletableFuture<>();
@@ -77,6 +90,17 @@ public final class FabricPlatformServices {
     };
   }
 
+  private static void runDeferredActions(Queue<Runnable> deferredActions) {
+    // Actions deferred while draining run on the next tick.
+    for (int remaining = deferredActions.size(); remaining > 0; remaining--) {
+      Runnable action = deferredActions.poll();
+      if (action == null) {
+        return;
+      }
+      action.run();
+    }
+  }
+
   private static GrapheneModResolver modResolver() {
     return new GrapheneModResolver() {
       @Override